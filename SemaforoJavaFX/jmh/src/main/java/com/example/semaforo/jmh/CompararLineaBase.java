@@ -0,0 +1,89 @@
+package com.example.semaforo.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dos resultados de JMH en formato texto ({@code -rf text}) y marca las regresiones.
+ *
+ * Solo mira tiempo por operación (ns/op, us/op, ms/op) y asignación normalizada (B/op, del
+ * perfilador {@code -prof gc}); las tasas de GC dependen de la duración de la corrida y no
+ * sirven para comparar. Una fila es regresión si empeora más que la tolerancia (10 % por
+ * defecto); en B/op además tiene que crecer al menos un byte, porque los valores cercanos a
+ * cero son ruido. Sale con código 1 si hay alguna regresión.
+ *
+ *   java -cp target/benchmarks.jar com.example.semaforo.jmh.CompararLineaBase linea-base.txt resultados.txt [tolerancia%]
+ */
+public final class CompararLineaBase {
+
+    private record Fila(double valor, String unidad) {}
+
+    private CompararLineaBase() {
+    }
+
+    static Map<String, Fila> leer(Path archivo) throws IOException {
+        Map<String, Fila> filas = new LinkedHashMap<>();
+        for (String linea : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+            String[] t = linea.trim().split("\\s+");
+            if (t.length < 5 || t[0].equals("Benchmark")) {
+                continue;
+            }
+            String unidad = t[t.length - 1];
+            if (!comparable(unidad)) {
+                continue;
+            }
+            // Benchmark Mode Cnt Score [± Error] Units; JMH escribe "≈ 10⁻⁶" para valores casi nulos
+            double valor = t[3].equals("≈") ? 0 : Double.parseDouble(t[3].replace(',', '.'));
+            filas.put(t[0], new Fila(valor, unidad));
+        }
+        return filas;
+    }
+
+    private static boolean comparable(String unidad) {
+        return unidad.equals("ns/op") || unidad.equals("us/op") || unidad.equals("ms/op") || unidad.equals("B/op");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararLineaBase linea-base.txt resultados.txt [tolerancia%]");
+            System.exit(2);
+        }
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, Fila> base = leer(Path.of(args[0]));
+        Map<String, Fila> nuevo = leer(Path.of(args[1]));
+
+        int regresiones = 0;
+        System.out.printf("%-62s %12s %12s %8s%n", "Benchmark", "Base", "Nuevo", "Cambio");
+        for (Map.Entry<String, Fila> e : nuevo.entrySet()) {
+            Fila n = e.getValue();
+            Fila b = base.get(e.getKey());
+            if (b == null) {
+                System.out.printf("%-62s %12s %12.3f %8s  sin línea base (%s)%n", e.getKey(), "-", n.valor(), "", n.unidad());
+                continue;
+            }
+            if (!b.unidad().equals(n.unidad())) {
+                System.out.printf("%-62s unidades distintas: %s y %s%n", e.getKey(), b.unidad(), n.unidad());
+                continue;
+            }
+            double limite = b.valor() * (1 + tolerancia) + (n.unidad().equals("B/op") ? 1 : 0);
+            boolean peor = n.valor() > limite;
+            regresiones += peor ? 1 : 0;
+            String cambio = b.valor() > 0 ? String.format("%+.1f%%", 100 * (n.valor() - b.valor()) / b.valor()) : "";
+            System.out.printf("%-62s %12.3f %12.3f %8s %s%s%n", e.getKey(), b.valor(), n.valor(), cambio, n.unidad(),
+                    peor ? "  REGRESIÓN" : "");
+        }
+        for (String nombre : base.keySet()) {
+            if (!nuevo.containsKey(nombre)) {
+                System.out.printf("%-62s falta en los resultados nuevos%n", nombre);
+            }
+        }
+        System.out.println(regresiones == 0 ? "Sin regresiones" : regresiones + " regresiones");
+        if (regresiones > 0) {
+            System.exit(1);
+        }
+    }
+}
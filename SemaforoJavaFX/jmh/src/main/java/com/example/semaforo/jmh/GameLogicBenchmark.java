@@ -0,0 +1,59 @@
+package com.example.semaforo.jmh;
+
+import com.example.semaforo.GameLogic;
+import com.example.semaforo.Light;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameLogic#registrarIntento} en verde (acierto: arma el resultado y el mensaje) y
+ * fuera de verde (error), y {@link GameLogic#calcularPuntaje} con reacciones que varían
+ * dentro y fuera de la ventana de 2 s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameLogicBenchmark {
+
+    private final GameLogic juego = new GameLogic();
+    private long instanteMs;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        juego.reset();
+        juego.onLightChange(Light.GREEN, 0);
+        instanteMs = 0;
+    }
+
+    @Benchmark
+    public GameLogic.AttemptResult registrarIntentoAcierto() {
+        instanteMs = (instanteMs + 37) & 2047;
+        return juego.registrarIntento(instanteMs, Light.GREEN);
+    }
+
+    @Benchmark
+    public GameLogic.AttemptResult registrarIntentoError() {
+        instanteMs = (instanteMs + 37) & 2047;
+        return juego.registrarIntento(instanteMs, Light.RED);
+    }
+
+    @Benchmark
+    public long calcularPuntaje() {
+        instanteMs = (instanteMs + 37) & 4095;
+        return juego.calcularPuntaje(instanteMs);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.semaforo.jmh;
+
+import com.example.semaforo.Light;
+import com.example.semaforo.LightRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LightRules#evaluarAccion} con una acción que tiene regla, una que no, {@code null},
+ * una con mayúsculas y espacios, y una mezcla de todas que rota en cada llamada (así la
+ * predicción de saltos no aprende un único camino).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LightRulesBenchmark {
+
+    private LightRules reglas;
+
+    // Campos no finales: el JIT no puede tratar la entrada como constante
+    private Light luz = Light.GREEN;
+    private String acierto = "avanzar";
+    private String fallo = "volar";
+    private String nulo = null;
+    private String mayusculas = "  AvAnZaR ";
+    private int accionId;
+
+    private Light[] lucesMezcla;
+    private String[] accionesMezcla;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        reglas = new LightRules();
+        accionId = reglas.accionId(acierto);
+        accionesMezcla = new String[] {"avanzar", "volar", null, "  Esperar", "DETENERSE", "cruzar ", "", "esperar"};
+        lucesMezcla = new Light[accionesMezcla.length];
+        for (int i = 0; i < lucesMezcla.length; i++) {
+            lucesMezcla[i] = Light.values()[i % Light.values().length];
+        }
+    }
+
+    @Benchmark
+    public LightRules.Regla acierto() {
+        return reglas.evaluarAccion(luz, acierto);
+    }
+
+    @Benchmark
+    public LightRules.Regla fallo() {
+        return reglas.evaluarAccion(luz, fallo);
+    }
+
+    @Benchmark
+    public LightRules.Regla nulo() {
+        return reglas.evaluarAccion(luz, nulo);
+    }
+
+    @Benchmark
+    public LightRules.Regla mayusculasYEspacios() {
+        return reglas.evaluarAccion(luz, mayusculas);
+    }
+
+    /** Camino con el id ya compilado (sin buscar el texto). */
+    @Benchmark
+    public LightRules.Regla idCompilado() {
+        return reglas.evaluar(luz, accionId);
+    }
+
+    @Benchmark
+    public LightRules.Regla mezcla() {
+        int i = siguiente = (siguiente + 1) & (accionesMezcla.length - 1);
+        return reglas.evaluarAccion(lucesMezcla[i], accionesMezcla[i]);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.semaforo.jmh;
+
+import com.example.semaforo.Light;
+import com.example.semaforo.LightRules;
+import com.example.semaforo.MotorConsultas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MotorConsultas} con una consulta que encadena la recursión de {@code alcanza/2} y
+ * {@code segura/2}: respondida desde las tablas y resuelta de cero (tablas vaciadas antes).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MotorConsultasBenchmark {
+
+    private final MotorConsultas motor = new MotorConsultas(new LightRules());
+    private final MotorConsultas.Meta consulta = MotorConsultas.Meta.de("segura_luego", Light.RED, "?a");
+
+    @Benchmark
+    public List<Map<String, Object>> desdeTablas() {
+        return motor.consultar(consulta);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> sinTablas() {
+        motor.limpiarTablas();
+        return motor.consultar(consulta);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.semaforo.jmh;
+
+import com.example.semaforo.Light;
+import com.example.semaforo.TrafficLightLogic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link TrafficLightLogic#nextState} recorriendo el ciclo: cada llamada parte del resultado
+ * de la anterior, así se miden las tres ramas y no una constante.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrafficLightLogicBenchmark {
+
+    private final TrafficLightLogic logica = new TrafficLightLogic();
+    private final UnaryOperator<Light> funcion = logica.getNextStateFunction();
+    private Light luz = Light.RED;
+
+    @Benchmark
+    public Light nextState() {
+        return luz = logica.nextState(luz);
+    }
+
+    /** La misma transición a través de la función expuesta a la interfaz. */
+    @Benchmark
+    public Light funcionSiguiente() {
+        return luz = funcion.apply(luz);
+    }
+}
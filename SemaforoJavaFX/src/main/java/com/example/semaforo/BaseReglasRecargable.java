@@ -0,0 +1,121 @@
+package com.example.semaforo;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Base de conocimiento cargada desde un archivo ({@link ReglasArchivo}) que se recarga sola
+ * cuando el archivo cambia.
+ *
+ * Un hilo vigila la carpeta con {@link WatchService}; al detectar cambios analiza y compila
+ * la nueva base fuera del camino de evaluación y la publica con un solo
+ * {@link AtomicReference#set}. Quien evalúa solo hace {@link #actual()} (una lectura volátil)
+ * y nunca espera un bloqueo. Si el archivo nuevo tiene errores o queda vacío se conserva la
+ * base anterior. Las recargas se serializan: nunca hay dos análisis a la vez escribiendo la
+ * caché, y una recarga lenta no puede publicar reglas más viejas que la que la siguió.
+ */
+public final class BaseReglasRecargable implements AutoCloseable {
+
+    private static final long ESPERA_MS = 150;
+
+    private final Path archivo;
+    private final AtomicReference<LightRules> actual;
+    private final Consumer<LightRules> alRecargar;
+    private final Consumer<Exception> alFallar;
+    private WatchService vigilante;
+
+    public BaseReglasRecargable(Path archivo, Consumer<LightRules> alRecargar, Consumer<Exception> alFallar)
+            throws IOException {
+        this.archivo = archivo.toAbsolutePath();
+        this.alRecargar = alRecargar;
+        this.alFallar = alFallar;
+        this.actual = new AtomicReference<>(new LightRules(ReglasArchivo.cargar(this.archivo)));
+    }
+
+    public LightRules actual() {
+        return actual.get();
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Empieza a vigilar el archivo en un hilo daemon. Lo primero que hace el hilo es releer el
+     * archivo una vez: lo guardado entre la carga inicial y este punto no generó aviso.
+     */
+    public void vigilar() throws IOException {
+        vigilante = FileSystems.getDefault().newWatchService();
+        archivo.getParent().register(vigilante,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread hilo = new Thread(this::bucle, "reglas-watch");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void bucle() {
+        recargar();
+        try {
+            while (true) {
+                boolean tocado = revisar(vigilante.take());
+                // Los editores guardan en varios pasos (truncar, escribir...): se espera a que
+                // el archivo deje de cambiar antes de recargar.
+                WatchKey otra;
+                while ((otra = vigilante.poll(ESPERA_MS, TimeUnit.MILLISECONDS)) != null) {
+                    tocado |= revisar(otra);
+                }
+                if (tocado) {
+                    recargar();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // cierre normal
+        }
+    }
+
+    private boolean revisar(WatchKey clave) {
+        boolean tocado = false;
+        for (WatchEvent<?> evento : clave.pollEvents()) {
+            if (evento.context() instanceof Path p && p.equals(archivo.getFileName())) {
+                tocado = true;
+            }
+        }
+        clave.reset();
+        return tocado;
+    }
+
+    /**
+     * Vuelve a analizar el archivo (sin consultar la caché, que solo sirve en frío); útil también
+     * para forzar la recarga sin esperar al vigilante.
+     */
+    public synchronized void recargar() {
+        try {
+            List<LightRules.Regla> reglas = ReglasArchivo.recargar(archivo);
+            if (reglas.isEmpty()) {
+                throw new IllegalArgumentException("el archivo no contiene reglas");
+            }
+            LightRules nueva = new LightRules(reglas);
+            actual.set(nueva);
+            alRecargar.accept(nueva);
+        } catch (IOException | RuntimeException e) {
+            alFallar.accept(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (vigilante != null) {
+            vigilante.close();
+        }
+    }
+}
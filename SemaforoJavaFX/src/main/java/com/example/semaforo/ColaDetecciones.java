@@ -0,0 +1,103 @@
+package com.example.semaforo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cola acotada sin bloqueos de detecciones: varios productores (lectores de socket,
+ * generador) y un único consumidor (el controlador).
+ *
+ * Es el anillo de Vyukov: cada ranura lleva un número de secuencia que dice si está libre
+ * para la vuelta actual ({@code pos}) o ya tiene dato ({@code pos + 1}). Un productor reserva
+ * la ranura con un CAS sobre la cola, escribe el evento y publica la secuencia; el consumidor
+ * lee en orden sin CAS. Si la cola está llena, {@link #ofrecer} descarta y cuenta: el
+ * productor nunca espera al controlador. No crea objetos por evento.
+ */
+final class ColaDetecciones {
+
+    @FunctionalInterface
+    interface Consumidor {
+        void aceptar(int tipo, long instanteNs);
+    }
+
+    private final int mascara;
+    private final AtomicLongArray secuencia;
+    private final long[] instantes;
+    private final byte[] tipos;
+    private final AtomicLong cola = new AtomicLong();
+    private long cabeza; // solo el consumidor
+    private final LongAdder descartes = new LongAdder();
+
+    ColaDetecciones(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        int tamano = Integer.highestOneBit(capacidad - 1) << 1;
+        tamano = Math.max(2, tamano);
+        mascara = tamano - 1;
+        secuencia = new AtomicLongArray(tamano);
+        for (int i = 0; i < tamano; i++) {
+            secuencia.set(i, i);
+        }
+        instantes = new long[tamano];
+        tipos = new byte[tamano];
+    }
+
+    /** Encola una detección; devuelve {@code false} (y la cuenta) si la cola está llena. */
+    boolean ofrecer(int tipo, long instanteNs) {
+        long pos = cola.get();
+        int i;
+        while (true) {
+            i = (int) pos & mascara;
+            long diferencia = secuencia.get(i) - pos;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = cola.get();
+            } else if (diferencia < 0) {
+                descartes.increment();
+                return false;
+            } else {
+                pos = cola.get(); // otro productor ya tomó esta ranura
+            }
+        }
+        instantes[i] = instanteNs;
+        tipos[i] = (byte) tipo;
+        // Escritura volátil (no solo release): el productor lee después si el consumidor duerme
+        secuencia.set(i, pos + 1);
+        return true;
+    }
+
+    /** Entrega hasta {@code maximo} eventos en orden; devuelve cuántos entregó. Solo el consumidor. */
+    int drenar(Consumidor consumidor, int maximo) {
+        int n = 0;
+        while (n < maximo) {
+            int i = (int) cabeza & mascara;
+            if (secuencia.getAcquire(i) != cabeza + 1) {
+                break;
+            }
+            int tipo = tipos[i];
+            long instante = instantes[i];
+            secuencia.setRelease(i, cabeza + mascara + 1); // libre para la próxima vuelta
+            cabeza++;
+            consumidor.aceptar(tipo, instante);
+            n++;
+        }
+        return n;
+    }
+
+    /** Solo el consumidor; lectura volátil para no perder un aviso al irse a dormir. */
+    boolean vacia() {
+        return secuencia.get((int) cabeza & mascara) != cabeza + 1;
+    }
+
+    int capacidad() {
+        return mascara + 1;
+    }
+
+    long getDescartes() {
+        return descartes.sum();
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.semaforo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Motor concurrente del juego de reacción para competencias con miles de jugadores.
+ *
+ * Usa la misma regla que {@link GameLogic}: un acierto es pulsar en verde y vale
+ * {@link GameLogic#calcularPuntaje(long)}. Cada jugador suma a lo sumo un acierto por verde;
+ * las pulsaciones repetidas en el mismo verde o fuera de verde cuentan como error.
+ *
+ * <ul>
+ *   <li>Los contadores por jugador viven en un arreglo atómico con 16 longs (128 bytes) por
+ *       jugador: aunque el encabezado del arreglo desplace el inicio, los campos usados de dos
+ *       jugadores nunca caen en la misma línea de caché (sin falso compartido). Los totales
+ *       globales son {@link LongAdder}.</li>
+ *   <li>{@link #registrarIntento(int, long)} no toma locks ni crea objetos: devuelve los
+ *       puntos como primitivo y reclama el verde con un CAS.</li>
+ *   <li>La tabla de posiciones (top-k) se mantiene incrementalmente: un acierto que deja al
+ *       jugador por encima del umbral del top-k solo lo marca en un bitset; al leer la tabla
+ *       se incorporan los marcados. Nunca se ordena a todos los jugadores.</li>
+ * </ul>
+ */
+public final class CompetenciaReaccion {
+
+    /** Resultado de {@link #registrarIntento(int, long)} cuando no hay acierto. */
+    public static final long ERROR = -1;
+
+    public record Posicion(int jugador, String nombre, long puntaje, long mejorReaccionMs) {
+    }
+
+    private static final int ANCHO = 16;             // longs por jugador: 128 bytes, 6 usados
+    private static final int ACIERTOS = 0;
+    private static final int ERRORES = 1;
+    private static final int PUNTAJE = 2;
+    private static final int MEJOR_REACCION = 3;
+    private static final int RONDA = 4;              // último verde en que acertó
+    private static final int ULTIMA_REACCION = 5;    // reacción de ese acierto, para describir()
+
+    private final GameLogic puntaje = new GameLogic();
+    private final String[] nombres;
+    private final AtomicLongArray datos;
+    private final AtomicLongArray marcados;          // bitset de jugadores a revisar en el top-k
+    private final LongAdder totalAciertos = new LongAdder();
+    private final LongAdder totalErrores = new LongAdder();
+    private final LongAdder totalPuntos = new LongAdder();
+
+    /** Verde en curso: ronda e inicio viajan juntos, así nunca se lee uno de un verde y otro de otro. */
+    private record Verde(long ronda, long inicioMs) {
+    }
+
+    private static final Verde SIN_VERDE = new Verde(0, 0);
+
+    // Luz actual: se publica con una sola escritura volátil y se lee sin locks
+    private volatile Verde verde = SIN_VERDE;       // ronda > 0 solo mientras está en verde
+    private long ultimaRonda;
+
+    // Top-k: lo modifican solo los lectores, bajo el lock
+    private final ReentrantLock lockTabla = new ReentrantLock();
+    private final int k;
+    private final int[] topJugador;
+    private final long[] topPuntaje;
+    private int topTamano;
+    private volatile long umbral;
+
+    public CompetenciaReaccion(int maxJugadores, int tamanoTabla) {
+        nombres = new String[maxJugadores];
+        datos = new AtomicLongArray(maxJugadores * ANCHO);
+        marcados = new AtomicLongArray((maxJugadores + 63) >>> 6);
+        k = tamanoTabla;
+        topJugador = new int[k];
+        topPuntaje = new long[k];
+        for (int j = 0; j < maxJugadores; j++) {
+            datos.set(j * ANCHO + MEJOR_REACCION, Long.MAX_VALUE);
+        }
+    }
+
+    public void nombrar(int jugador, String nombre) {
+        nombres[jugador] = nombre;
+    }
+
+    /** Lo llama la simulación (un solo hilo) en cada cambio de luz. */
+    public void onLightChange(Light luz, long timestampMs) {
+        verde = luz == Light.GREEN ? new Verde(++ultimaRonda, timestampMs) : SIN_VERDE;
+    }
+
+    /**
+     * Registra una pulsación del jugador.
+     *
+     * @return puntos obtenidos, o {@link #ERROR} si no era verde o ya acertó en este verde
+     */
+    public long registrarIntento(int jugador, long timestampMs) {
+        int base = jugador * ANCHO;
+        Verde v = verde;
+        long r = v.ronda();
+        if (r == 0) {
+            return error(base);
+        }
+        long previa = datos.get(base + RONDA);
+        if (previa >= r || !datos.compareAndSet(base + RONDA, previa, r)) {
+            return error(base);
+        }
+        long reaccion = Math.max(0, timestampMs - v.inicioMs());
+        long puntos = puntaje.calcularPuntaje(reaccion);
+        datos.set(base + ULTIMA_REACCION, reaccion);
+        datos.incrementAndGet(base + ACIERTOS);
+        long total = datos.addAndGet(base + PUNTAJE, puntos);
+        long mejor = datos.get(base + MEJOR_REACCION);
+        while (reaccion < mejor && !datos.compareAndSet(base + MEJOR_REACCION, mejor, reaccion)) {
+            mejor = datos.get(base + MEJOR_REACCION);
+        }
+        totalAciertos.increment();
+        totalPuntos.add(puntos);
+        if (total >= umbral) {
+            marcar(jugador);
+        }
+        return puntos;
+    }
+
+    private long error(int base) {
+        datos.incrementAndGet(base + ERRORES);
+        totalErrores.increment();
+        return ERROR;
+    }
+
+    private void marcar(int jugador) {
+        int palabra = jugador >>> 6;
+        long bit = 1L << jugador;
+        long v = marcados.get(palabra);
+        while ((v & bit) == 0 && !marcados.compareAndSet(palabra, v, v | bit)) {
+            v = marcados.get(palabra);
+        }
+    }
+
+    /* ============================ Tabla de posiciones ============================ */
+
+    /** Los mejores k jugadores, de mayor a menor puntaje. */
+    public List<Posicion> tabla() {
+        lockTabla.lock();
+        try {
+            incorporarMarcados();
+            List<Posicion> lista = new ArrayList<>(topTamano);
+            for (int i = 0; i < topTamano; i++) {
+                int j = topJugador[i];
+                long mejor = datos.get(j * ANCHO + MEJOR_REACCION);
+                lista.add(new Posicion(j, nombres[j] != null ? nombres[j] : "Jugador " + j,
+                        topPuntaje[i], mejor == Long.MAX_VALUE ? -1 : mejor));
+            }
+            return lista;
+        } finally {
+            lockTabla.unlock();
+        }
+    }
+
+    private void incorporarMarcados() {
+        for (int w = 0; w < marcados.length(); w++) {
+            long bits = marcados.getAndSet(w, 0);
+            while (bits != 0) {
+                int j = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                actualizarTop(j, datos.get(j * ANCHO + PUNTAJE));
+            }
+        }
+        umbral = topTamano < k ? 0 : topPuntaje[k - 1];
+    }
+
+    /** Los puntajes solo crecen, así que un jugador solo puede subir dentro del top-k. */
+    private void actualizarTop(int jugador, long puntos) {
+        int pos = -1;
+        for (int i = 0; i < topTamano; i++) {
+            if (topJugador[i] == jugador) {
+                pos = i;
+                break;
+            }
+        }
+        if (pos < 0) {
+            if (topTamano < k) {
+                pos = topTamano++;
+            } else if (puntos > topPuntaje[k - 1]) {
+                pos = k - 1;
+            } else {
+                return;
+            }
+        }
+        while (pos > 0 && topPuntaje[pos - 1] < puntos) {
+            topJugador[pos] = topJugador[pos - 1];
+            topPuntaje[pos] = topPuntaje[pos - 1];
+            pos--;
+        }
+        topJugador[pos] = jugador;
+        topPuntaje[pos] = puntos;
+    }
+
+    /* ============================ Consultas ============================ */
+
+    public long aciertos(int jugador) {
+        return datos.get(jugador * ANCHO + ACIERTOS);
+    }
+
+    public long errores(int jugador) {
+        return datos.get(jugador * ANCHO + ERRORES);
+    }
+
+    public long puntaje(int jugador) {
+        return datos.get(jugador * ANCHO + PUNTAJE);
+    }
+
+    /**
+     * Resultado en el formato del modo de un jugador, para mostrar. Crea el mensaje, así que
+     * va fuera del camino de registro. La reacción es la que se midió al registrar el acierto,
+     * no se recalcula con la luz actual (que pudo cambiar entretanto).
+     */
+    public GameLogic.AttemptResult describir(int jugador, long puntos) {
+        int aciertos = (int) aciertos(jugador);
+        int errores = (int) errores(jugador);
+        if (puntos == ERROR) {
+            return new GameLogic.AttemptResult(false, null, 0, aciertos, errores, puntaje(jugador),
+                    "No era verde (o ya acertaste en este verde).");
+        }
+        long reaccion = datos.get(jugador * ANCHO + ULTIMA_REACCION);
+        return new GameLogic.AttemptResult(true, reaccion, puntos, aciertos, errores, puntaje(jugador),
+                "¡Acierto! Reacción: " + reaccion + " ms (+" + puntos + ")");
+    }
+
+    public long getTotalAciertos() {
+        return totalAciertos.sum();
+    }
+
+    public long getTotalErrores() {
+        return totalErrores.sum();
+    }
+
+    public long getTotalPuntos() {
+        return totalPuntos.sum();
+    }
+
+    public int maxJugadores() {
+        return nombres.length;
+    }
+
+    /** Vuelve a cero. Pensado para llamarse con la competencia detenida. */
+    public void reset() {
+        lockTabla.lock();
+        try {
+            verde = SIN_VERDE;
+            for (int j = 0; j < nombres.length; j++) {
+                int base = j * ANCHO;
+                for (int c = 0; c < ANCHO; c++) {
+                    datos.set(base + c, c == MEJOR_REACCION ? Long.MAX_VALUE : 0);
+                }
+            }
+            for (int w = 0; w < marcados.length(); w++) {
+                marcados.set(w, 0);
+            }
+            totalAciertos.reset();
+            totalErrores.reset();
+            totalPuntos.reset();
+            topTamano = 0;
+            umbral = 0;
+        } finally {
+            lockTabla.unlock();
+        }
+    }
+
+    /**
+     * Demostración: {@code CompetenciaReaccion [jugadores] [verdes]}. Cada jugador es un hilo
+     * virtual que pulsa con un tiempo de reacción al azar en cada verde (a veces antes de tiempo).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int verdes = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        CompetenciaReaccion juego = new CompetenciaReaccion(n, 10);
+        long t0 = System.nanoTime();
+        long tiempoMs = 0;
+        for (int v = 0; v < verdes; v++) {
+            tiempoMs += 3_000;
+            juego.onLightChange(Light.GREEN, tiempoMs);
+            long inicio = tiempoMs;
+            long ronda = v;
+            CountDownLatch listos = new CountDownLatch(n);
+            try (var hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int j = 0; j < n; j++) {
+                    int jugador = j;
+                    hilos.execute(() -> {
+                        SplittableRandom r = new SplittableRandom(ronda * n + jugador);
+                        int pulsaciones = 1 + r.nextInt(2);
+                        for (int p = 0; p < pulsaciones; p++) {
+                            juego.registrarIntento(jugador, inicio + 150 + r.nextInt(1_500));
+                        }
+                        listos.countDown();
+                    });
+                }
+            }
+            listos.await();
+            juego.onLightChange(Light.YELLOW, tiempoMs + 2_000);
+            if (v % 50 == 49) {
+                juego.tabla(); // lectura periódica: incorpora solo a los marcados
+            }
+        }
+        double s = (System.nanoTime() - t0) / 1e9;
+        long intentos = juego.getTotalAciertos() + juego.getTotalErrores();
+        System.out.printf("%d jugadores, %d verdes: %d intentos en %.2f s (%.1f M/s), %d aciertos, %d errores%n",
+                n, verdes, intentos, s, intentos / s / 1e6, juego.getTotalAciertos(), juego.getTotalErrores());
+        for (Posicion p : juego.tabla()) {
+            System.out.println("  " + p);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.semaforo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Control actuado de una intersección: las fases se alargan o se cortan según las
+ * detecciones, dentro de las restricciones de {@link ReglasControl}.
+ *
+ * La luz es la de la vía principal; en rojo tiene el verde la transversal. Con demanda:
+ * <ul>
+ *   <li>verde: dura al menos el mínimo; si nadie espera en la transversal (ni peatones) se
+ *       queda en verde; si alguien espera, termina cuando pasa la brecha de extensión sin
+ *       vehículos de la principal (corte por brecha) o al llegar al máximo;</li>
+ *   <li>amarillo: dura el despeje;</li>
+ *   <li>rojo: dura al menos el mínimo (o el mínimo peatonal si un peatón llamó) y termina por
+ *       brecha de la transversal o por máximo; después vuelve siempre a la principal.</li>
+ * </ul>
+ * Las detecciones llegan por una {@link ColaDetecciones} desde cualquier hilo. Un único hilo
+ * controlador las consume y vuelve a decidir después de cada una; cuando no hay eventos
+ * duerme hasta el próximo plazo y los productores lo despiertan. La latencia de cada evento
+ * (desde que se detectó hasta que quedó tomada la decisión) se guarda en un histograma.
+ */
+public final class ControlActuado implements Closeable {
+
+    public enum Detector { PRINCIPAL, TRANSVERSAL, PEATON }
+
+    public enum Motivo {
+        INICIO("inicio"),
+        BRECHA("corte por brecha"),
+        MAXIMO("corte por máximo"),
+        DESPEJE("fin del despeje");
+
+        private final String descripcion;
+
+        Motivo(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public String descripcion() {
+            return descripcion;
+        }
+    }
+
+    /** Fase publicada para otros hilos (se reemplaza entera en cada cambio). */
+    public record Estado(Light luz, long desdeNs, Motivo motivo) {}
+
+    private static final Detector[] DETECTORES = Detector.values();
+    private static final long SIN_PLAZO = Long.MAX_VALUE;
+    // nanoTime puede ser negativo: los vencimientos se marcan con valores que no son instantes
+    private static final long VENCIO_BRECHA = Long.MIN_VALUE;
+    private static final long VENCIO_MAXIMO = Long.MIN_VALUE + 1;
+    /** Tope del sueño del controlador aunque no haya plazo (reposo en verde sin eventos). */
+    private static final long SUENO_MAX_NS = 100_000_000L;
+    private static final int LOTE = 256;
+
+    private final ReglasControl reglas;
+    private final TrafficLightLogic logica = new TrafficLightLogic();
+    private final ColaDetecciones cola;
+    private final HistogramaLatencia latencia = new HistogramaLatencia();
+    private final AtomicLongArray cambiosPorMotivo = new AtomicLongArray(Motivo.values().length);
+    private final AtomicLongArray tiempoPorLuzNs = new AtomicLongArray(Light.values().length);
+    private final AtomicLongArray fasesPorLuz = new AtomicLongArray(Light.values().length);
+    private final AtomicLongArray eventosPorDetector = new AtomicLongArray(DETECTORES.length);
+    private final Thread hilo;
+    private final ColaDetecciones.Consumidor alDetectar = this::alDetectar;
+    private volatile boolean activo = true;
+    private volatile boolean durmiendo;
+    private volatile Estado estado;
+
+    // Solo el hilo controlador
+    private Light luz;
+    private long inicioFaseNs;
+    private long minimoFaseNs;
+    private final long[] ultimaDeteccionNs = new long[DETECTORES.length];
+    // Llamadas pendientes de la transversal y de peatones; la principal siempre vuelve a ser servida
+    private final boolean[] llamada = new boolean[DETECTORES.length];
+
+    public ControlActuado(ReglasControl reglas, int capacidadCola) {
+        this.reglas = reglas;
+        this.cola = new ColaDetecciones(capacidadCola);
+        hilo = new Thread(this::correr, "control-actuado");
+        hilo.setDaemon(true);
+    }
+
+    public ControlActuado iniciar() {
+        long ahora = System.nanoTime();
+        Arrays.fill(ultimaDeteccionNs, Long.MIN_VALUE / 2);
+        cambiar(Light.GREEN, Motivo.INICIO, ahora);
+        hilo.start();
+        return this;
+    }
+
+    /** Registra una detección desde cualquier hilo; {@code false} si la cola estaba llena. */
+    public boolean detectar(Detector detector) {
+        return detectar(detector, System.nanoTime());
+    }
+
+    public boolean detectar(Detector detector, long instanteNs) {
+        boolean encolado = cola.ofrecer(detector.ordinal(), instanteNs);
+        if (encolado && durmiendo) {
+            LockSupport.unpark(hilo);
+        }
+        return encolado;
+    }
+
+    private void correr() {
+        while (activo) {
+            if (cola.drenar(alDetectar, LOTE) > 0) {
+                continue;
+            }
+            long ahora = System.nanoTime();
+            long plazo = decidir(ahora);
+            durmiendo = true;
+            if (cola.vacia() && activo) {
+                LockSupport.parkNanos(plazo == SIN_PLAZO ? SUENO_MAX_NS : Math.min(SUENO_MAX_NS, plazo - ahora));
+            }
+            durmiendo = false;
+        }
+    }
+
+    private void alDetectar(int tipo, long instanteNs) {
+        Detector detector = DETECTORES[tipo];
+        eventosPorDetector.setRelease(tipo, eventosPorDetector.getPlain(tipo) + 1);
+        ultimaDeteccionNs[tipo] = Math.max(ultimaDeteccionNs[tipo], instanteNs);
+        // La principal solo alarga su verde: después del rojo siempre se vuelve a ella
+        if (detector == Detector.TRANSVERSAL) {
+            llamada[tipo] |= luz != Light.RED;
+        } else if (detector == Detector.PEATON) {
+            llamada[tipo] = true; // un peatón que llega con el rojo ya empezado espera al próximo
+        }
+        decidir(System.nanoTime());
+        latencia.registrar(System.nanoTime() - instanteNs);
+    }
+
+    /**
+     * Aplica las restricciones a la fase actual; cambia de fase si corresponde (varias veces
+     * si un plazo ya venció) y devuelve el próximo instante en que hay que volver a mirar.
+     */
+    private long decidir(long ahora) {
+        while (true) {
+            if (ahora - inicioFaseNs < minimoFaseNs) {
+                return inicioFaseNs + minimoFaseNs;
+            }
+            long plazo = switch (luz) {
+                case YELLOW -> VENCIO_BRECHA; // despeje cumplido
+                // Sin nadie esperando en la transversal, reposo en verde hasta que alguien llame
+                case GREEN -> llamada[Detector.TRANSVERSAL.ordinal()] || llamada[Detector.PEATON.ordinal()]
+                        ? plazoExtension(Detector.PRINCIPAL, ahora) : SIN_PLAZO;
+                case RED -> plazoExtension(Detector.TRANSVERSAL, ahora);
+            };
+            if (plazo != VENCIO_BRECHA && plazo != VENCIO_MAXIMO) {
+                return plazo;
+            }
+            Motivo motivo = luz == Light.YELLOW ? Motivo.DESPEJE
+                    : plazo == VENCIO_MAXIMO ? Motivo.MAXIMO : Motivo.BRECHA;
+            cambiar(logica.nextState(luz), motivo, ahora);
+        }
+    }
+
+    /**
+     * Con la fase ya pasada del mínimo: el instante hasta el que la alarga la última detección
+     * de la vía servida, {@link #VENCIO_BRECHA} o {@link #VENCIO_MAXIMO}.
+     */
+    private long plazoExtension(Detector servido, long ahora) {
+        long maximo = inicioFaseNs + reglas.maximoNs(luz);
+        if (ahora - maximo >= 0) {
+            return VENCIO_MAXIMO;
+        }
+        long extendida = ultimaDeteccionNs[servido.ordinal()] + reglas.extensionNs(luz);
+        if (extendida - ahora <= 0) {
+            return VENCIO_BRECHA;
+        }
+        return Math.min(extendida, maximo);
+    }
+
+    private void cambiar(Light nueva, Motivo motivo, long ahora) {
+        if (luz != null) {
+            int anterior = luz.ordinal();
+            tiempoPorLuzNs.setRelease(anterior, tiempoPorLuzNs.getPlain(anterior) + (ahora - inicioFaseNs));
+            fasesPorLuz.setRelease(anterior, fasesPorLuz.getPlain(anterior) + 1);
+        }
+        luz = nueva;
+        inicioFaseNs = ahora;
+        minimoFaseNs = reglas.minimoNs(nueva);
+        if (nueva == Light.RED) {
+            llamada[Detector.TRANSVERSAL.ordinal()] = false;
+            if (llamada[Detector.PEATON.ordinal()]) {
+                minimoFaseNs = Math.max(minimoFaseNs, reglas.peatonalNs());
+                llamada[Detector.PEATON.ordinal()] = false;
+            }
+        }
+        cambiosPorMotivo.setRelease(motivo.ordinal(), cambiosPorMotivo.getPlain(motivo.ordinal()) + 1);
+        estado = new Estado(nueva, ahora, motivo);
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public Light getLuz() {
+        return estado.luz();
+    }
+
+    public HistogramaLatencia getLatencia() {
+        return latencia;
+    }
+
+    public long getEventos(Detector detector) {
+        return eventosPorDetector.get(detector.ordinal());
+    }
+
+    public long getDescartes() {
+        return cola.getDescartes();
+    }
+
+    public long getCambios(Motivo motivo) {
+        return cambiosPorMotivo.get(motivo.ordinal());
+    }
+
+    /** Duración media de las fases ya terminadas de una luz, en milisegundos. */
+    public double duracionMediaMs(Light luz) {
+        long fases = fasesPorLuz.get(luz.ordinal());
+        return fases == 0 ? 0 : tiempoPorLuzNs.get(luz.ordinal()) / 1e6 / fases;
+    }
+
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Eventos: principal %d, transversal %d, peatón %d; descartados %d%n",
+                getEventos(Detector.PRINCIPAL), getEventos(Detector.TRANSVERSAL), getEventos(Detector.PEATON),
+                getDescartes()));
+        sb.append(String.format("Latencia evento → decisión: %s (p99.9 %.3f ms)%n", latencia.resumenMs(),
+                latencia.percentil(0.999) / 1e6));
+        sb.append("Fases:");
+        for (Light l : Light.values()) {
+            sb.append(String.format(" %s %.1f s", l, duracionMediaMs(l) / 1000));
+        }
+        sb.append(" (media)\nCambios:");
+        for (Motivo m : Motivo.values()) {
+            sb.append(' ').append(m.descripcion()).append(' ').append(getCambios(m)).append(',');
+        }
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        activo = false;
+        LockSupport.unpark(hilo);
+        try {
+            hilo.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * {@code ControlActuado [segundos] [eventos/s] [puerto]}: controla con detecciones
+     * sintéticas (y, si se da un puerto, también las que lleguen por TCP en localhost) e
+     * imprime latencias y fases. Las restricciones salen de {@code -Dsemaforo.control=archivo}
+     * o de {@link ReglasControl#LIMITES_BASE}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int segundos = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        double porSegundo = args.length > 1 ? Double.parseDouble(args[1]) : 3_000;
+        String archivo = System.getProperty("semaforo.control");
+        ReglasControl reglas = archivo == null || archivo.isBlank() ? new ReglasControl() : ReglasControl.cargar(Path.of(archivo));
+
+        try (ControlActuado control = new ControlActuado(reglas, 1 << 14).iniciar()) {
+            // Las fuentes no se usan dentro del bloque: se cierran a mano (antes que el controlador)
+            Closeable sintetica = FuentesDeteccion.sintetica(control, porSegundo, 42);
+            Closeable socket = null;
+            try {
+                if (args.length > 2) {
+                    socket = FuentesDeteccion.socket(control, Integer.parseInt(args[2]));
+                }
+                Thread.sleep(segundos * 1_000L);
+                System.out.println(control.resumen());
+            } finally {
+                if (socket != null) {
+                    socket.close();
+                }
+                sintetica.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.semaforo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluación por lotes de registros de cámaras y sensores contra {@link LightRules}.
+ *
+ * Formato del registro, una línea por evento:
+ * <pre>
+ * 1718000000123,RED,avanzar
+ * </pre>
+ * (marca de tiempo en milisegundos epoch, luz, acción). El archivo está en UTF-8. La luz es el
+ * nombre completo de una {@link Light} sin distinguir mayúsculas; las líneas en blanco se saltan
+ * sin contar como inválidas.
+ *
+ * El archivo se parte en tramos alineados a fin de línea; cada tramo se mapea en memoria
+ * ({@link FileChannel#map}) y se procesa en paralelo. El análisis recorre los bytes
+ * directamente, sin crear un String por línea: la acción se busca en el índice compilado de
+ * reglas a través de una vista {@link CharSequence} reutilizable sobre el búfer (las acciones
+ * ASCII se leen tal cual; las que tienen acentos se decodifican en un búfer propio), y el
+ * resultado sale de una tabla (luz, id de acción) → id de resultado precalculada.
+ *
+ * Uso: {@code java ... EvaluadorLotes registro.log} o {@code EvaluadorLotes --generar N registro.log}.
+ */
+public final class EvaluadorLotes {
+
+    private static final long TAMANO_TRAMO = 32L * 1024 * 1024;
+    private static final Light[] LUCES = Light.values();
+
+    private final LightRules reglas;
+    private final ZoneOffset zona;
+    private final String[] resultados;       // id de resultado → texto
+    private final int[][] tabla;             // [luz][id de acción + 1] → id de resultado (columna 0 = sin acción)
+
+    public record Resumen(List<String> resultados, long[] conteo, long[][] porHora, long eventos, long invalidas) {
+
+        public Map<String, Long> conteoPorResultado() {
+            Map<String, Long> m = new LinkedHashMap<>();
+            for (int i = 0; i < resultados.size(); i++) {
+                m.put(resultados.get(i), conteo[i]);
+            }
+            return m;
+        }
+    }
+
+    public EvaluadorLotes(LightRules reglas, ZoneOffset zona) {
+        this.reglas = reglas;
+        this.zona = zona;
+        List<String> nombres = new ArrayList<>();
+        int acciones = reglas.getAcciones().size();
+        Light[] luces = Light.values();
+        tabla = new int[luces.length][acciones + 1];
+        for (Light luz : luces) {
+            for (int id = -1; id < acciones; id++) {
+                String r = reglas.evaluar(luz, id).resultado();
+                int rid = nombres.indexOf(r);
+                if (rid < 0) {
+                    rid = nombres.size();
+                    nombres.add(r);
+                }
+                tabla[luz.ordinal()][id + 1] = rid;
+            }
+        }
+        resultados = nombres.toArray(String[]::new);
+    }
+
+    public Resumen evaluar(Path registro) throws IOException {
+        try (FileChannel canal = FileChannel.open(registro, StandardOpenOption.READ)) {
+            long[] cortes = cortes(canal);
+            int tramos = cortes.length - 1;
+            Parcial total = IntStream.range(0, tramos).parallel()
+                    .mapToObj(t -> procesar(canal, cortes[t], cortes[t + 1]))
+                    .reduce(Parcial::combinar)
+                    .orElseGet(() -> new Parcial(resultados.length));
+            return new Resumen(List.of(resultados), total.conteo, total.porHora, total.eventos, total.invalidas);
+        }
+    }
+
+    /** Límites de los tramos: cada uno empieza justo después de un salto de línea. */
+    private static long[] cortes(FileChannel canal) throws IOException {
+        long tamano = canal.size();
+        List<Long> cortes = new ArrayList<>();
+        cortes.add(0L);
+        ByteBuffer b = ByteBuffer.allocate(4096);
+        long pos = TAMANO_TRAMO;
+        while (pos < tamano) {
+            boolean encontrado = false;
+            while (!encontrado && pos < tamano) {
+                b.clear();
+                int n = canal.read(b, pos);
+                for (int i = 0; i < n; i++) {
+                    if (b.get(i) == '\n') {
+                        pos += i + 1;
+                        encontrado = true;
+                        break;
+                    }
+                }
+                if (!encontrado) {
+                    pos += Math.max(n, 1);
+                }
+            }
+            if (pos < tamano) {
+                cortes.add(pos);
+            }
+            pos += TAMANO_TRAMO;
+        }
+        cortes.add(tamano);
+        return cortes.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static final class Parcial {
+        final long[] conteo;
+        final long[][] porHora;
+        long eventos;
+        long invalidas;
+
+        Parcial(int resultados) {
+            conteo = new long[resultados];
+            porHora = new long[24][resultados];
+        }
+
+        Parcial combinar(Parcial o) {
+            for (int r = 0; r < conteo.length; r++) {
+                conteo[r] += o.conteo[r];
+                for (int h = 0; h < 24; h++) {
+                    porHora[h][r] += o.porHora[h][r];
+                }
+            }
+            eventos += o.eventos;
+            invalidas += o.invalidas;
+            return this;
+        }
+    }
+
+    /**
+     * Vista de solo lectura de un rango de bytes UTF-8 como CharSequence (se reutiliza por tramo).
+     * Si el rango es ASCII los caracteres se leen directo del búfer; si no, se decodifica en un
+     * {@link CharBuffer} propio que crece según haga falta.
+     */
+    private static final class Vista implements CharSequence {
+        private final ByteBuffer b;
+        private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private CharBuffer decodificada = CharBuffer.allocate(64);
+        private boolean ascii;
+        private int inicio;
+        private int largo;
+
+        Vista(ByteBuffer b) {
+            this.b = b;
+        }
+
+        void apuntar(int desde, int hasta) {
+            inicio = desde;
+            ascii = true;
+            for (int k = desde; k < hasta && ascii; k++) {
+                ascii = b.get(k) >= 0;
+            }
+            if (ascii) {
+                largo = hasta - desde;
+                return;
+            }
+            // UTF-8 nunca da más caracteres que bytes
+            if (decodificada.capacity() < hasta - desde) {
+                decodificada = CharBuffer.allocate(hasta - desde);
+            }
+            decodificada.clear();
+            utf8.reset();
+            utf8.decode(b.slice(desde, hasta - desde), decodificada, true);
+            utf8.flush(decodificada);
+            largo = decodificada.position();
+        }
+
+        @Override
+        public int length() {
+            return largo;
+        }
+
+        @Override
+        public char charAt(int i) {
+            return ascii ? (char) b.get(inicio + i) : decodificada.get(i);
+        }
+
+        @Override
+        public CharSequence subSequence(int desde, int hasta) {
+            return toString().substring(desde, hasta);
+        }
+
+        @Override
+        public String toString() {
+            if (!ascii) {
+                return new String(decodificada.array(), 0, largo);
+            }
+            byte[] copia = new byte[largo];
+            b.get(inicio, copia);
+            return new String(copia, StandardCharsets.US_ASCII);
+        }
+    }
+
+    private Parcial procesar(FileChannel canal, long desde, long hasta) {
+        Parcial p = new Parcial(resultados.length);
+        MappedByteBuffer b;
+        try {
+            b = canal.map(FileChannel.MapMode.READ_ONLY, desde, hasta - desde);
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        Vista accion = new Vista(b);
+        long desplazamiento = zona.getTotalSeconds() * 1000L;
+        int n = b.limit();
+        int i = 0;
+        while (i < n) {
+            // línea en blanco: no es un evento ni un registro inválido
+            if (b.get(i) == '\n') {
+                i++;
+                continue;
+            }
+            if (b.get(i) == '\r' && i + 1 < n && b.get(i + 1) == '\n') {
+                i += 2;
+                continue;
+            }
+            // marca de tiempo
+            long ts = 0;
+            int digitos = 0;
+            byte c;
+            while (i < n && (c = b.get(i)) >= '0' && c <= '9') {
+                ts = ts * 10 + (c - '0');
+                i++;
+                digitos++;
+            }
+            int luz = -1;
+            if (digitos > 0 && i < n && b.get(i) == ',') {
+                i++;
+                int inicioLuz = i;
+                while (i < n && b.get(i) != ',' && b.get(i) != '\n') {
+                    i++;
+                }
+                luz = luz(b, inicioLuz, i);
+            }
+            if (luz < 0 || i >= n || b.get(i) != ',') {
+                p.invalidas++;
+                while (i < n && b.get(i++) != '\n') {
+                    // saltar el resto de la línea
+                }
+                continue;
+            }
+            i++;
+            int inicio = i;
+            while (i < n && b.get(i) != '\n') {
+                i++;
+            }
+            int fin = i;
+            if (fin > inicio && b.get(fin - 1) == '\r') {
+                fin--;
+            }
+            i++; // salto de línea
+            accion.apuntar(inicio, fin);
+            int resultado = tabla[luz][reglas.accionId(accion) + 1];
+            int hora = (int) Math.floorMod(Math.floorDiv(ts + desplazamiento, 3_600_000L), 24L);
+            p.conteo[resultado]++;
+            p.porHora[hora][resultado]++;
+            p.eventos++;
+        }
+        return p;
+    }
+
+    /** Ordinal de la luz cuyo nombre completo ocupa {@code [desde, hasta)}, sin distinguir mayúsculas; -1 si no hay. */
+    private static int luz(ByteBuffer b, int desde, int hasta) {
+        for (Light l : LUCES) {
+            String nombre = l.name();
+            if (nombre.length() != hasta - desde) {
+                continue;
+            }
+            int k = 0;
+            while (k < nombre.length() && Character.toUpperCase((char) (b.get(desde + k) & 0xFF)) == nombre.charAt(k)) {
+                k++;
+            }
+            if (k == nombre.length()) {
+                return l.ordinal();
+            }
+        }
+        return -1;
+    }
+
+    /* ============================ Línea de comandos ============================ */
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--generar")) {
+            generar(Path.of(args[2]), Long.parseLong(args[1]));
+            return;
+        }
+        if (args.length != 1) {
+            System.err.println("Uso: EvaluadorLotes <registro> | EvaluadorLotes --generar <eventos> <registro>");
+            return;
+        }
+        EvaluadorLotes evaluador = new EvaluadorLotes(new LightRules(), ZoneOffset.UTC);
+        long t0 = System.nanoTime();
+        Resumen r = evaluador.evaluar(Path.of(args[0]));
+        double segundos = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%d eventos (%d inválidos) en %.3f s → %.1f M eventos/s%n",
+                r.eventos(), r.invalidas(), segundos, r.eventos() / segundos / 1e6);
+        r.conteoPorResultado().forEach((k, v) -> System.out.printf("  %-12s %,d%n", k, v));
+        System.out.print("hora");
+        r.resultados().forEach(k -> System.out.printf(" %12s", k));
+        System.out.println();
+        for (int h = 0; h < 24; h++) {
+            System.out.printf("%02d  ", h);
+            for (long c : r.porHora()[h]) {
+                System.out.printf(" %12d", c);
+            }
+            System.out.println();
+        }
+    }
+
+    /** Genera un registro sintético de un día con acciones y luces al azar. */
+    static void generar(Path destino, long eventos) throws IOException {
+        String[] acciones = {"avanzar", "esperar", "detenerse", "cruzar"};
+        Light[] luces = Light.values();
+        SplittableRandom r = new SplittableRandom(7);
+        long inicio = 1_718_000_000_000L;
+        try (BufferedWriter w = Files.newBufferedWriter(destino, StandardCharsets.US_ASCII)) {
+            for (long k = 0; k < eventos; k++) {
+                w.write(Long.toString(inicio + k * 86_400_000L / Math.max(1, eventos)));
+                w.write(',');
+                w.write(luces[r.nextInt(luces.length)].name());
+                w.write(',');
+                w.write(acciones[r.nextInt(acciones.length)]);
+                w.write('\n');
+            }
+        }
+    }
+}
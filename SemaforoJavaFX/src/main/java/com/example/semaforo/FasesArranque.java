@@ -0,0 +1,74 @@
+package com.example.semaforo;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Tiempos del arranque de la aplicación, medidos desde el inicio de la JVM.
+ *
+ * El inicio de la JVM sale de {@code RuntimeMXBean} (reloj de pared en milisegundos, lo anota
+ * la propia JVM al iniciar) y se traslada una sola vez a la escala de
+ * {@link System#nanoTime()}; cada fase posterior se marca con {@code nanoTime}. Marcar una
+ * fase por segunda vez no hace nada, así puede llamarse desde un manejador de cada pulso.
+ */
+public final class FasesArranque {
+
+    public enum Fase {
+        /** Se entró a {@code main}: JVM iniciada y clase principal cargada. */
+        MAIN("main"),
+        /** El toolkit de JavaFX está listo y se llamó a {@code start}. */
+        TOOLKIT("toolkit"),
+        /** Primer pulso con la ventana visible. */
+        PRIMER_CUADRO("primer cuadro"),
+        /** Reglas compiladas y todos los paneles armados. */
+        INTERACTIVA("interactiva");
+
+        private final String nombre;
+
+        Fase(String nombre) {
+            this.nombre = nombre;
+        }
+    }
+
+    private final long inicioJvmNs;
+    private final long[] marcas = new long[Fase.values().length];
+
+    public FasesArranque() {
+        long ahoraNs = System.nanoTime();
+        long ahoraMs = System.currentTimeMillis();
+        long inicioMs = ManagementFactory.getRuntimeMXBean().getStartTime();
+        inicioJvmNs = ahoraNs - Math.max(0, ahoraMs - inicioMs) * 1_000_000L;
+        Arrays.fill(marcas, -1);
+    }
+
+    /** Marca la fase la primera vez; devuelve {@code true} solo en esa llamada. */
+    public boolean marcar(Fase fase) {
+        if (marcas[fase.ordinal()] >= 0) {
+            return false;
+        }
+        marcas[fase.ordinal()] = System.nanoTime();
+        return true;
+    }
+
+    public boolean alcanzada(Fase fase) {
+        return marcas[fase.ordinal()] >= 0;
+    }
+
+    /** Milisegundos desde el inicio de la JVM hasta la fase, o -1 si todavía no ocurrió. */
+    public double msHasta(Fase fase) {
+        long marca = marcas[fase.ordinal()];
+        return marca < 0 ? -1 : (marca - inicioJvmNs) / 1e6;
+    }
+
+    /** Por ejemplo {@code "Arranque: main 95 ms · toolkit 310 ms · primer cuadro 520 ms"}. */
+    public String resumen() {
+        StringJoiner texto = new StringJoiner(" · ", "Arranque: ", " (desde el inicio de la JVM)");
+        for (Fase fase : Fase.values()) {
+            if (alcanzada(fase)) {
+                texto.add(String.format("%s %.0f ms", fase.nombre, msHasta(fase)));
+            }
+        }
+        return texto.toString();
+    }
+}
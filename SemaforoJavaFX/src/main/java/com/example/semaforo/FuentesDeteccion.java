@@ -0,0 +1,161 @@
+package com.example.semaforo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fuentes de detecciones para {@link ControlActuado}. Cada una corre en sus propios hilos
+ * (productores de la cola) y se detiene al cerrarla.
+ */
+public final class FuentesDeteccion {
+
+    /** Duración de cada pelotón: el tránsito de cada vía alterna entre llegar y no llegar. */
+    private static final long PELOTON_NS = 6_000_000_000L;
+    /** Tope de la espera entre reintentos cuando {@code accept} falla. */
+    private static final long ESPERA_MAX_MS = 2_000;
+
+    private FuentesDeteccion() {
+    }
+
+    /**
+     * Llegadas de Poisson a {@code eventosPorSegundo} en total: 60 % principal, 30 % transversal
+     * y 10 % peatones. La principal y la transversal llegan en pelotones alternados de 6 s para
+     * que haya tanto cortes por brecha como por máximo. La semilla hace repetible la secuencia
+     * (no los instantes, que dependen del planificador).
+     */
+    public static Closeable sintetica(ControlActuado control, double eventosPorSegundo, long semilla) {
+        if (!(eventosPorSegundo > 0)) {
+            throw new IllegalArgumentException("La tasa de eventos debe ser positiva");
+        }
+        double mediaNs = 1e9 / eventosPorSegundo;
+        Thread hilo = new Thread(() -> {
+            SplittableRandom azar = new SplittableRandom(semilla);
+            long inicio = System.nanoTime();
+            long proximo = inicio;
+            while (!Thread.currentThread().isInterrupted()) {
+                proximo += (long) (-Math.log(1 - azar.nextDouble()) * mediaNs);
+                long espera = proximo - System.nanoTime();
+                if (espera > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+                boolean turnoPrincipal = ((proximo - inicio) / PELOTON_NS & 1) == 0;
+                double u = azar.nextDouble();
+                ControlActuado.Detector detector;
+                if (u < 0.1) {
+                    detector = ControlActuado.Detector.PEATON;
+                } else if (u < 0.7) {
+                    detector = ControlActuado.Detector.PRINCIPAL;
+                } else {
+                    detector = ControlActuado.Detector.TRANSVERSAL;
+                }
+                boolean enPeloton = detector == ControlActuado.Detector.PEATON
+                        || turnoPrincipal == (detector == ControlActuado.Detector.PRINCIPAL);
+                if (enPeloton) {
+                    control.detectar(detector);
+                }
+            }
+        }, "deteccion-sintetica");
+        hilo.setDaemon(true);
+        hilo.start();
+        return hilo::interrupt;
+    }
+
+    /**
+     * Escucha en {@code 127.0.0.1:puerto}: cada línea que llega es el nombre de un detector
+     * ({@code principal}, {@code transversal} o {@code peaton}, sin distinguir mayúsculas).
+     * Las líneas que no son un detector se ignoran. Un hilo por conexión.
+     */
+    public static Closeable socket(ControlActuado control, int puerto) throws IOException {
+        ServerSocket servidor = new ServerSocket(puerto, 50, InetAddress.getLoopbackAddress());
+        Set<Socket> conexiones = ConcurrentHashMap.newKeySet();
+        Thread aceptador = new Thread(() -> {
+            long esperaMs = 0;
+            while (!servidor.isClosed()) {
+                try {
+                    Socket conexion = servidor.accept();
+                    esperaMs = 0;
+                    conexion.setTcpNoDelay(true);
+                    conexiones.add(conexion);
+                    Thread lector = new Thread(() -> leer(control, conexion, conexiones),
+                            "deteccion-" + conexion.getPort());
+                    lector.setDaemon(true);
+                    lector.start();
+                } catch (IOException e) {
+                    if (servidor.isClosed()) {
+                        return;
+                    }
+                    // Un error persistente (p. ej. sin descriptores libres) no debe hacer girar el hilo
+                    esperaMs = Math.min(ESPERA_MAX_MS, Math.max(50, esperaMs * 2));
+                    System.err.println("Error al aceptar detecciones (" + e.getMessage()
+                            + "), reintento en " + esperaMs + " ms");
+                    try {
+                        Thread.sleep(esperaMs);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                }
+            }
+        }, "deteccion-puerto-" + puerto);
+        aceptador.setDaemon(true);
+        aceptador.start();
+        return () -> {
+            servidor.close();
+            for (Socket conexion : conexiones) {
+                conexion.close();
+            }
+        };
+    }
+
+    private static void leer(ControlActuado control, Socket conexion, Set<Socket> conexiones) {
+        // Se compara byte a byte contra los nombres: sin String por línea
+        byte[] linea = new byte[32];
+        int largo = 0;
+        byte[] bufer = new byte[4096];
+        try (conexion; InputStream entrada = conexion.getInputStream()) {
+            int n;
+            while ((n = entrada.read(bufer)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    byte b = bufer[i];
+                    if (b == '\n') {
+                        ControlActuado.Detector detector = detector(linea, largo);
+                        if (detector != null) {
+                            control.detectar(detector);
+                        }
+                        largo = 0;
+                    } else if (b != '\r' && largo < linea.length) {
+                        linea[largo++] = b;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Conexión cerrada por el cliente o al cerrar la fuente
+        } finally {
+            conexiones.remove(conexion);
+        }
+    }
+
+    private static ControlActuado.Detector detector(byte[] linea, int largo) {
+        for (ControlActuado.Detector d : ControlActuado.Detector.values()) {
+            String nombre = d.name();
+            if (nombre.length() != largo) {
+                continue;
+            }
+            boolean igual = true;
+            for (int i = 0; i < largo && igual; i++) {
+                igual = Character.toUpperCase(linea[i]) == nombre.charAt(i);
+            }
+            if (igual) {
+                return d;
+            }
+        }
+        return null;
+    }
+}
@@ -5,16 +5,18 @@ package com.example.semaforo;
  */
 public class GameLogic {
 
+    private static final long SIN_VERDE = Long.MIN_VALUE;
+
     private int aciertos;
     private int errores;
     private long puntajeTotal;
-    private Long ultimoVerdeMs;
+    private long ultimoVerdeMs = SIN_VERDE;
 
     public void reset() {
         aciertos = 0;
         errores = 0;
         puntajeTotal = 0;
-        ultimoVerdeMs = null;
+        ultimoVerdeMs = SIN_VERDE;
     }
 
     public void onLightChange(Light light, long timestampMs) {
@@ -24,7 +26,7 @@ public class GameLogic {
     }
 
     public AttemptResult registrarIntento(long timestampMs, Light currentLight) {
-        if (currentLight == Light.GREEN && ultimoVerdeMs != null) {
+        if (currentLight == Light.GREEN && ultimoVerdeMs != SIN_VERDE) {
             long diferencia = Math.max(0, timestampMs - ultimoVerdeMs);
             long puntos = calcularPuntaje(diferencia);
             aciertos++;
@@ -0,0 +1,175 @@
+package com.example.semaforo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grabación binaria de una sesión del simulador en un archivo mapeado en memoria.
+ *
+ * Cada evento es un registro de {@value #TAMANO_REGISTRO} bytes (little-endian):
+ * <pre>
+ *   0  byte  tipo        (CAMBIO_LUZ, INTENTO, EVALUACION, ACCION)
+ *   1  byte  luz         (ordinal de {@link Light})
+ *   2  byte  bandera     (acierto / regla conocida)
+ *   3  byte  reservado
+ *   4  int   entero      (id de acción en EVALUACION y ACCION; {@value #SIN_ACCION} = acción nula)
+ *   8  long  tiempoMs    (reloj monótono de la sesión)
+ *  16  long  valor       (INTENTO: puntos; EVALUACION: hash del resultado)
+ *  24  long  extra       (INTENTO: reacción en ms o -1)
+ * </pre>
+ * Las acciones se guardan una vez como registros ACCION: id, largo del trozo en el byte 3 y
+ * hasta {@value #TROZO_NOMBRE} bytes del nombre en UTF-8 a partir del byte 8; los nombres más
+ * largos siguen en registros ACCION con bandera 1 (continuación). La cabecera ocupa el primer registro: magia, versión, tamaño de
+ * registro y cantidad de registros (se escribe al cerrar; si el proceso muere, el lector se
+ * detiene en el primer registro vacío).
+ *
+ * Grabar es escribir en un buffer mapeado: no hay llamadas al sistema ni objetos por evento
+ * (salvo la primera vez que aparece cada acción). El archivo crece por segmentos. Un solo
+ * hilo escribe (el de JavaFX).
+ */
+public final class GrabadorSesion implements Closeable {
+
+    public static final int MAGIA = 0x53455331; // "SES1"
+    public static final int VERSION = 1;
+    public static final int TAMANO_REGISTRO = 32;
+    public static final int TROZO_NOMBRE = TAMANO_REGISTRO - 8;
+
+    public static final byte CAMBIO_LUZ = 1;
+    public static final byte INTENTO = 2;
+    public static final byte EVALUACION = 3;
+    public static final byte ACCION = 4;
+
+    /** Id de acción de una evaluación sin acción ({@code null}); no tiene registro ACCION. */
+    public static final int SIN_ACCION = -1;
+
+    private static final long SEGMENTO = 64L << 20;
+
+    private final FileChannel canal;
+    private final Map<String, Integer> acciones = new HashMap<>();
+    private MappedByteBuffer buffer;
+    private long baseSegmento;
+    private long registros;
+
+    public GrabadorSesion(Path archivo) throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapear(0);
+        buffer.putInt(0, MAGIA);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, TAMANO_REGISTRO);
+        registros = 1; // la cabecera
+    }
+
+    /** Mapea el segmento que empieza en {@code base}; el anterior se fuerza a disco antes de soltarlo. */
+    private void mapear(long base) throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        baseSegmento = base;
+        buffer = canal.map(FileChannel.MapMode.READ_WRITE, base, SEGMENTO);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int posicion() {
+        long pos = registros * TAMANO_REGISTRO - baseSegmento;
+        if (pos + TAMANO_REGISTRO > SEGMENTO) {
+            try {
+                mapear(registros * TAMANO_REGISTRO);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo extender la grabación", e);
+            }
+            pos = 0;
+        }
+        return (int) pos;
+    }
+
+    private void registro(byte tipo, Light luz, boolean bandera, int entero, long tiempoMs, long valor, long extra) {
+        int p = posicion();
+        buffer.putInt(p + 4, entero);
+        buffer.putLong(p + 8, tiempoMs);
+        buffer.putLong(p + 16, valor);
+        buffer.putLong(p + 24, extra);
+        buffer.put(p + 1, (byte) luz.ordinal());
+        buffer.put(p + 2, (byte) (bandera ? 1 : 0));
+        buffer.put(p, tipo); // el tipo va al final: un registro con tipo != 0 está completo
+        registros++;
+    }
+
+    public void cambioLuz(Light luz, long tiempoMs) {
+        registro(CAMBIO_LUZ, luz, false, 0, tiempoMs, 0, 0);
+    }
+
+    public void intento(Light luz, long tiempoMs, boolean acierto, long puntos, long reaccionMs) {
+        registro(INTENTO, luz, acierto, 0, tiempoMs, puntos, reaccionMs);
+    }
+
+    public void evaluacion(Light luz, String accion, long tiempoMs, boolean conocida, String resultado) {
+        int id = idAccion(accion);
+        registro(EVALUACION, luz, conocida, id, tiempoMs, hashResultado(resultado), 0);
+    }
+
+    /** Hash estable del texto de un resultado, para comparar al reproducir sin guardar el texto. */
+    public static long hashResultado(String resultado) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < resultado.length(); i++) {
+            h = (h ^ resultado.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private int idAccion(String accion) {
+        if (accion == null) {
+            return SIN_ACCION;
+        }
+        String clave = accion;
+        Integer id = acciones.get(clave);
+        if (id != null) {
+            return id;
+        }
+        int nuevo = acciones.size();
+        acciones.put(clave, nuevo);
+        byte[] nombre = clave.getBytes(StandardCharsets.UTF_8);
+        int desde = 0;
+        do {
+            int largo = Math.min(nombre.length - desde, TROZO_NOMBRE);
+            int p = posicion();
+            buffer.putInt(p + 4, nuevo);
+            buffer.put(p + 2, (byte) (desde > 0 ? 1 : 0));
+            buffer.put(p + 3, (byte) largo);
+            buffer.put(p + 8, nombre, desde, largo);
+            buffer.put(p, ACCION);
+            registros++;
+            desde += largo;
+        } while (desde < nombre.length);
+        return nuevo;
+    }
+
+    /** Registros escritos, incluida la cabecera. */
+    public long getRegistros() {
+        return registros;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (baseSegmento != 0) {
+            mapear(0); // fuerza el último segmento de datos antes de volver a la cabecera
+        }
+        buffer.putLong(16, registros);
+        buffer.force();
+        buffer = null;
+        try {
+            canal.truncate(registros * TAMANO_REGISTRO);
+        } catch (IOException e) {
+            // En algunos sistemas no se puede truncar con el mapeo abierto; la cabecera ya dice dónde termina
+        }
+        canal.close();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.semaforo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias al estilo HDR: cubetas log-lineales con error relativo acotado.
+ *
+ * Los valores menores que 2^{@value #BITS_SUB} se guardan exactos; los mayores caen en una de
+ * 2^{@value #BITS_SUB} sub-cubetas de su potencia de dos, así que cualquier percentil sale con
+ * menos de un 1,6 % de error sobre todo el rango de {@code long} (nanosegundos a días) con un
+ * arreglo fijo. Registrar no crea objetos y se puede hacer desde varios hilos; las lecturas
+ * concurrentes ven un estado aproximado pero consistente por cubeta.
+ */
+public final class HistogramaLatencia {
+
+    private static final int BITS_SUB = 6;
+    private static final int SUB = 1 << BITS_SUB;
+    private static final int CUBETAS = (64 - BITS_SUB) * SUB;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final AtomicLong cuenta = new AtomicLong();
+    private final AtomicLong suma = new AtomicLong();
+    private final AtomicLong maximo = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong minimo = new AtomicLong(Long.MAX_VALUE);
+
+    /** Registra un valor (los negativos cuentan como cero). */
+    public void registrar(long valor) {
+        long v = Math.max(0, valor);
+        cubetas.incrementAndGet(indice(v));
+        cuenta.incrementAndGet();
+        suma.addAndGet(v);
+        long m = maximo.get();
+        while (v > m && !maximo.compareAndSet(m, v)) {
+            m = maximo.get();
+        }
+        m = minimo.get();
+        while (v < m && !minimo.compareAndSet(m, v)) {
+            m = minimo.get();
+        }
+    }
+
+    static int indice(long v) {
+        if (v < SUB) {
+            return (int) v;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int mantisa = (int) ((v >>> (exp - BITS_SUB)) & (SUB - 1));
+        return (exp - BITS_SUB + 1) * SUB + mantisa;
+    }
+
+    /** Menor valor que cae en la cubeta. */
+    static long desde(int indice) {
+        if (indice < SUB) {
+            return indice;
+        }
+        int exp = indice / SUB + BITS_SUB - 1;
+        long mantisa = indice % SUB;
+        return (SUB + mantisa) << (exp - BITS_SUB);
+    }
+
+    /** Valor representativo de la cubeta (su punto medio). */
+    static long medio(int indice) {
+        long a = desde(indice);
+        long b = indice + 1 < CUBETAS ? desde(indice + 1) : Long.MAX_VALUE;
+        return a + (b - a - 1) / 2;
+    }
+
+    /** Valor bajo el cual queda la fracción {@code p} (0..1) de los registros; 0 si está vacío. */
+    public long percentil(double p) {
+        long n = cuenta.get();
+        if (n == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, p)) * n));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cubetas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(medio(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    public long getCuenta() {
+        return cuenta.get();
+    }
+
+    public long getSuma() {
+        return suma.get();
+    }
+
+    public double getMedia() {
+        long n = cuenta.get();
+        return n == 0 ? 0 : (double) suma.get() / n;
+    }
+
+    public long getMaximo() {
+        long m = maximo.get();
+        return m == Long.MIN_VALUE ? 0 : m;
+    }
+
+    public long getMinimo() {
+        long m = minimo.get();
+        return m == Long.MAX_VALUE ? 0 : m;
+    }
+
+    /**
+     * Suma los registros de este histograma a {@code destino} (para combinar ventanas). La
+     * cuenta y la suma salen de las mismas cubetas copiadas, así el destino queda consistente
+     * aunque se siga registrando en este: la suma se estima con el punto medio de cada cubeta
+     * (exacta bajo 2^{@value #BITS_SUB}, con el mismo error relativo que los percentiles arriba).
+     */
+    public void sumarA(HistogramaLatencia destino) {
+        long n = 0;
+        long s = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            long c = cubetas.get(i);
+            if (c != 0) {
+                destino.cubetas.addAndGet(i, c);
+                n += c;
+                s += c * medio(i);
+            }
+        }
+        if (n == 0) {
+            return;
+        }
+        destino.cuenta.addAndGet(n);
+        destino.suma.addAndGet(s);
+        long v = getMaximo();
+        long m = destino.maximo.get();
+        while (v > m && !destino.maximo.compareAndSet(m, v)) {
+            m = destino.maximo.get();
+        }
+        v = getMinimo();
+        m = destino.minimo.get();
+        while (v < m && !destino.minimo.compareAndSet(m, v)) {
+            m = destino.minimo.get();
+        }
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cubetas.set(i, 0);
+        }
+        cuenta.set(0);
+        suma.set(0);
+        maximo.set(Long.MIN_VALUE);
+        minimo.set(Long.MAX_VALUE);
+    }
+
+    /** Resumen en milisegundos para mostrar: {@code p50 x · p99 y · máx z ms (n)}. */
+    public String resumenMs() {
+        if (getCuenta() == 0) {
+            return "—";
+        }
+        return String.format("p50 %.1f · p99 %.1f · máx %.1f ms (%d)",
+                percentil(0.50) / 1e6, percentil(0.99) / 1e6, getMaximo() / 1e6, getCuenta());
+    }
+}
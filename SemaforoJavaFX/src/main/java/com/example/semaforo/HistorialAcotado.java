@@ -0,0 +1,112 @@
+package com.example.semaforo;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lista observable de solo lectura respaldada por un anillo de capacidad fija.
+ *
+ * {@link #agregar(Object)} solo deja el elemento pendiente; {@link #volcar()} (una vez por
+ * pulso) los pasa al anillo y emite un único cambio: las entradas más viejas que no caben se
+ * quitan del principio y las nuevas se agregan al final. Así una corrida con cientos de miles
+ * de inferencias usa memoria acotada y la vista se actualiza a lo sumo una vez por cuadro.
+ */
+public final class HistorialAcotado<E> extends ObservableListBase<E> {
+
+    private final Object[] anillo;
+    private int inicio;
+    private int tamano;
+    private final List<E> pendientes = new ArrayList<>();
+    private long total;
+
+    public HistorialAcotado(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        anillo = new Object[capacidad];
+    }
+
+    /** Deja un elemento para el próximo {@link #volcar()}. */
+    public void agregar(E elemento) {
+        pendientes.add(elemento);
+        total++;
+    }
+
+    /** Aplica los pendientes con un solo aviso de cambio. Devuelve cuántos se agregaron. */
+    public int volcar() {
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+        int capacidad = anillo.length;
+        int n = pendientes.size();
+        // Si llegaron más de los que caben, solo importan los últimos
+        int desde = Math.max(0, n - capacidad);
+        int nuevos = n - desde;
+        int quitar = Math.max(0, tamano + nuevos - capacidad);
+
+        beginChange();
+        try {
+            if (quitar > 0) {
+                List<E> quitados = new ArrayList<>(quitar);
+                for (int i = 0; i < quitar; i++) {
+                    quitados.add(get(i));
+                    anillo[(inicio + i) % capacidad] = null;
+                }
+                inicio = (inicio + quitar) % capacidad;
+                tamano -= quitar;
+                nextRemove(0, quitados);
+            }
+            int antes = tamano;
+            for (int i = desde; i < n; i++) {
+                anillo[(inicio + tamano) % capacidad] = pendientes.get(i);
+                tamano++;
+            }
+            nextAdd(antes, tamano);
+        } finally {
+            pendientes.clear();
+            endChange();
+        }
+        return nuevos;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= tamano) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (E) anillo[(inicio + index) % anillo.length];
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+
+    /** Vacía el historial (también los pendientes). */
+    public void vaciar() {
+        pendientes.clear();
+        if (tamano == 0) {
+            return;
+        }
+        List<E> quitados = new ArrayList<>(this);
+        Arrays.fill(anillo, null);
+        inicio = 0;
+        tamano = 0;
+        beginChange();
+        nextRemove(0, quitados);
+        endChange();
+    }
+
+    public int capacidad() {
+        return anillo.length;
+    }
+
+    /** Elementos agregados desde el principio, incluidos los que ya salieron del anillo. */
+    public long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.semaforo;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tabla de símbolos para los nombres de acción: asigna a cada acción un id entero denso
+ * (0, 1, 2, ...) y permite buscarlo sin crear objetos.
+ *
+ * La búsqueda ignora espacios al inicio y al final y mayúsculas/minúsculas directamente
+ * sobre los caracteres de entrada (sin {@code trim()} ni {@code toLowerCase()}), usando
+ * direccionamiento abierto en una tabla con potencia de dos.
+ */
+final class IndiceAcciones {
+
+    private final String[] nombres;   // id → nombre normalizado
+    private final int[] tabla;        // ranura → id + 1 (0 = vacía)
+    private final int[] hashes;       // ranura → hash del nombre guardado
+    private final int mascara;
+
+    IndiceAcciones(List<String> acciones) {
+        Set<String> unicas = new LinkedHashSet<>();
+        for (String a : acciones) {
+            String n = normalizar(a);
+            if (!n.isEmpty()) {
+                unicas.add(n);
+            }
+        }
+        nombres = unicas.toArray(String[]::new);
+        int capacidad = Integer.highestOneBit(Math.max(4, nombres.length * 2 - 1)) << 1;
+        tabla = new int[capacidad];
+        hashes = new int[capacidad];
+        mascara = capacidad - 1;
+        for (int id = 0; id < nombres.length; id++) {
+            int h = hash(nombres[id], 0, nombres[id].length());
+            int i = h & mascara;
+            while (tabla[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            tabla[i] = id + 1;
+            hashes[i] = h;
+        }
+    }
+
+    /** Id de la acción, o -1 si es nula, vacía o desconocida. No asigna memoria. */
+    int id(CharSequence accion) {
+        if (accion == null) {
+            return -1;
+        }
+        int inicio = 0;
+        int fin = accion.length();
+        while (inicio < fin && Character.isWhitespace(accion.charAt(inicio))) {
+            inicio++;
+        }
+        while (fin > inicio && Character.isWhitespace(accion.charAt(fin - 1))) {
+            fin--;
+        }
+        if (inicio == fin) {
+            return -1;
+        }
+        int h = hash(accion, inicio, fin);
+        for (int i = h & mascara; tabla[i] != 0; i = (i + 1) & mascara) {
+            if (hashes[i] == h && iguales(nombres[tabla[i] - 1], accion, inicio, fin)) {
+                return tabla[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    String nombre(int id) {
+        return nombres[id];
+    }
+
+    int tamano() {
+        return nombres.length;
+    }
+
+    List<String> nombres() {
+        return List.of(nombres);
+    }
+
+    /** Misma normalización que aplica {@link #id(CharSequence)}: recorta y pasa a minúsculas carácter a carácter. */
+    static String normalizar(String accion) {
+        String recortada = accion.strip();
+        StringBuilder sb = new StringBuilder(recortada.length());
+        for (int i = 0; i < recortada.length(); i++) {
+            sb.append(Character.toLowerCase(recortada.charAt(i)));
+        }
+        return sb.toString();
+    }
+
+    private static int hash(CharSequence s, int inicio, int fin) {
+        int h = 0;
+        for (int i = inicio; i < fin; i++) {
+            h = 31 * h + Character.toLowerCase(s.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean iguales(String normalizado, CharSequence s, int inicio, int fin) {
+        if (normalizado.length() != fin - inicio) {
+            return false;
+        }
+        for (int i = 0; i < normalizado.length(); i++) {
+            if (normalizado.charAt(i) != Character.toLowerCase(s.charAt(inicio + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,18 +1,27 @@
 package com.example.semaforo;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Locale;
+import java.util.EnumMap;
 import java.util.List;
 
 /**
  * Reglas declarativas (estilo programación lógica) para evaluar acciones
  * permitidas o no según el color de la luz.
+ *
+ * La base de conocimiento se compila una sola vez a un índice por luz
+ * ({@code EnumMap<Light, Regla[]>}) cuyo segundo nivel se direcciona con el id
+ * de la acción. Evaluar es O(1), no depende del número de reglas y no crea
+ * objetos: los resultados "Desconocido" están preasignados por luz.
  */
 public class LightRules {
 
     public record Regla(Light luz, String accion, String resultado, String descripcion) {}
 
-    private final List<Regla> reglas = List.of(
+    static final String DESCONOCIDO = "Desconocido";
+    static final String SIN_REGLA = "No existe una regla para esta combinación";
+
+    static final List<Regla> REGLAS_BASE = List.of(
             new Regla(Light.RED, "avanzar", "Infracción", "rojo + avanzar → Infracción"),
             new Regla(Light.GREEN, "avanzar", "Permitido", "verde + avanzar → Permitido"),
             new Regla(Light.YELLOW, "avanzar", "Precaución", "amarillo + avanzar → Precaución"),
@@ -30,21 +39,69 @@ public class LightRules {
             new Regla(Light.YELLOW, "cruzar", "Riesgo", "amarillo + cruzar → Riesgo alto")
     );
 
-    public Regla evaluarAccion(Light luz, String accion) {
-        if (accion == null) {
-            return new Regla(luz, null, "Desconocido", "No existe una regla para esta combinación");
+    private static final Regla DESCONOCIDA_SIN_LUZ = new Regla(null, null, DESCONOCIDO, SIN_REGLA);
+
+    private final List<Regla> reglas;
+    private final IndiceAcciones acciones;
+    private final EnumMap<Light, Regla[]> porLuz = new EnumMap<>(Light.class);
+    private final EnumMap<Light, Regla> desconocidas = new EnumMap<>(Light.class);
+
+    public LightRules() {
+        this(REGLAS_BASE);
+    }
+
+    /**
+     * Compila la base de conocimiento. Si dos reglas comparten luz y acción
+     * gana la primera, igual que una búsqueda secuencial.
+     */
+    public LightRules(List<Regla> reglas) {
+        this.reglas = List.copyOf(reglas);
+        List<String> nombres = new ArrayList<>(this.reglas.size());
+        this.reglas.forEach(regla -> nombres.add(regla.accion()));
+        acciones = new IndiceAcciones(nombres);
+
+        for (Light luz : Light.values()) {
+            porLuz.put(luz, new Regla[acciones.tamano()]);
+            desconocidas.put(luz, new Regla(luz, null, DESCONOCIDO, SIN_REGLA));
         }
-        String normalizada = accion.trim().toLowerCase(Locale.ROOT);
-        if (normalizada.isEmpty()) {
-            return new Regla(luz, normalizada, "Desconocido", "No existe una regla para esta combinación");
+        for (Regla regla : this.reglas) {
+            int id = acciones.id(regla.accion());
+            if (id < 0) {
+                continue;
+            }
+            Regla[] fila = porLuz.get(regla.luz());
+            if (fila[id] == null) {
+                fila[id] = regla;
+            }
         }
-        return reglas.stream()
-                .filter(regla -> regla.luz() == luz && regla.accion().equals(normalizada))
-                .findFirst()
-                .orElse(new Regla(luz, normalizada, "Desconocido", "No existe una regla para esta combinación"));
+    }
+
+    public Regla evaluarAccion(Light luz, String accion) {
+        return evaluar(luz, acciones.id(accion));
+    }
+
+    /** Id compilado de una acción (-1 si no existe); sirve para evaluar sin volver a buscar el texto. */
+    public int accionId(CharSequence accion) {
+        return acciones.id(accion);
+    }
+
+    public Regla evaluar(Light luz, int accionId) {
+        if (luz == null) {
+            return DESCONOCIDA_SIN_LUZ;
+        }
+        Regla regla = accionId >= 0 ? porLuz.get(luz)[accionId] : null;
+        return regla != null ? regla : desconocidas.get(luz);
+    }
+
+    public static boolean esDesconocida(Regla regla) {
+        return regla.accion() == null;
     }
 
     public List<Regla> getReglas() {
         return Collections.unmodifiableList(reglas);
     }
+
+    public List<String> getAcciones() {
+        return acciones.nombres();
+    }
 }
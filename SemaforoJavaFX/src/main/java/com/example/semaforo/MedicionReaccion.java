@@ -0,0 +1,94 @@
+package com.example.semaforo;
+
+/**
+ * Medición del tiempo de reacción con {@link System#nanoTime()}, descontando la latencia del sistema.
+ *
+ * El tiempo de reacción justo va desde que el verde está realmente en pantalla hasta el evento
+ * de entrada crudo, no desde el cambio de luz simulado hasta que corre el manejador. La
+ * diferencia es latencia del sistema y se mide por separado:
+ * <ul>
+ *   <li>pantalla: del instante ideal del cambio (según el reloj de simulación) al primer pulso
+ *       que ya dibuja el verde (escucha posterior al layout de la escena);</li>
+ *   <li>entrada: del evento crudo (filtro de MOUSE_PRESSED/KEY_PRESSED) al manejador del botón.</li>
+ * </ul>
+ * Así la carga de la máquina, el jitter de pulsos o la cola de eventos no cambian el puntaje,
+ * y un ajuste del reloj de pared no puede corromperlo. Se usa desde el hilo de JavaFX; cada
+ * sesión tiene sus histogramas.
+ */
+public final class MedicionReaccion {
+
+    private static final long NADA = Long.MIN_VALUE;
+
+    private final HistogramaLatencia reacciones = new HistogramaLatencia();
+    private final HistogramaLatencia latenciaPantalla = new HistogramaLatencia();
+    private final HistogramaLatencia latenciaEntrada = new HistogramaLatencia();
+
+    private long verdeIdealNs = NADA;
+    private long verdeEnPantallaNs = NADA;
+    private long entradaNs = NADA;
+
+    /** La luz visible cambió en este pulso; {@code idealNs} es cuándo debía haber cambiado. */
+    public void cambioDeLuz(Light luz, long idealNs) {
+        verdeIdealNs = luz == Light.GREEN ? idealNs : NADA;
+    }
+
+    /**
+     * Llamado tras el layout de cada pulso. Si hay un verde pendiente de dibujar, este pulso es
+     * el que lo muestra: devuelve su instante, o {@code -1} si no había nada pendiente.
+     */
+    public long framePintado(long ahoraNs) {
+        if (verdeIdealNs == NADA) {
+            return -1;
+        }
+        latenciaPantalla.registrar(ahoraNs - verdeIdealNs);
+        verdeIdealNs = NADA;
+        verdeEnPantallaNs = ahoraNs;
+        return ahoraNs;
+    }
+
+    /** Instante del evento de entrada crudo (filtro de la escena, antes de despachar). */
+    public void entrada(long ahoraNs) {
+        entradaNs = ahoraNs;
+    }
+
+    /**
+     * Llamado por el manejador del intento. Registra la latencia de entrada y devuelve el
+     * instante del evento crudo, que es el que se usa para puntuar.
+     */
+    public long alManejar(long ahoraNs) {
+        long entrada = entradaNs != NADA && entradaNs <= ahoraNs ? entradaNs : ahoraNs;
+        latenciaEntrada.registrar(ahoraNs - entrada);
+        entradaNs = NADA;
+        return entrada;
+    }
+
+    /** Reacción neta para un intento en {@code entradaNs}, o -1 si aún no se vio ningún verde. */
+    public long reaccionNs(long entradaNs) {
+        return verdeEnPantallaNs == NADA ? -1 : Math.max(0, entradaNs - verdeEnPantallaNs);
+    }
+
+    public void registrarAcierto(long reaccionNs) {
+        reacciones.registrar(reaccionNs);
+    }
+
+    public void nuevaSesion() {
+        reacciones.reiniciar();
+        latenciaPantalla.reiniciar();
+        latenciaEntrada.reiniciar();
+        verdeIdealNs = NADA;
+        verdeEnPantallaNs = NADA;
+        entradaNs = NADA;
+    }
+
+    public HistogramaLatencia getReacciones() {
+        return reacciones;
+    }
+
+    public HistogramaLatencia getLatenciaPantalla() {
+        return latenciaPantalla;
+    }
+
+    public HistogramaLatencia getLatenciaEntrada() {
+        return latenciaEntrada;
+    }
+}
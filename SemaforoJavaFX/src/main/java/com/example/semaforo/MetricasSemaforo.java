@@ -0,0 +1,184 @@
+package com.example.semaforo;
+
+import javafx.scene.Scene;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del simulador en el formato de texto de Prometheus (las sirve {@link ServidorMetricas}).
+ *
+ * Registrar no bloquea ni crea objetos: contadores {@link LongAdder} e histogramas
+ * {@link HistogramaLatencia}, desde cualquier hilo. Lo caro (combinar histogramas, calcular
+ * cuantiles, armar el texto) lo paga el exportador cuando alguien consulta.
+ *
+ * Los tiempos se exportan como {@code summary}: {@code _sum} y {@code _count} acumulan desde el
+ * arranque, y los cuantiles son de una ventana deslizante de uno a dos minutos (dos histogramas
+ * que se turnan al exportar), así reflejan el estado reciente y no el de toda la corrida.
+ */
+public final class MetricasSemaforo {
+
+    /** Periodo nominal del pulso de JavaFX (60 Hz); el jitter es la distancia a este valor. */
+    static final long PERIODO_PULSO_NS = 1_000_000_000L / 60;
+    private static final long VENTANA_NS = 60_000_000_000L;
+    private static final double[] CUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /** Tiempo con cuantiles de ventana; registrar desde cualquier hilo, exportar desde uno solo. */
+    private static final class Resumen {
+        final String nombre;
+        final String ayuda;
+        final LongAdder cuenta = new LongAdder();
+        final LongAdder sumaNs = new LongAdder();
+        volatile HistogramaLatencia actual = new HistogramaLatencia();
+        HistogramaLatencia anterior = new HistogramaLatencia();
+        long rotadoNs = System.nanoTime();
+
+        Resumen(String nombre, String ayuda) {
+            this.nombre = nombre;
+            this.ayuda = ayuda;
+        }
+
+        void registrar(long ns) {
+            long v = Math.max(0, ns);
+            actual.registrar(v);
+            cuenta.increment();
+            sumaNs.add(v);
+        }
+
+        /**
+         * La ventana más vieja se vacía y pasa a recibir los registros. Quien todavía tenga la
+         * referencia a la que deja de ser actual registra en la anterior, que se sigue exportando.
+         */
+        void rotarSiToca(long ahoraNs) {
+            if (ahoraNs - rotadoNs >= VENTANA_NS) {
+                HistogramaLatencia vieja = anterior;
+                vieja.reiniciar();
+                anterior = actual;
+                actual = vieja;
+                rotadoNs = ahoraNs;
+            }
+        }
+    }
+
+    private final long inicioNs = System.nanoTime();
+    private final LongAdder[] cambiosLuz = new LongAdder[Light.values().length];
+    private final LongAdder evaluaciones = new LongAdder();
+    private final LongAdder sinRegla = new LongAdder();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final Resumen jitter = new Resumen("semaforo_tick_jitter_segundos",
+            "Distancia entre el intervalo de pulsos del temporizador y el periodo nominal de 1/60 s");
+    private final Resumen pulso = new Resumen("semaforo_pulso_segundos",
+            "Trabajo por pulso en el hilo de JavaFX: desde el temporizador hasta el final del layout");
+    private final Resumen reaccion = new Resumen("semaforo_reaccion_segundos",
+            "Tiempo de reacción de los aciertos, desde que el verde se ve en pantalla");
+
+    // Solo el hilo de JavaFX
+    private long ultimoTickNs = -1;
+    private long inicioPulsoNs = -1;
+
+    // Solo el exportador
+    private final HistogramaLatencia combinado = new HistogramaLatencia();
+
+    public MetricasSemaforo() {
+        for (int i = 0; i < cambiosLuz.length; i++) {
+            cambiosLuz[i] = new LongAdder();
+        }
+    }
+
+    /** Desde el temporizador de animación, con el instante del pulso que recibe. */
+    public void tick(long ahoraNs) {
+        if (ultimoTickNs >= 0) {
+            jitter.registrar(Math.abs(ahoraNs - ultimoTickNs - PERIODO_PULSO_NS));
+        }
+        ultimoTickNs = ahoraNs;
+        inicioPulsoNs = System.nanoTime();
+    }
+
+    /** Escucha posterior al layout: cierra el trabajo del pulso que abrió {@link #tick}. */
+    public void instalar(Scene scene) {
+        scene.addPostLayoutPulseListener(() -> {
+            if (inicioPulsoNs >= 0) {
+                pulso.registrar(System.nanoTime() - inicioPulsoNs);
+                inicioPulsoNs = -1;
+            }
+        });
+    }
+
+    public void cambioDeLuz(Light luz) {
+        cambiosLuz[luz.ordinal()].increment();
+    }
+
+    public void evaluacion(LightRules.Regla regla) {
+        evaluaciones.increment();
+        if (LightRules.esDesconocida(regla)) {
+            sinRegla.increment();
+        }
+    }
+
+    /** {@code reaccionNs} negativo: acierto sin reacción medible (todavía no se dibujó un verde). */
+    public void intento(boolean acierto, long reaccionNs) {
+        if (!acierto) {
+            errores.increment();
+            return;
+        }
+        aciertos.increment();
+        if (reaccionNs >= 0) {
+            reaccion.registrar(reaccionNs);
+        }
+    }
+
+    /** Agrega todas las métricas en formato de texto de Prometheus. Solo desde un hilo a la vez. */
+    public synchronized void escribir(StringBuilder sb) {
+        long ahora = System.nanoTime();
+        cabecera(sb, "semaforo_activo_segundos", "gauge", "Tiempo desde que se crearon las métricas");
+        valor(sb, "semaforo_activo_segundos", "", (ahora - inicioNs) / 1e9);
+
+        cabecera(sb, "semaforo_cambios_luz_total", "counter", "Cambios de luz, por luz que se enciende");
+        for (Light luz : Light.values()) {
+            valor(sb, "semaforo_cambios_luz_total", "{luz=\"" + luz.name().toLowerCase(Locale.ROOT) + "\"}",
+                    cambiosLuz[luz.ordinal()].sum());
+        }
+
+        cabecera(sb, "semaforo_reglas_evaluaciones_total", "counter", "Evaluaciones de LightRules");
+        valor(sb, "semaforo_reglas_evaluaciones_total", "", evaluaciones.sum());
+        cabecera(sb, "semaforo_reglas_sin_regla_total", "counter",
+                "Evaluaciones sin regla para la luz y la acción (fallos de la base)");
+        valor(sb, "semaforo_reglas_sin_regla_total", "", sinRegla.sum());
+
+        cabecera(sb, "semaforo_intentos_total", "counter", "Intentos del juego de reacción");
+        valor(sb, "semaforo_intentos_total", "{resultado=\"acierto\"}", aciertos.sum());
+        valor(sb, "semaforo_intentos_total", "{resultado=\"error\"}", errores.sum());
+
+        resumen(sb, reaccion, ahora);
+        resumen(sb, jitter, ahora);
+        resumen(sb, pulso, ahora);
+    }
+
+    private void resumen(StringBuilder sb, Resumen r, long ahora) {
+        r.rotarSiToca(ahora);
+        combinado.reiniciar();
+        r.anterior.sumarA(combinado);
+        r.actual.sumarA(combinado);
+        cabecera(sb, r.nombre, "summary", r.ayuda);
+        for (double q : CUANTILES) {
+            valor(sb, r.nombre, "{quantile=\"" + q + "\"}",
+                    combinado.getCuenta() == 0 ? Double.NaN : combinado.percentil(q) / 1e9);
+        }
+        valor(sb, r.nombre + "_sum", "", r.sumaNs.sum() / 1e9);
+        valor(sb, r.nombre + "_count", "", r.cuenta.sum());
+    }
+
+    static void cabecera(StringBuilder sb, String nombre, String tipo, String ayuda) {
+        sb.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        sb.append("# TYPE ").append(nombre).append(' ').append(tipo).append('\n');
+    }
+
+    static void valor(StringBuilder sb, String nombre, String etiquetas, long v) {
+        sb.append(nombre).append(etiquetas).append(' ').append(v).append('\n');
+    }
+
+    static void valor(StringBuilder sb, String nombre, String etiquetas, double v) {
+        sb.append(nombre).append(etiquetas).append(' ').append(v).append('\n');
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.semaforo;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Modelo de colas de vehículos en los accesos de cada intersección.
+ *
+ * Cada intersección sigue un {@link PlanFases} (con su desfase) y tiene dos accesos: el
+ * principal avanza con la luz del plan (VERDE o AMARILLO) y el transversal cuando el plan
+ * está en ROJO sin fase peatonal. Los vehículos llegan como un proceso de Poisson por acceso
+ * y salen a flujo de saturación mientras su acceso tiene paso.
+ *
+ * Las colas son anillos primitivos con el paso de llegada de cada vehículo (no hay un objeto
+ * por vehículo); si un anillo se llena, la llegada cuenta como desborde (la cola ocupa la
+ * cuadra anterior). Todo el estado vive en arreglos por acceso, así que se pueden simular
+ * los accesos de una ciudad entera.
+ *
+ * Con {@link #encadenar(long[])} las intersecciones forman un corredor: lo que sale por el
+ * acceso principal de la intersección i llega al principal de la i+1 tras el tiempo de viaje,
+ * de modo que los pelotones y la coordinación de desfases se reflejan en la demora.
+ */
+public final class ModeloTrafico {
+
+    public static final int ACCESOS_POR_INTERSECCION = 2;
+
+    /** Resultado agregado de uno o varios accesos. */
+    public record Metricas(long llegadas, long atendidos, long desbordes, double vehiculosHora,
+                           double demoraMediaS, double colaMedia, int colaMaxima) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f veh/h, demora media %.1f s, cola media %.2f (máx %d), desbordes %d",
+                    vehiculosHora, demoraMediaS, colaMedia, colaMaxima, desbordes);
+        }
+    }
+
+    private final int pasoMs;
+    private final double pasoS;
+    private final double salidasPorPaso;
+    private final int capacidad;
+    private final SplittableRandom azar;
+
+    // Por intersección
+    private final PlanFases[] planes;     // planes distintos
+    private final byte[][] paso;          // paso[plan][fase]: bit 0 principal, bit 1 transversal
+    private final int[] planDe;
+    private final int[] fase;
+    private final long[] proximoCambioMs;
+
+    // Por acceso
+    private final double[] tasa;          // vehículos por segundo
+    private final double[] proximaLlegadaS;
+    private final double[] credito;
+    private final int[] anillo;           // acceso * capacidad: paso de llegada de cada vehículo
+    private final int[] cabeza;
+    private final int[] cola;
+    private final long[] llegadas;
+    private final long[] atendidos;
+    private final long[] desbordes;
+    private final long[] esperaPasos;
+    private final int[] colaMaxima;
+
+    // Corredor: vehículos en viaje hacia el acceso principal de cada intersección
+    private int[] viajePasos;             // viajePasos[i] = pasos de i a i+1
+    private int[] transito;               // intersección * capacidadTransito: paso de llegada prevista
+    private int[] transitoCabeza;
+    private int[] transitoCola;
+    private int capacidadTransito;
+
+    private int pasoActual;
+    private long tiempoMs;
+
+    /**
+     * @param planesPorInterseccion plan de cada intersección (se pueden compartir)
+     * @param desfasesMs            desfase de cada intersección dentro de su plan
+     * @param llegadasPorHora       demanda de cada acceso (índice = intersección * 2 + sentido)
+     * @param saturacionPorHora     flujo de saturación de un acceso con paso (p. ej. 1800 veh/h)
+     * @param capacidadCola         vehículos que caben en la cuadra de cada acceso
+     * @param pasoMs                resolución de la simulación
+     * @param semilla               semilla de las llegadas (corridas reproducibles)
+     */
+    public ModeloTrafico(PlanFases[] planesPorInterseccion, long[] desfasesMs, double[] llegadasPorHora,
+                         double saturacionPorHora, int capacidadCola, int pasoMs, long semilla) {
+        int n = planesPorInterseccion.length;
+        int accesos = n * ACCESOS_POR_INTERSECCION;
+        if (desfasesMs.length != n || llegadasPorHora.length != accesos) {
+            throw new IllegalArgumentException("Se esperaban " + n + " desfases y " + accesos + " demandas");
+        }
+        if (pasoMs <= 0 || capacidadCola <= 0) {
+            throw new IllegalArgumentException("pasoMs y capacidadCola deben ser positivos");
+        }
+        this.pasoMs = pasoMs;
+        this.pasoS = pasoMs / 1000.0;
+        this.salidasPorPaso = saturacionPorHora / 3600.0 * pasoS;
+        this.capacidad = capacidadCola;
+        this.azar = new SplittableRandom(semilla);
+
+        Map<PlanFases, Integer> distintos = new IdentityHashMap<>();
+        planDe = new int[n];
+        for (int i = 0; i < n; i++) {
+            planDe[i] = distintos.computeIfAbsent(planesPorInterseccion[i], p -> distintos.size());
+        }
+        planes = new PlanFases[distintos.size()];
+        paso = new byte[planes.length][];
+        distintos.forEach((plan, id) -> {
+            planes[id] = plan;
+            paso[id] = mascaraPaso(plan);
+        });
+
+        fase = new int[n];
+        proximoCambioMs = new long[n];
+        for (int i = 0; i < n; i++) {
+            PlanFases plan = planesPorInterseccion[i];
+            long d = Math.floorMod(desfasesMs[i], plan.getDuracionCiclo());
+            fase[i] = plan.faseEn(d);
+            proximoCambioMs[i] = plan.proximoCambio(d) - d;
+        }
+
+        tasa = new double[accesos];
+        proximaLlegadaS = new double[accesos];
+        for (int a = 0; a < accesos; a++) {
+            tasa[a] = llegadasPorHora[a] / 3600.0;
+            proximaLlegadaS[a] = siguienteLlegada(0, tasa[a]);
+        }
+        credito = new double[accesos];
+        anillo = new int[accesos * capacidad];
+        cabeza = new int[accesos];
+        cola = new int[accesos];
+        llegadas = new long[accesos];
+        atendidos = new long[accesos];
+        desbordes = new long[accesos];
+        esperaPasos = new long[accesos];
+        colaMaxima = new int[accesos];
+    }
+
+    /** Todas las intersecciones con el mismo plan y la misma demanda por acceso. */
+    public static ModeloTrafico uniforme(int intersecciones, PlanFases plan, long desfaseEntreVecinasMs,
+                                         double llegadasPorHora, long semilla) {
+        PlanFases[] planes = new PlanFases[intersecciones];
+        long[] desfases = new long[intersecciones];
+        for (int i = 0; i < intersecciones; i++) {
+            planes[i] = plan;
+            desfases[i] = desfaseEntreVecinasMs * i;
+        }
+        double[] demanda = new double[intersecciones * ACCESOS_POR_INTERSECCION];
+        Arrays.fill(demanda, llegadasPorHora);
+        return new ModeloTrafico(planes, desfases, demanda, 1800, 60, 100, semilla);
+    }
+
+    /**
+     * Encadena las intersecciones en un corredor (0 → 1 → ... → n-1) por el acceso principal.
+     *
+     * @param viajeMs viajeMs[i] = tiempo de viaje de la intersección i a la i+1 (n-1 valores)
+     */
+    public void encadenar(long[] viajeMs) {
+        int n = fase.length;
+        if (viajeMs.length != n - 1) {
+            throw new IllegalArgumentException("Se esperaban " + (n - 1) + " tiempos de viaje");
+        }
+        viajePasos = new int[n];
+        int maxViaje = 1;
+        for (int i = 0; i < n - 1; i++) {
+            viajePasos[i] = (int) Math.max(1, viajeMs[i] / pasoMs);
+            maxViaje = Math.max(maxViaje, viajePasos[i]);
+        }
+        // Por paso salen a lo sumo floor(1 + salidasPorPaso) vehículos de un acceso
+        capacidadTransito = maxViaje * (int) Math.ceil(1 + salidasPorPaso) + 1;
+        transito = new int[n * capacidadTransito];
+        transitoCabeza = new int[n];
+        transitoCola = new int[n];
+    }
+
+    private static byte[] mascaraPaso(PlanFases plan) {
+        byte[] m = new byte[plan.cantidadFases()];
+        for (int f = 0; f < m.length; f++) {
+            PlanFases.Fase fase = plan.fase(f);
+            boolean principal = fase.luz() != Light.RED && !fase.intermitente();
+            boolean transversal = fase.luz() == Light.RED && !fase.peatonal();
+            m[f] = (byte) ((principal ? 1 : 0) | (transversal ? 2 : 0));
+        }
+        return m;
+    }
+
+    private double siguienteLlegada(double desdeS, double tasa) {
+        return tasa <= 0 ? Double.POSITIVE_INFINITY : desdeS - Math.log(1 - azar.nextDouble()) / tasa;
+    }
+
+    /** Avanza la simulación {@code ms} milisegundos. */
+    public void avanzar(long ms) {
+        long pasos = ms / pasoMs;
+        for (long p = 0; p < pasos; p++) {
+            darPaso();
+        }
+    }
+
+    private void darPaso() {
+        pasoActual++;
+        tiempoMs += pasoMs;
+        double ahoraS = tiempoMs / 1000.0;
+        for (int i = 0; i < fase.length; i++) {
+            PlanFases plan = planes[planDe[i]];
+            while (tiempoMs >= proximoCambioMs[i]) {
+                fase[i] = plan.siguiente(fase[i]);
+                proximoCambioMs[i] += plan.duracion(fase[i]);
+            }
+            int mascara = paso[planDe[i]][fase[i]];
+            int a = i * ACCESOS_POR_INTERSECCION;
+            if (transito != null && transitoCola[i] > 0) {
+                recibir(i, a);
+            }
+            acceso(a, ahoraS, (mascara & 1) != 0);
+            acceso(a + 1, ahoraS, (mascara & 2) != 0);
+        }
+    }
+
+    private void acceso(int a, double ahoraS, boolean conPaso) {
+        if (proximaLlegadaS[a] <= ahoraS) {
+            llegar(a, ahoraS);
+        }
+        if (conPaso) {
+            if (cola[a] > 0 || credito[a] < 1) {
+                salir(a);
+            }
+        } else if (credito[a] != 0) {
+            credito[a] = 0;
+        }
+    }
+
+    private void llegar(int a, double ahoraS) {
+        do {
+            encolar(a);
+            proximaLlegadaS[a] = siguienteLlegada(proximaLlegadaS[a], tasa[a]);
+        } while (proximaLlegadaS[a] <= ahoraS);
+    }
+
+    private void encolar(int a) {
+        llegadas[a]++;
+        if (cola[a] == capacidad) {
+            desbordes[a]++;
+            return;
+        }
+        int i = cabeza[a] + cola[a];
+        anillo[a * capacidad + (i >= capacidad ? i - capacidad : i)] = pasoActual;
+        if (++cola[a] > colaMaxima[a]) {
+            colaMaxima[a] = cola[a];
+        }
+    }
+
+    private void salir(int a) {
+        int base = a * capacidad;
+        int interseccion = a / ACCESOS_POR_INTERSECCION;
+        boolean haciaVecina = transito != null && a % ACCESOS_POR_INTERSECCION == 0
+                && interseccion + 1 < fase.length;
+        double c = credito[a] + salidasPorPaso;
+        while (c >= 1 && cola[a] > 0) {
+            esperaPasos[a] += pasoActual - anillo[base + cabeza[a]];
+            if (++cabeza[a] == capacidad) {
+                cabeza[a] = 0;
+            }
+            cola[a]--;
+            atendidos[a]++;
+            c -= 1;
+            if (haciaVecina) {
+                enviar(interseccion + 1, pasoActual + viajePasos[interseccion]);
+            }
+        }
+        credito[a] = Math.min(c, 1); // sin cola no se acumulan salidas para después
+    }
+
+    private void enviar(int destino, int llegaEnPaso) {
+        int base = destino * capacidadTransito;
+        int i = transitoCabeza[destino] + transitoCola[destino];
+        transito[base + (i >= capacidadTransito ? i - capacidadTransito : i)] = llegaEnPaso;
+        transitoCola[destino]++;
+    }
+
+    /** Entrega al acceso principal los vehículos del corredor que llegan en este paso. */
+    private void recibir(int interseccion, int a) {
+        int base = interseccion * capacidadTransito;
+        while (transitoCola[interseccion] > 0 && transito[base + transitoCabeza[interseccion]] <= pasoActual) {
+            if (++transitoCabeza[interseccion] == capacidadTransito) {
+                transitoCabeza[interseccion] = 0;
+            }
+            transitoCola[interseccion]--;
+            encolar(a);
+        }
+    }
+
+    /**
+     * Vehículo·pasos en cola hasta ahora (la integral de la cola en el tiempo): la espera de
+     * los que ya salieron más la de los que siguen en el anillo. Se calcula al pedir métricas
+     * para no sumar la cola de cada acceso en cada paso.
+     */
+    private long integralCola(int a) {
+        long total = esperaPasos[a];
+        int base = a * capacidad;
+        for (int k = 0, i = cabeza[a]; k < cola[a]; k++, i = i + 1 == capacidad ? 0 : i + 1) {
+            total += pasoActual - anillo[base + i] + 1;
+        }
+        return total;
+    }
+
+    /* ============================ Métricas ============================ */
+
+    public Metricas metricas(int acceso) {
+        return metricas(acceso, acceso + 1);
+    }
+
+    public Metricas metricasInterseccion(int interseccion) {
+        int a = interseccion * ACCESOS_POR_INTERSECCION;
+        return metricas(a, a + ACCESOS_POR_INTERSECCION);
+    }
+
+    public Metricas metricasTotales() {
+        return metricas(0, tasa.length);
+    }
+
+    private Metricas metricas(int desde, int hasta) {
+        long ll = 0;
+        long at = 0;
+        long de = 0;
+        long espera = 0;
+        long integral = 0;
+        int max = 0;
+        for (int a = desde; a < hasta; a++) {
+            ll += llegadas[a];
+            at += atendidos[a];
+            de += desbordes[a];
+            espera += esperaPasos[a];
+            integral += integralCola(a);
+            max = Math.max(max, colaMaxima[a]);
+        }
+        int accesos = hasta - desde;
+        double horas = tiempoMs / 3_600_000.0;
+        return new Metricas(ll, at, de,
+                horas > 0 ? at / horas / accesos : 0,
+                at > 0 ? espera * pasoS / at : 0,
+                pasoActual > 0 ? (double) integral / pasoActual / accesos : 0,
+                max);
+    }
+
+    public int colaActual(int acceso) {
+        return cola[acceso];
+    }
+
+    public Light luz(int interseccion) {
+        return planes[planDe[interseccion]].fase(fase[interseccion]).luz();
+    }
+
+    public int intersecciones() {
+        return fase.length;
+    }
+
+    public long getTiempoMs() {
+        return tiempoMs;
+    }
+
+    /**
+     * Demostración: {@code ModeloTrafico [intersecciones] [horas] [veh/h por acceso]}; compara
+     * el ciclo clásico con un verde más largo para el acceso principal.
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        double horas = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        double demanda = args.length > 2 ? Double.parseDouble(args[2]) : 500;
+        TrafficLightLogic logica = new TrafficLightLogic();
+        PlanFases[] planes = {
+                PlanFases.clasico(logica, 30_000, 25_000, 4_000),
+                PlanFases.clasico(logica, 25_000, 30_000, 4_000)
+        };
+        for (PlanFases plan : planes) {
+            ModeloTrafico modelo = uniforme(n, plan, 0, demanda, 42);
+            long t0 = System.nanoTime();
+            modelo.avanzar((long) (horas * 3_600_000));
+            double s = (System.nanoTime() - t0) / 1e9;
+            System.out.printf("rojo %d s / verde %d s: %s (%d accesos, %.2f s)%n",
+                    plan.duracion(0) / 1000, plan.duracion(1) / 1000,
+                    modelo.metricasTotales(), n * ACCESOS_POR_INTERSECCION, s);
+        }
+    }
+}
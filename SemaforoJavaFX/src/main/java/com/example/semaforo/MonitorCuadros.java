@@ -0,0 +1,132 @@
+package com.example.semaforo;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Métricas de cuadro de la escena, con una capa superpuesta opcional.
+ *
+ * Usa las escuchas de pulso de la escena: la diferencia entre la previa y la posterior al
+ * layout es el costo del layout del cuadro, y la distancia entre pulsos es el tiempo de
+ * cuadro. Ese intervalo incluye también la pasada de estilos, pero la escena no la expone:
+ * no se puede separar ni contar con la API pública, así que no se informa aparte. La raíz
+ * envuelta cuenta cuántas veces se vuelve a acomodar (pasadas de layout que llegan hasta la raíz). Medir es barato;
+ * el texto de la capa solo se arma dos veces por segundo y solo si está visible.
+ */
+public final class MonitorCuadros {
+
+    private static final long INTERVALO_NS = 500_000_000L;
+
+    private final HistogramaLatencia cuadro = new HistogramaLatencia();
+    private final HistogramaLatencia costoLayout = new HistogramaLatencia();
+    private final Label capa = new Label();
+    private final LongSupplier nodosTocados;
+    private final Raiz raiz;
+
+    private long pulsos;
+    private long inicioPulsoNs = -1;
+    private long ventanaNs = -1;
+    private long pulsosVentana;
+    private long layoutsVentana;
+    private long nodosVentana;
+
+    /** Raíz que cuenta sus pasadas de layout. */
+    private static final class Raiz extends StackPane {
+        private long layouts;
+
+        Raiz(Parent contenido) {
+            super(contenido);
+        }
+
+        @Override
+        protected void layoutChildren() {
+            layouts++;
+            super.layoutChildren();
+        }
+    }
+
+    public MonitorCuadros(Parent contenido, LongSupplier nodosTocados) {
+        this.nodosTocados = nodosTocados;
+        raiz = new Raiz(contenido);
+        capa.getStyleClass().add("frame-overlay");
+        capa.setMouseTransparent(true);
+        capa.setVisible(false);
+        capa.setManaged(false);
+        StackPane.setAlignment(capa, Pos.TOP_RIGHT);
+        StackPane.setMargin(capa, new Insets(8));
+        raiz.getChildren().add(capa);
+    }
+
+    /** Raíz que se le da a la escena (el contenido más la capa). */
+    public Parent getRaiz() {
+        return raiz;
+    }
+
+    public void instalar(Scene scene) {
+        scene.addPreLayoutPulseListener(this::antesDelLayout);
+        scene.addPostLayoutPulseListener(this::despuesDelLayout);
+    }
+
+    private void antesDelLayout() {
+        long ahora = System.nanoTime();
+        if (inicioPulsoNs >= 0) {
+            cuadro.registrar(ahora - inicioPulsoNs);
+        }
+        inicioPulsoNs = ahora;
+        pulsos++;
+    }
+
+    private void despuesDelLayout() {
+        long ahora = System.nanoTime();
+        costoLayout.registrar(ahora - inicioPulsoNs);
+        if (ventanaNs < 0) {
+            reiniciarVentana(ahora);
+        } else if (ahora - ventanaNs >= INTERVALO_NS) {
+            if (capa.isVisible()) {
+                double s = (ahora - ventanaNs) / 1e9;
+                capa.setText(String.format(
+                        "%.0f pulsos/s · cuadro p50 %.1f / p99 %.1f ms%nlayout p99 %.2f ms · layout raíz %.0f/s · nodos %.0f/s",
+                        (pulsos - pulsosVentana) / s, cuadro.percentil(0.5) / 1e6, cuadro.percentil(0.99) / 1e6,
+                        costoLayout.percentil(0.99) / 1e6, (raiz.layouts - layoutsVentana) / s,
+                        (nodosTocados.getAsLong() - nodosVentana) / s));
+            }
+            cuadro.reiniciar();
+            costoLayout.reiniciar();
+            reiniciarVentana(ahora);
+        }
+    }
+
+    private void reiniciarVentana(long ahora) {
+        ventanaNs = ahora;
+        pulsosVentana = pulsos;
+        layoutsVentana = raiz.layouts;
+        nodosVentana = nodosTocados.getAsLong();
+    }
+
+    public void setVisible(boolean visible) {
+        capa.setVisible(visible);
+        capa.setManaged(visible);
+    }
+
+    public long getPulsos() {
+        return pulsos;
+    }
+
+    public long getLayoutsRaiz() {
+        return raiz.layouts;
+    }
+
+    public HistogramaLatencia getCuadro() {
+        return cuadro;
+    }
+
+    public HistogramaLatencia getCostoLayout() {
+        return costoLayout;
+    }
+}
@@ -0,0 +1,626 @@
+package com.example.semaforo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de consultas hacia atrás (backward chaining) sobre la base de conocimiento, al
+ * estilo de Prolog: en lugar de "qué resultado tiene esta luz + acción" responde metas con
+ * variables, como {@code segura(yellow, A)} o {@code infraccion(L, cruzar)}.
+ *
+ * Hechos que se cargan de {@link LightRules} y {@link TrafficLightLogic}:
+ * <pre>
+ *   regla(Luz, Accion, Resultado, Descripcion)   siguiente(Luz, LuzSiguiente)
+ *   accion(Accion)                               luz(Luz)
+ * </pre>
+ * más los predicados derivados de {@link #PROGRAMA_BASE} y las cláusulas que se agreguen.
+ *
+ * <ul>
+ *   <li><b>Unificación</b>: los términos son constantes o variables ({@code "?x"}, como en
+ *       {@link ReteEngine}); las ligaduras se deshacen con un rastro al retroceder.</li>
+ *   <li><b>Índice por primer argumento</b>: con el primer argumento ligado solo se prueban
+ *       las cláusulas cuya cabeza tiene esa constante (o una variable) en esa posición.</li>
+ *   <li><b>Tablas</b> (memoización de submetas al estilo SLG): cada predicado con reglas
+ *       guarda las respuestas de cada variante de llamada. Una llamada recursiva a una tabla
+ *       en evaluación consume las respuestas que ya tiene y el líder de la componente
+ *       recursiva itera hasta que nadie agrega respuestas; así terminan la recursión por la
+ *       izquierda y los ciclos. Las consultas repetidas se responden desde la tabla.</li>
+ *   <li><b>Memoria acotada</b>: con más de {@code maxEntradas} (respuestas guardadas más una
+ *       por tabla) se desalojan las tablas completas usadas hace más tiempo; se vuelven a
+ *       calcular si se piden otra vez.</li>
+ * </ul>
+ * Las reglas deben ligar todas las variables de la cabeza (respuestas sin variables libres,
+ * como en Datalog). No es seguro para varios hilos.
+ */
+public final class MotorConsultas {
+
+    /** Meta o cabeza de cláusula: {@code predicado(arg, ...)}; los Strings que empiezan con "?" son variables. */
+    public record Meta(String predicado, List<Object> argumentos) {
+
+        public Meta {
+            argumentos = List.copyOf(argumentos);
+        }
+
+        public static Meta de(String predicado, Object... argumentos) {
+            return new Meta(predicado, List.of(argumentos));
+        }
+
+        @Override
+        public String toString() {
+            return argumentos.isEmpty() ? predicado : predicado + argumentos.stream()
+                    .map(MotorConsultas::texto).collect(Collectors.joining(", ", "(", ")"));
+        }
+    }
+
+    /** {@code cabeza :- cuerpo.}; con el cuerpo vacío es un hecho. */
+    public record Clausula(Meta cabeza, List<Meta> cuerpo) {
+
+        public Clausula {
+            cuerpo = List.copyOf(cuerpo);
+        }
+    }
+
+    public record Estadisticas(long consultas, long llamadasTabladas, long aciertosTabla, long evaluaciones,
+                               long desalojos, int tablas, int entradas) {
+
+        @Override
+        public String toString() {
+            return String.format("%d consultas, %d llamadas a tablas (%d desde tablas completas), "
+                            + "%d evaluaciones, %d desalojos; %d tablas con %d entradas",
+                    consultas, llamadasTabladas, aciertosTabla, evaluaciones, desalojos, tablas, entradas);
+        }
+    }
+
+    /** Predicados derivados que se agregan a los hechos de {@link LightRules}. */
+    static final String PROGRAMA_BASE = """
+            % resultado(Luz, Accion, Resultado): la regla sin la descripción
+            resultado(L, A, R) :- regla(L, A, R, _).
+
+            aceptable("Correcto").
+            aceptable("Seguro").
+            aceptable("Permitido").
+
+            segura(L, A) :- resultado(L, A, R), aceptable(R).
+            infraccion(L, A) :- resultado(L, A, "Infracción").
+
+            % alcanza(L1, L2): desde L1 se llega a L2 en uno o más cambios. Es recursiva por la
+            % izquierda y el ciclo de luces se cierra: sin tablas no terminaría.
+            alcanza(L1, L2) :- siguiente(L1, L2).
+            alcanza(L1, L3) :- alcanza(L1, L2), siguiente(L2, L3).
+
+            % segura_luego(L, A): A es segura con alguna luz que llega después de L
+            segura_luego(L, A) :- alcanza(L, L2), segura(L2, A).
+            """;
+
+    public static final int MAX_ENTRADAS_BASE = 10_000;
+
+    private record Firma(String nombre, int aridad) {
+        @Override
+        public String toString() {
+            return nombre + "/" + aridad;
+        }
+    }
+
+    /** Variable en uso; {@code valor == null} mientras está libre. */
+    private static final class Var {
+        Object valor;
+    }
+
+    /** Posición de una variable en el marco de su cláusula. */
+    private record Ranura(int indice) {}
+
+    /** Variable de una variante de llamada, numerada por orden de aparición. */
+    private record Libre(int numero) {}
+
+    private record Variante(Firma firma, List<Object> argumentos) {}
+
+    private static final class MetaCompilada {
+        final Firma firma;
+        final Object[] argumentos; // constantes o Ranura
+
+        MetaCompilada(Firma firma, Object[] argumentos) {
+            this.firma = firma;
+            this.argumentos = argumentos;
+        }
+    }
+
+    private static final class ClausulaCompilada {
+        final Object[] cabeza;
+        final MetaCompilada[] cuerpo;
+        final int variables;
+
+        ClausulaCompilada(Object[] cabeza, MetaCompilada[] cuerpo, int variables) {
+            this.cabeza = cabeza;
+            this.cuerpo = cuerpo;
+            this.variables = variables;
+        }
+    }
+
+    private static final class Procedimiento {
+        final Firma firma;
+        final List<ClausulaCompilada> todas = new ArrayList<>();
+        final Map<Object, List<ClausulaCompilada>> porPrimerArgumento = new HashMap<>();
+        final List<ClausulaCompilada> primerArgumentoLibre = new ArrayList<>();
+        /** Tiene reglas: se memoiza. Los procedimientos de solo hechos se consultan directo. */
+        boolean tablado;
+
+        Procedimiento(Firma firma) {
+            this.firma = firma;
+        }
+    }
+
+    private enum EstadoTabla { NUEVA, EVALUANDO, INCOMPLETA, COMPLETA }
+
+    private static final class Tabla {
+        final Variante variante;
+        final List<Object[]> respuestas = new ArrayList<>();
+        final Set<List<Object>> vistas = new HashSet<>();
+        EstadoTabla estado = EstadoTabla.NUEVA;
+        int profundidad;
+        /** Profundidad de la tabla en evaluación más antigua de la que dependió. */
+        int minimo;
+
+        Tabla(Variante variante) {
+            this.variante = variante;
+        }
+    }
+
+    private final Map<Firma, Procedimiento> procedimientos = new HashMap<>();
+    // Orden de acceso: al recorrerla, primero las tablas usadas hace más tiempo
+    private final LinkedHashMap<Variante, Tabla> tablas = new LinkedHashMap<>(64, 0.75f, true);
+    private final int maxEntradas;
+    private final List<Var> rastro = new ArrayList<>();
+    private final List<Tabla> pila = new ArrayList<>();
+    private final List<Tabla> incompletas = new ArrayList<>();
+    private int entradas;
+    private long respuestasNuevas;
+
+    private long consultas;
+    private long llamadasTabladas;
+    private long aciertosTabla;
+    private long evaluaciones;
+    private long desalojos;
+
+    public MotorConsultas(LightRules lightRules) {
+        this(lightRules, List.of(), MAX_ENTRADAS_BASE);
+    }
+
+    public MotorConsultas(LightRules lightRules, List<Clausula> adicionales, int maxEntradas) {
+        if (maxEntradas <= 0) {
+            throw new IllegalArgumentException("El máximo de entradas debe ser positivo");
+        }
+        this.maxEntradas = maxEntradas;
+        TrafficLightLogic logica = new TrafficLightLogic();
+        for (Light luz : Light.values()) {
+            agregar(new Clausula(Meta.de("luz", luz), List.of()));
+            agregar(new Clausula(Meta.de("siguiente", luz, logica.nextState(luz)), List.of()));
+        }
+        for (String accion : lightRules.getAcciones()) {
+            agregar(new Clausula(Meta.de("accion", accion), List.of()));
+        }
+        for (LightRules.Regla r : lightRules.getReglas()) {
+            // Solo las reglas que evaluarAccion aplica: si dos comparten luz y acción gana la primera
+            if (lightRules.evaluarAccion(r.luz(), r.accion()) == r) {
+                agregar(new Clausula(Meta.de("regla", r.luz(), r.accion(), r.resultado(), r.descripcion()), List.of()));
+            }
+        }
+        ReglasArchivo.parsearClausulas(PROGRAMA_BASE).forEach(this::agregar);
+        adicionales.forEach(this::agregar);
+    }
+
+    /* ============================ Compilación ============================ */
+
+    private void agregar(Clausula clausula) {
+        Map<String, Integer> ranuras = new HashMap<>();
+        Object[] cabeza = compilar(clausula.cabeza().argumentos(), ranuras);
+        MetaCompilada[] cuerpo = new MetaCompilada[clausula.cuerpo().size()];
+        for (int i = 0; i < cuerpo.length; i++) {
+            Meta meta = clausula.cuerpo().get(i);
+            cuerpo[i] = new MetaCompilada(firma(meta), compilar(meta.argumentos(), ranuras));
+        }
+        ClausulaCompilada compilada = new ClausulaCompilada(cabeza, cuerpo, ranuras.size());
+
+        Procedimiento p = procedimientos.computeIfAbsent(firma(clausula.cabeza()), Procedimiento::new);
+        p.todas.add(compilada);
+        if (cabeza.length == 0 || cabeza[0] instanceof Ranura) {
+            p.primerArgumentoLibre.add(compilada);
+        } else {
+            p.porPrimerArgumento.computeIfAbsent(cabeza[0], k -> new ArrayList<>()).add(compilada);
+        }
+        p.tablado |= cuerpo.length > 0;
+    }
+
+    private static Firma firma(Meta meta) {
+        return new Firma(meta.predicado(), meta.argumentos().size());
+    }
+
+    private static Object[] compilar(List<Object> argumentos, Map<String, Integer> ranuras) {
+        Object[] out = new Object[argumentos.size()];
+        for (int i = 0; i < out.length; i++) {
+            Object a = argumentos.get(i);
+            out[i] = ReteEngine.esVariable(a)
+                    ? new Ranura(ranuras.computeIfAbsent((String) a, k -> ranuras.size()))
+                    : a;
+        }
+        return out;
+    }
+
+    /* ============================ Consultas ============================ */
+
+    /** Consulta escrita como en el archivo de reglas, p. ej. {@code "infraccion(L, cruzar)"}. */
+    public List<Map<String, Object>> consultar(String consulta) {
+        return consultar(ReglasArchivo.parsearMeta(consulta));
+    }
+
+    /**
+     * Devuelve las soluciones distintas de la meta: cada una liga el nombre de cada variable
+     * (sin el "?"; las que empiezan con "_" se omiten) a su valor. Una meta sin variables que
+     * se cumple da una única solución vacía; si no se cumple, ninguna.
+     */
+    public List<Map<String, Object>> consultar(Meta meta) {
+        consultas++;
+        Map<String, Integer> ranuras = new LinkedHashMap<>();
+        Object[] compilados = compilar(meta.argumentos(), ranuras);
+        Var[] marco = nuevoMarco(ranuras.size());
+        Object[] argumentos = instanciar(compilados, marco);
+        Set<Map<String, Object>> soluciones = new LinkedHashSet<>();
+        try {
+            llamar(firma(meta), argumentos, () -> {
+                Map<String, Object> solucion = new LinkedHashMap<>();
+                ranuras.forEach((nombre, i) -> {
+                    if (!nombre.startsWith("?_")) {
+                        solucion.put(nombre.substring(1), valor(marco[i]));
+                    }
+                });
+                soluciones.add(solucion);
+            });
+        } catch (RuntimeException e) {
+            abandonar();
+            throw e;
+        }
+        desalojar();
+        return List.copyOf(soluciones);
+    }
+
+    private void llamar(Firma firma, Object[] argumentos, Runnable exito) {
+        Procedimiento p = procedimientos.get(firma);
+        if (p == null) {
+            throw new IllegalArgumentException("Predicado desconocido: " + firma);
+        }
+        if (p.tablado) {
+            llamarTablado(p, argumentos, exito);
+        } else {
+            resolverClausulas(p, argumentos, exito);
+        }
+    }
+
+    private void resolverClausulas(Procedimiento p, Object[] argumentos, Runnable exito) {
+        Object primero = argumentos.length > 0 ? valor(argumentos[0]) : null;
+        if (primero == null || primero instanceof Var) {
+            probar(p.todas, argumentos, exito);
+        } else {
+            probar(p.porPrimerArgumento.getOrDefault(primero, List.of()), argumentos, exito);
+            probar(p.primerArgumentoLibre, argumentos, exito);
+        }
+    }
+
+    private void probar(List<ClausulaCompilada> clausulas, Object[] argumentos, Runnable exito) {
+        for (ClausulaCompilada c : clausulas) {
+            int marca = rastro.size();
+            Var[] marco = nuevoMarco(c.variables);
+            if (unificarCabeza(c.cabeza, marco, argumentos)) {
+                resolverCuerpo(c.cuerpo, 0, marco, exito);
+            }
+            deshacer(marca);
+        }
+    }
+
+    private void resolverCuerpo(MetaCompilada[] cuerpo, int i, Var[] marco, Runnable exito) {
+        if (i == cuerpo.length) {
+            exito.run();
+            return;
+        }
+        MetaCompilada meta = cuerpo[i];
+        llamar(meta.firma, instanciar(meta.argumentos, marco), () -> resolverCuerpo(cuerpo, i + 1, marco, exito));
+    }
+
+    /* ============================ Tablas ============================ */
+
+    private void llamarTablado(Procedimiento p, Object[] argumentos, Runnable exito) {
+        llamadasTabladas++;
+        Variante variante = variante(p.firma, argumentos);
+        Tabla t = tablas.get(variante);
+        if (t == null) {
+            t = new Tabla(variante);
+            tablas.put(variante, t);
+            entradas++;
+        }
+        switch (t.estado) {
+            case COMPLETA -> aciertosTabla++;
+            case EVALUANDO -> {
+                // Llamada recursiva: consume lo que hay; quien la llamó depende de esa tabla
+                Tabla actual = pila.get(pila.size() - 1);
+                actual.minimo = Math.min(actual.minimo, t.profundidad);
+            }
+            case NUEVA, INCOMPLETA -> evaluar(p, t);
+        }
+        // La tabla puede crecer mientras se consume: el tamaño se vuelve a leer en cada vuelta
+        List<Object[]> respuestas = t.respuestas;
+        for (int i = 0; i < respuestas.size(); i++) {
+            Object[] respuesta = respuestas.get(i);
+            int marca = rastro.size();
+            boolean unifica = true;
+            for (int k = 0; k < respuesta.length && unifica; k++) {
+                unifica = unificar(argumentos[k], respuesta[k]);
+            }
+            if (unifica) {
+                exito.run();
+            }
+            deshacer(marca);
+        }
+    }
+
+    /**
+     * Resuelve las cláusulas contra la variante hasta que una pasada completa no agrega
+     * respuestas en ninguna tabla. Si la tabla dependió de otra que sigue en evaluación más
+     * abajo en la pila queda incompleta y la completa ese líder.
+     */
+    private void evaluar(Procedimiento p, Tabla t) {
+        evaluaciones++;
+        t.estado = EstadoTabla.EVALUANDO;
+        t.profundidad = pila.size();
+        t.minimo = t.profundidad;
+        int desde = incompletas.size();
+        pila.add(t);
+
+        Object[] patron = patron(t.variante);
+        long antes;
+        do {
+            antes = respuestasNuevas;
+            resolverClausulas(p, patron, () -> agregarRespuesta(t, patron));
+        } while (respuestasNuevas != antes);
+
+        pila.remove(pila.size() - 1);
+        if (t.minimo >= t.profundidad) {
+            t.estado = EstadoTabla.COMPLETA;
+            List<Tabla> dependientes = incompletas.subList(desde, incompletas.size());
+            dependientes.forEach(d -> d.estado = EstadoTabla.COMPLETA);
+            dependientes.clear();
+        } else {
+            t.estado = EstadoTabla.INCOMPLETA;
+            incompletas.add(t);
+            Tabla llamador = pila.get(pila.size() - 1);
+            llamador.minimo = Math.min(llamador.minimo, t.minimo);
+        }
+    }
+
+    private void agregarRespuesta(Tabla t, Object[] patron) {
+        Object[] respuesta = new Object[patron.length];
+        for (int i = 0; i < respuesta.length; i++) {
+            respuesta[i] = valor(patron[i]);
+            if (respuesta[i] instanceof Var) {
+                throw new IllegalArgumentException("Una regla de " + t.variante.firma()
+                        + " deja libre el argumento " + (i + 1) + ": las reglas deben ligar todas las variables de la cabeza");
+            }
+        }
+        if (t.vistas.add(Arrays.asList(respuesta))) {
+            t.respuestas.add(respuesta);
+            respuestasNuevas++;
+            entradas++;
+        }
+    }
+
+    private static Variante variante(Firma firma, Object[] argumentos) {
+        Object[] canonicos = new Object[argumentos.length];
+        List<Var> libres = new ArrayList<>(2);
+        for (int i = 0; i < argumentos.length; i++) {
+            Object v = valor(argumentos[i]);
+            if (v instanceof Var var) {
+                int n = indicePorIdentidad(libres, var);
+                if (n < 0) {
+                    n = libres.size();
+                    libres.add(var);
+                }
+                canonicos[i] = new Libre(n);
+            } else {
+                canonicos[i] = v;
+            }
+        }
+        return new Variante(firma, Arrays.asList(canonicos));
+    }
+
+    /** Argumentos con variables nuevas donde la variante tiene posiciones libres. */
+    private static Object[] patron(Variante variante) {
+        List<Object> canonicos = variante.argumentos();
+        Object[] patron = new Object[canonicos.size()];
+        Var[] libres = new Var[patron.length];
+        for (int i = 0; i < patron.length; i++) {
+            Object c = canonicos.get(i);
+            if (c instanceof Libre l) {
+                if (libres[l.numero()] == null) {
+                    libres[l.numero()] = new Var();
+                }
+                patron[i] = libres[l.numero()];
+            } else {
+                patron[i] = c;
+            }
+        }
+        return patron;
+    }
+
+    private static int indicePorIdentidad(List<Var> vars, Var v) {
+        for (int i = 0; i < vars.size(); i++) {
+            if (vars.get(i) == v) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Desaloja tablas completas, de la usada hace más tiempo a la más reciente, hasta entrar en el máximo. */
+    private void desalojar() {
+        Iterator<Tabla> it = tablas.values().iterator();
+        while (entradas > maxEntradas && it.hasNext()) {
+            Tabla t = it.next();
+            entradas -= 1 + t.respuestas.size();
+            it.remove();
+            desalojos++;
+        }
+    }
+
+    /** Tras un error a mitad de una consulta: descarta lo que no llegó a completarse. */
+    private void abandonar() {
+        deshacer(0);
+        pila.clear();
+        incompletas.clear();
+        Iterator<Tabla> it = tablas.values().iterator();
+        while (it.hasNext()) {
+            Tabla t = it.next();
+            if (t.estado != EstadoTabla.COMPLETA) {
+                entradas -= 1 + t.respuestas.size();
+                it.remove();
+            }
+        }
+    }
+
+    public void limpiarTablas() {
+        tablas.clear();
+        entradas = 0;
+    }
+
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(consultas, llamadasTabladas, aciertosTabla, evaluaciones, desalojos,
+                tablas.size(), entradas);
+    }
+
+    /* ============================ Unificación ============================ */
+
+    private static Var[] nuevoMarco(int variables) {
+        Var[] marco = new Var[variables];
+        for (int i = 0; i < variables; i++) {
+            marco[i] = new Var();
+        }
+        return marco;
+    }
+
+    private static Object[] instanciar(Object[] compilados, Var[] marco) {
+        Object[] out = new Object[compilados.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = compilados[i] instanceof Ranura r ? marco[r.indice()] : compilados[i];
+        }
+        return out;
+    }
+
+    private static Object valor(Object termino) {
+        while (termino instanceof Var v && v.valor != null) {
+            termino = v.valor;
+        }
+        return termino;
+    }
+
+    private boolean unificarCabeza(Object[] cabeza, Var[] marco, Object[] argumentos) {
+        for (int i = 0; i < cabeza.length; i++) {
+            Object h = cabeza[i] instanceof Ranura r ? marco[r.indice()] : cabeza[i];
+            if (!unificar(h, argumentos[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean unificar(Object a, Object b) {
+        a = valor(a);
+        b = valor(b);
+        if (a == b) {
+            return true;
+        }
+        if (a instanceof Var v) {
+            ligar(v, b);
+            return true;
+        }
+        if (b instanceof Var v) {
+            ligar(v, a);
+            return true;
+        }
+        return a.equals(b);
+    }
+
+    private void ligar(Var v, Object termino) {
+        v.valor = termino;
+        rastro.add(v);
+    }
+
+    private void deshacer(int marca) {
+        for (int i = rastro.size() - 1; i >= marca; i--) {
+            rastro.remove(i).valor = null;
+        }
+    }
+
+    /** Término como se escribe en el archivo de reglas. */
+    static String texto(Object termino) {
+        if (ReteEngine.esVariable(termino)) {
+            String nombre = ((String) termino).substring(1);
+            return nombre.matches("_\\d+") ? "_" : nombre;
+        }
+        if (termino instanceof Light luz) {
+            return luz.name().toLowerCase(Locale.ROOT);
+        }
+        String s = String.valueOf(termino);
+        boolean atomo = !s.isEmpty() && Character.isLowerCase(s.charAt(0))
+                && s.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '_');
+        return atomo ? s : '"' + s.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * {@code MotorConsultas ["segura(yellow, A)" ...]}: responde consultas sobre las reglas
+     * incorporadas (o las de {@code -Dsemaforo.reglas=archivo.pl}) más las cláusulas de
+     * {@code -Dsemaforo.clausulas=archivo.pl}. Sin argumentos corre unas de ejemplo.
+     */
+    public static void main(String[] args) throws IOException {
+        String rutaReglas = System.getProperty("semaforo.reglas");
+        LightRules reglas = rutaReglas == null || rutaReglas.isBlank()
+                ? new LightRules() : new LightRules(ReglasArchivo.cargar(Path.of(rutaReglas)));
+        String rutaClausulas = System.getProperty("semaforo.clausulas");
+        List<Clausula> adicionales = rutaClausulas == null || rutaClausulas.isBlank() ? List.of()
+                : ReglasArchivo.parsearClausulas(Files.readString(Path.of(rutaClausulas), StandardCharsets.UTF_8));
+        MotorConsultas motor = new MotorConsultas(reglas, adicionales, MAX_ENTRADAS_BASE);
+
+        List<String> consultas = args.length > 0 ? List.of(args)
+                : List.of("segura(yellow, A)", "infraccion(L, cruzar)", "alcanza(red, L)", "segura_luego(red, A)");
+        for (String consulta : consultas) {
+            Meta meta;
+            List<Map<String, Object>> soluciones;
+            try {
+                meta = ReglasArchivo.parsearMeta(consulta);
+                soluciones = motor.consultar(meta);
+            } catch (IllegalArgumentException e) {
+                System.out.println("?- " + consulta + "\n   error: " + e.getMessage());
+                continue;
+            }
+            System.out.println("?- " + meta + ".");
+            if (soluciones.isEmpty()) {
+                System.out.println("   no");
+            }
+            for (Map<String, Object> solucion : soluciones) {
+                System.out.println(solucion.isEmpty() ? "   sí" : solucion.entrySet().stream()
+                        .map(e -> e.getKey() + " = " + texto(e.getValue()))
+                        .collect(Collectors.joining(", ", "   ", "")));
+            }
+        }
+        System.out.println(motor.getEstadisticas());
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.semaforo;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Optimizador de onda verde para un corredor de intersecciones coordinadas.
+ *
+ * Busca un ciclo común, el verde de la arteria en cada intersección y los desfases que
+ * minimizan la demora total (simulando el corredor con {@link ModeloTrafico}) o maximizan el
+ * ancho de banda verde (cálculo directo sobre los intervalos de verde). Con la banda como
+ * objetivo los repartos no se tocan, porque la banda crece sin más quitándole verde a las
+ * calles transversales; solo se mueven el ciclo (escalando los verdes) y los desfases.
+ *
+ * La búsqueda es recocido simulado en paralelo: en cada época se lanzan varias cadenas sobre
+ * el pool fork/join común (una o más por núcleo) desde el mejor plan conocido, cada una evalúa
+ * sus vecinos con una simulación sin interfaz y al final de la época se queda el mejor.
+ * Todas las simulaciones usan la misma semilla, así las diferencias de costo vienen del plan
+ * y no del azar de las llegadas.
+ */
+public final class OptimizadorOndaVerde {
+
+    public enum Objetivo { DEMORA, BANDA }
+
+    /** Plan del corredor: ciclo común, verde de la arteria y desfase de cada intersección. */
+    public record PlanCorredor(long cicloMs, long[] verdeMs, long[] desfaseMs) {
+
+        public int intersecciones() {
+            return verdeMs.length;
+        }
+
+        /** Plan de fases de la intersección i, con la transición de {@link TrafficLightLogic}. */
+        public PlanFases plan(int i, TrafficLightLogic logica) {
+            return PlanFases.clasico(logica, cicloMs - verdeMs[i] - AMARILLO_MS, verdeMs[i], AMARILLO_MS);
+        }
+
+        @Override
+        public String toString() {
+            return "ciclo " + cicloMs / 1000 + " s, verdes " + Arrays.toString(Arrays.stream(verdeMs).map(v -> v / 1000).toArray())
+                    + ", desfases " + Arrays.toString(Arrays.stream(desfaseMs).map(d -> d / 1000).toArray());
+        }
+    }
+
+    public record Resultado(PlanCorredor plan, double costo, double demoraMediaS, long bandaMs,
+                            long evaluaciones, double segundos) {
+    }
+
+    public static final long AMARILLO_MS = 4_000;
+    private static final long CICLO_MIN_MS = 50_000;
+    private static final long CICLO_MAX_MS = 140_000;
+    private static final long VERDE_MIN_MS = 10_000;
+    private static final long ROJO_MIN_MS = 10_000;
+    private static final long GRANO_MS = 1_000;
+    private static final long PENALIDAD_DESBORDE_S = 120;
+
+    private final TrafficLightLogic logica = new TrafficLightLogic();
+    private final long[] viajeMs;
+    private final double[] demanda;
+    private final Objetivo objetivo;
+    private final long simulacionMs;
+    private final int pasoSimulacionMs;
+    private final long semilla;
+
+    /**
+     * @param viajeMs          tiempo de viaje entre intersecciones vecinas (n-1 valores)
+     * @param demandaPorHora   veh/h de cada acceso, índice = intersección * 2 + sentido
+     * @param objetivo         qué optimizar
+     * @param simulacionMs     tiempo simulado por evaluación (objetivo DEMORA)
+     */
+    public OptimizadorOndaVerde(long[] viajeMs, double[] demandaPorHora, Objetivo objetivo,
+                                long simulacionMs, long semilla) {
+        if (demandaPorHora.length != (viajeMs.length + 1) * ModeloTrafico.ACCESOS_POR_INTERSECCION) {
+            throw new IllegalArgumentException("La demanda no corresponde a " + (viajeMs.length + 1) + " intersecciones");
+        }
+        this.viajeMs = viajeMs.clone();
+        this.demanda = demandaPorHora.clone();
+        this.objetivo = objetivo;
+        this.simulacionMs = simulacionMs;
+        this.pasoSimulacionMs = 200;
+        this.semilla = semilla;
+    }
+
+    /** Corredor típico: vecinas a {@code viajeMs}, arteria cargada y calles transversales más livianas. */
+    public static OptimizadorOndaVerde arteria(int intersecciones, long viajeMs, double arteriaPorHora,
+                                               double transversalPorHora, Objetivo objetivo) {
+        long[] viajes = new long[intersecciones - 1];
+        Arrays.fill(viajes, viajeMs);
+        double[] demanda = new double[intersecciones * ModeloTrafico.ACCESOS_POR_INTERSECCION];
+        for (int i = 0; i < intersecciones; i++) {
+            // La arteria entra por la primera intersección; las demás solo suman giros hacia ella
+            demanda[i * 2] = i == 0 ? arteriaPorHora : arteriaPorHora * 0.1;
+            demanda[i * 2 + 1] = transversalPorHora;
+        }
+        return new OptimizadorOndaVerde(viajes, demanda, objetivo, 20 * 60_000, 7);
+    }
+
+    /* ============================ Costo ============================ */
+
+    /**
+     * Costo del plan: vehículo·segundos en cola (más desbordes) o, para {@link Objetivo#BANDA},
+     * menos el ancho de banda. Como la banda de todo el corredor es cero en casi todo el espacio
+     * de búsqueda, se suman las bandas entre vecinas para que la búsqueda tenga pendiente.
+     */
+    public double costo(PlanCorredor plan) {
+        if (objetivo == Objetivo.BANDA) {
+            long[] inicio = iniciosVerde(plan);
+            long vecinas = 0;
+            for (int i = 0; i + 1 < inicio.length; i++) {
+                vecinas += banda(plan, inicio, i, i + 2);
+            }
+            return -(banda(plan, inicio, 0, inicio.length) * (double) inicio.length + vecinas);
+        }
+        ModeloTrafico.Metricas m = simular(plan);
+        double accesos = demanda.length;
+        return m.colaMedia() * accesos * (simulacionMs / 1000.0) + m.desbordes() * PENALIDAD_DESBORDE_S;
+    }
+
+    public ModeloTrafico.Metricas simular(PlanCorredor plan) {
+        int n = plan.intersecciones();
+        PlanFases[] planes = new PlanFases[n];
+        for (int i = 0; i < n; i++) {
+            planes[i] = plan.plan(i, logica);
+        }
+        ModeloTrafico modelo = new ModeloTrafico(planes, plan.desfaseMs(), demanda, 1800, 80, pasoSimulacionMs, semilla);
+        modelo.encadenar(viajeMs);
+        modelo.avanzar(simulacionMs);
+        return modelo.metricasTotales();
+    }
+
+    /**
+     * Ancho (ms) de la banda verde en el sentido del corredor: el mayor intervalo de salidas
+     * desde la primera intersección que encuentra verde en todas al avanzar a la velocidad de viaje.
+     */
+    public long banda(PlanCorredor plan) {
+        return banda(plan, iniciosVerde(plan), 0, plan.intersecciones());
+    }
+
+    /** Inicio del verde de cada intersección, corrido por el viaje desde la primera (módulo ciclo). */
+    private long[] iniciosVerde(PlanCorredor plan) {
+        int n = plan.intersecciones();
+        long c = plan.cicloMs();
+        long[] inicio = new long[n];
+        long viaje = 0;
+        for (int i = 0; i < n; i++) {
+            long rojo = c - plan.verdeMs()[i] - AMARILLO_MS;
+            // En ModeloTrafico la intersección i está en el instante local t + desfase
+            inicio[i] = Math.floorMod(rojo - plan.desfaseMs()[i] - viaje, c);
+            if (i < n - 1) {
+                viaje += viajeMs[i];
+            }
+        }
+        return inicio;
+    }
+
+    /** Banda del tramo [desde, hasta): la mejor empieza en el inicio de verde de alguna intersección. */
+    private static long banda(PlanCorredor plan, long[] inicio, int desde, int hasta) {
+        long c = plan.cicloMs();
+        long mejor = 0;
+        for (int j = desde; j < hasta; j++) {
+            long ancho = Long.MAX_VALUE;
+            for (int i = desde; i < hasta && ancho > 0; i++) {
+                long x = Math.floorMod(inicio[j] - inicio[i], c);
+                ancho = Math.min(ancho, x < plan.verdeMs()[i] ? plan.verdeMs()[i] - x : 0);
+            }
+            mejor = Math.max(mejor, ancho);
+        }
+        return mejor;
+    }
+
+    /* ============================ Búsqueda ============================ */
+
+    /** Plan de partida: ciclo de 90 s, verde parejo y todos los desfases en cero (ajuste manual). */
+    public PlanCorredor planInicial() {
+        int n = viajeMs.length + 1;
+        long[] verde = new long[n];
+        Arrays.fill(verde, 43_000);
+        return new PlanCorredor(90_000, verde, new long[n]);
+    }
+
+    /**
+     * Optimiza durante a lo sumo {@code limiteMs} de tiempo real.
+     *
+     * @param cadenasPorNucleo cadenas de recocido por núcleo en cada época
+     * @param pasosPorEpoca    vecinos que evalúa cada cadena antes de compartir el mejor
+     */
+    public Resultado optimizar(long limiteMs, int cadenasPorNucleo, int pasosPorEpoca) {
+        long t0 = System.nanoTime();
+        long limite = t0 + limiteMs * 1_000_000L;
+        int cadenas = Math.max(1, Runtime.getRuntime().availableProcessors() * cadenasPorNucleo);
+        PlanCorredor mejor = planInicial();
+        double mejorCosto = costo(mejor);
+        double temperatura = Math.max(1, Math.abs(mejorCosto) * 0.05);
+        long evaluaciones = 1;
+        SplittableRandom semillas = new SplittableRandom(semilla);
+        while (System.nanoTime() < limite) {
+            PlanCorredor base = mejor;
+            double baseCosto = mejorCosto;
+            double t = temperatura;
+            long[] sem = semillas.longs(cadenas).toArray();
+            Candidato ganador = IntStream.range(0, cadenas).parallel()
+                    .mapToObj(k -> recocer(base, baseCosto, t, pasosPorEpoca, new SplittableRandom(sem[k]), limite))
+                    .reduce(OptimizadorOndaVerde::mejorDe)
+                    .orElseThrow();
+            evaluaciones += ganador.evaluaciones();
+            if (ganador.costo() < mejorCosto) {
+                mejor = ganador.plan();
+                mejorCosto = ganador.costo();
+            }
+            temperatura *= 0.85;
+        }
+        double segundos = (System.nanoTime() - t0) / 1e9;
+        double demora = objetivo == Objetivo.DEMORA ? simular(mejor).demoraMediaS() : Double.NaN;
+        return new Resultado(mejor, mejorCosto, demora, banda(mejor), evaluaciones, segundos);
+    }
+
+    /** Mejor plan de una o varias cadenas y cuántas evaluaciones costó encontrarlo. */
+    private record Candidato(PlanCorredor plan, double costo, long evaluaciones) {
+    }
+
+    private static Candidato mejorDe(Candidato a, Candidato b) {
+        Candidato m = a.costo() <= b.costo() ? a : b;
+        return new Candidato(m.plan(), m.costo(), a.evaluaciones() + b.evaluaciones());
+    }
+
+    /** Una cadena de recocido simulado; devuelve el mejor plan que vio. */
+    private Candidato recocer(PlanCorredor inicio, double costoInicio, double temperatura, int pasos,
+                              SplittableRandom r, long limite) {
+        PlanCorredor actual = inicio;
+        double costoActual = costoInicio;
+        PlanCorredor mejor = inicio;
+        double mejorCosto = costoInicio;
+        int p = 0;
+        for (; p < pasos && System.nanoTime() < limite; p++) {
+            PlanCorredor vecino = vecino(actual, r, objetivo == Objetivo.DEMORA);
+            double c = costo(vecino);
+            if (c <= costoActual || r.nextDouble() < Math.exp((costoActual - c) / temperatura)) {
+                actual = vecino;
+                costoActual = c;
+                if (c < mejorCosto) {
+                    mejor = vecino;
+                    mejorCosto = c;
+                }
+            }
+        }
+        return new Candidato(mejor, mejorCosto, p);
+    }
+
+    private static PlanCorredor vecino(PlanCorredor p, SplittableRandom r, boolean cambiaRepartos) {
+        long ciclo = p.cicloMs();
+        long[] verde = p.verdeMs().clone();
+        long[] desfase = p.desfaseMs().clone();
+        int n = verde.length;
+        int i = r.nextInt(n);
+        int movida = r.nextInt(10);
+        if (!cambiaRepartos && movida >= 1 && movida <= 3) {
+            movida = 9;
+        }
+        switch (movida) {
+            case 0 -> {
+                // Ciclo: los verdes se escalan para conservar el reparto
+                long nuevo = Math.clamp(ciclo + (r.nextInt(11) - 5) * GRANO_MS, CICLO_MIN_MS, CICLO_MAX_MS);
+                for (int k = 0; k < n; k++) {
+                    verde[k] = redondear((double) verde[k] * (nuevo - AMARILLO_MS) / (ciclo - AMARILLO_MS));
+                    verde[k] = Math.clamp(verde[k], VERDE_MIN_MS, nuevo - AMARILLO_MS - ROJO_MIN_MS);
+                    desfase[k] = Math.floorMod(desfase[k], nuevo);
+                }
+                ciclo = nuevo;
+            }
+            case 1, 2, 3 -> verde[i] = Math.clamp(verde[i] + (r.nextInt(9) - 4) * GRANO_MS,
+                    VERDE_MIN_MS, ciclo - AMARILLO_MS - ROJO_MIN_MS);
+            case 4 -> {
+                // Desplaza un tramo completo del corredor: mantiene la coordinación aguas abajo
+                long d = (r.nextInt(21) - 10) * GRANO_MS;
+                for (int k = i; k < n; k++) {
+                    desfase[k] = Math.floorMod(desfase[k] + d, ciclo);
+                }
+            }
+            default -> desfase[i] = Math.floorMod(desfase[i] + redondear(r.nextGaussian() * ciclo / 8), ciclo);
+        }
+        return new PlanCorredor(ciclo, verde, desfase);
+    }
+
+    private static long redondear(double ms) {
+        return Math.round(ms / GRANO_MS) * GRANO_MS;
+    }
+
+    /**
+     * Demostración: {@code OptimizadorOndaVerde [intersecciones] [segundos] [demora|banda]}.
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        long segundos = args.length > 1 ? Long.parseLong(args[1]) : 55;
+        Objetivo objetivo = args.length > 2 ? Objetivo.valueOf(args[2].toUpperCase()) : Objetivo.DEMORA;
+        OptimizadorOndaVerde opt = arteria(n, 30_000, 700, 250, objetivo);
+        PlanCorredor inicial = opt.planInicial();
+        System.out.printf("Inicial: costo %.0f, banda %d s%n", opt.costo(inicial), opt.banda(inicial) / 1000);
+        if (objetivo == Objetivo.DEMORA) {
+            System.out.println("  " + opt.simular(inicial));
+        }
+        Resultado r = opt.optimizar(segundos * 1000, 2, 25);
+        System.out.printf("Óptimo (%d evaluaciones en %.1f s, %d núcleos): costo %.0f, banda %d s%n",
+                r.evaluaciones(), r.segundos(), Runtime.getRuntime().availableProcessors(), r.costo(), r.bandaMs() / 1000);
+        if (objetivo == Objetivo.DEMORA) {
+            System.out.println("  " + opt.simular(r.plan()));
+        }
+        System.out.println("  " + r.plan());
+    }
+}
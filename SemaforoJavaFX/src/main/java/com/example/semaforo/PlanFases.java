@@ -0,0 +1,308 @@
+package com.example.semaforo;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan de fases tabulado: fases con duración propia y una tabla de transiciones, para
+ * intersecciones reales (fases peatonales, intermitentes, giros protegidos, todo-rojo...).
+ *
+ * Transiciones y duraciones viven en arreglos primitivos. Al construir el plan se recorre
+ * una sola vez desde la fase inicial y se separa en un tramo de arranque (transitorio) y el
+ * ciclo que se repite, con sus tiempos acumulados. Con eso:
+ * <ul>
+ *   <li>{@link #faseEn(long)} resuelve el instante t con aritmética de ciclo
+ *       ({@code t mod duración del ciclo}) y una búsqueda binaria sobre las fases del ciclo:
+ *       no depende de t.</li>
+ *   <li>{@link #avanzar(int, long)} salta k transiciones con {@code (posición + k) mod largo}
+ *       desde cualquier fase, también las que desembocan en otro ciclo: no depende de k.</li>
+ * </ul>
+ * Así una simulación larga nunca tiene que recorrer fase por fase.
+ */
+public final class PlanFases {
+
+    public record Fase(String nombre, Light luz, long duracionMs, boolean intermitente, boolean peatonal) {
+
+        public Fase(String nombre, Light luz, long duracionMs) {
+            this(nombre, luz, duracionMs, false, false);
+        }
+    }
+
+    private final Fase[] fases;
+    private final int[] siguiente;
+    private final long[] duracion;
+    private final int inicial;
+
+    // Recorrido desde la fase inicial: orden[0..transitorio) es el arranque y
+    // orden[transitorio..transitorio+largoCiclo) el ciclo. inicio[i] = instante en que empieza orden[i].
+    private final int[] orden;
+    private final long[] inicio;
+    private final int transitorio;
+    private final int largoCiclo;
+    private final long duracionTransitorio;
+    private final long duracionCiclo;
+
+    // Para saltar desde cualquier fase, sea cual sea el ciclo en el que termina: los ciclos del
+    // grafo quedan uno tras otro en ciclos[], y cada fase sabe cuántos pasos le faltan para
+    // entrar al suyo, dónde empieza ese ciclo en ciclos[], cuánto mide y en qué posición entra.
+    private final int[] ciclos;
+    private final int[] distanciaCiclo;
+    private final int[] baseCiclo;
+    private final int[] largoDeCiclo;
+    private final int[] entradaCiclo;
+
+    /**
+     * @param fases     fases del plan (índice = id de fase)
+     * @param siguiente siguiente[i] = fase que sigue a la fase i
+     * @param inicial   fase con la que arranca el plan
+     */
+    public PlanFases(List<Fase> fases, int[] siguiente, int inicial) {
+        int p = fases.size();
+        if (p == 0 || siguiente.length != p || inicial < 0 || inicial >= p) {
+            throw new IllegalArgumentException("Plan de fases inválido");
+        }
+        this.fases = fases.toArray(Fase[]::new);
+        this.siguiente = siguiente.clone();
+        this.duracion = new long[p];
+        for (int i = 0; i < p; i++) {
+            if (this.siguiente[i] < 0 || this.siguiente[i] >= p) {
+                throw new IllegalArgumentException("Transición fuera de rango en la fase " + i);
+            }
+            if (this.fases[i].duracionMs() <= 0) {
+                throw new IllegalArgumentException("La fase " + this.fases[i].nombre() + " debe durar más de 0 ms");
+            }
+            duracion[i] = this.fases[i].duracionMs();
+        }
+        this.inicial = inicial;
+
+        // Recorrido desde la inicial hasta repetir una fase (a lo sumo p pasos)
+        int[] visita = new int[p];
+        Arrays.fill(visita, -1);
+        int[] recorrido = new int[p];
+        int n = 0;
+        int f = inicial;
+        while (visita[f] < 0) {
+            visita[f] = n;
+            recorrido[n++] = f;
+            f = this.siguiente[f];
+        }
+        transitorio = visita[f];
+        largoCiclo = n - transitorio;
+        orden = Arrays.copyOf(recorrido, n);
+        inicio = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            inicio[i + 1] = inicio[i] + duracion[orden[i]];
+        }
+        duracionTransitorio = inicio[transitorio];
+        duracionCiclo = inicio[n] - duracionTransitorio;
+
+        // Distancias al ciclo para todas las fases, con un solo recorrido de cada una (O(p)):
+        // se camina desde cada fase no vista hasta tocar una ya resuelta o cerrar un ciclo nuevo,
+        // y el camino se resuelve de atrás hacia adelante.
+        ciclos = new int[p];
+        distanciaCiclo = new int[p];
+        baseCiclo = new int[p];
+        largoDeCiclo = new int[p];
+        entradaCiclo = new int[p];
+        int[] enCamino = new int[p];  // posición en el camino actual + 1; 0 = fuera del camino
+        boolean[] resuelta = new boolean[p];
+        int[] camino = new int[p];
+        int llenos = 0;
+        for (int i = 0; i < p; i++) {
+            int largo = 0;
+            int g = i;
+            while (!resuelta[g] && enCamino[g] == 0) {
+                enCamino[g] = largo + 1;
+                camino[largo++] = g;
+                g = this.siguiente[g];
+            }
+            int fin = largo;
+            if (!resuelta[g]) {
+                // Ciclo nuevo: camino[desde..largo)
+                int desde = enCamino[g] - 1;
+                for (int j = desde; j < largo; j++) {
+                    int c = camino[j];
+                    ciclos[llenos + j - desde] = c;
+                    baseCiclo[c] = llenos;
+                    largoDeCiclo[c] = largo - desde;
+                    entradaCiclo[c] = j - desde;
+                    resuelta[c] = true;
+                }
+                llenos += largo - desde;
+                fin = desde;
+            }
+            for (int j = fin - 1; j >= 0; j--) {
+                int c = camino[j];
+                int sig = this.siguiente[c];
+                distanciaCiclo[c] = distanciaCiclo[sig] + 1;
+                baseCiclo[c] = baseCiclo[sig];
+                largoDeCiclo[c] = largoDeCiclo[sig];
+                entradaCiclo[c] = entradaCiclo[sig];
+                resuelta[c] = true;
+            }
+            for (int j = 0; j < largo; j++) {
+                enCamino[camino[j]] = 0;
+            }
+        }
+    }
+
+    /** Ciclo simple: cada fase pasa a la siguiente de la lista y la última vuelve a la primera. */
+    public static PlanFases ciclo(List<Fase> fases) {
+        int[] sig = new int[fases.size()];
+        for (int i = 0; i < sig.length; i++) {
+            sig[i] = (i + 1) % sig.length;
+        }
+        return new PlanFases(fases, sig, 0);
+    }
+
+    /** Plan clásico de tres luces con la transición de {@link TrafficLightLogic#nextState(Light)}. */
+    public static PlanFases clasico(TrafficLightLogic logica, Map<Light, Long> duracionMs) {
+        Light[] luces = Light.values();
+        List<Fase> fases = Arrays.stream(luces)
+                .map(l -> new Fase(l.name(), l, duracionMs.get(l)))
+                .toList();
+        int[] sig = new int[luces.length];
+        for (Light l : luces) {
+            sig[l.ordinal()] = logica.nextState(l).ordinal();
+        }
+        return new PlanFases(fases, sig, Light.RED.ordinal());
+    }
+
+    public static PlanFases clasico(TrafficLightLogic logica, long rojoMs, long verdeMs, long amarilloMs) {
+        Map<Light, Long> d = new EnumMap<>(Light.class);
+        d.put(Light.RED, rojoMs);
+        d.put(Light.GREEN, verdeMs);
+        d.put(Light.YELLOW, amarilloMs);
+        return clasico(logica, d);
+    }
+
+    /**
+     * Ejemplo de intersección real: arranque en amarillo intermitente y todo-rojo, luego un
+     * ciclo con giro protegido, verde general, amarillo, todo-rojo y fase peatonal.
+     */
+    public static PlanFases interseccionCompleta() {
+        List<Fase> fases = List.of(
+                new Fase("arranque intermitente", Light.YELLOW, 5_000, true, false),
+                new Fase("todo rojo inicial", Light.RED, 2_000),
+                new Fase("giro protegido", Light.GREEN, 10_000),
+                new Fase("verde general", Light.GREEN, 25_000),
+                new Fase("amarillo", Light.YELLOW, 4_000),
+                new Fase("todo rojo", Light.RED, 2_000),
+                new Fase("peatonal", Light.RED, 15_000, false, true));
+        return new PlanFases(fases, new int[]{1, 2, 3, 4, 5, 6, 2}, 0);
+    }
+
+    /* ============================ Consultas ============================ */
+
+    /** Fase activa a {@code t} ms del arranque del plan (t ≥ 0). */
+    public int faseEn(long t) {
+        return orden[indiceRecorridoEn(t)];
+    }
+
+    public Fase estadoEn(long t) {
+        return fases[faseEn(t)];
+    }
+
+    public Light luzEn(long t) {
+        return fases[faseEn(t)].luz();
+    }
+
+    /** Instante (ms desde el arranque) del próximo cambio de fase después de {@code t}. */
+    public long proximoCambio(long t) {
+        int i = indiceRecorridoEn(t);
+        if (i < transitorio) {
+            return inicio[i + 1];
+        }
+        long vueltas = (t - duracionTransitorio) / duracionCiclo;
+        return duracionTransitorio + vueltas * duracionCiclo + (inicio[i + 1] - duracionTransitorio);
+    }
+
+    /**
+     * Fase a la que se llega desde {@code fase} tras {@code k} transiciones: a lo sumo
+     * {@link #cantidadFases()} pasos hasta entrar al ciclo y luego aritmética de ciclo.
+     */
+    public int avanzar(int fase, long k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k debe ser ≥ 0");
+        }
+        int d = distanciaCiclo[fase];
+        if (k < d) {
+            int f = fase;
+            for (int i = 0; i < k; i++) {
+                f = siguiente[f];
+            }
+            return f;
+        }
+        int largo = largoDeCiclo[fase];
+        int pos = (int) ((entradaCiclo[fase] + (k - d) % largo) % largo);
+        return ciclos[baseCiclo[fase] + pos];
+    }
+
+    /** Número de cambios de fase ocurridos hasta el instante {@code t}. */
+    public long cambiosHasta(long t) {
+        int i = indiceRecorridoEn(t);
+        if (i < transitorio) {
+            return i;
+        }
+        long vueltas = (t - duracionTransitorio) / duracionCiclo;
+        return transitorio + vueltas * largoCiclo + (i - transitorio);
+    }
+
+    private int indiceRecorridoEn(long t) {
+        if (t < 0) {
+            throw new IllegalArgumentException("t debe ser ≥ 0");
+        }
+        if (t < duracionTransitorio) {
+            return buscar(t, 0, transitorio);
+        }
+        long dentro = duracionTransitorio + (t - duracionTransitorio) % duracionCiclo;
+        return buscar(dentro, transitorio, transitorio + largoCiclo);
+    }
+
+    /** Mayor i en [desde, hasta) con inicio[i] ≤ t. */
+    private int buscar(long t, int desde, int hasta) {
+        int lo = desde;
+        int hi = hasta - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (inicio[mid] <= t) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /* ============================ Acceso ============================ */
+
+    public Fase fase(int id) {
+        return fases[id];
+    }
+
+    public int cantidadFases() {
+        return fases.length;
+    }
+
+    public int siguiente(int fase) {
+        return siguiente[fase];
+    }
+
+    public long duracion(int fase) {
+        return duracion[fase];
+    }
+
+    public int getInicial() {
+        return inicial;
+    }
+
+    public long getDuracionCiclo() {
+        return duracionCiclo;
+    }
+
+    public long getDuracionTransitorio() {
+        return duracionTransitorio;
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.semaforo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lectura de la base de conocimiento desde un archivo de texto estilo Prolog:
+ *
+ * <pre>
+ * % luz, acción, resultado, descripción
+ * regla(red, avanzar, "Infracción", "rojo + avanzar → Infracción").
+ * regla(yellow, cruzar, "Riesgo", "amarillo + cruzar → Riesgo alto").
+ * </pre>
+ *
+ * Cada hecho {@code regla/4} termina en punto; {@code %} inicia un comentario hasta el fin de
+ * línea. La luz es un nombre de {@link Light} (sin distinguir mayúsculas); los demás
+ * argumentos son átomos o cadenas entre comillas dobles.
+ *
+ * {@link #cargar(Path)} guarda junto al archivo una caché binaria ({@code .cache}) con las
+ * reglas ya analizadas, válida mientras no cambien el tamaño ni la fecha del archivo. Solo
+ * se consulta en frío; {@link #recargar(Path)} la reescribe sin mirarla.
+ */
+public final class ReglasArchivo {
+
+    private static final int MAGICO = 0x53524C31; // "SRL1"
+
+    private ReglasArchivo() {
+    }
+
+    /** Carga las reglas usando la caché si está vigente; si no, analiza el texto y la regenera. */
+    public static List<LightRules.Regla> cargar(Path archivo) throws IOException {
+        long tamano = Files.size(archivo);
+        long modificado = Files.getLastModifiedTime(archivo).toMillis();
+        List<LightRules.Regla> desdeCache = leerCache(rutaCache(archivo), tamano, modificado);
+        if (desdeCache != null) {
+            return desdeCache;
+        }
+        return analizarYGuardar(archivo, tamano, modificado);
+    }
+
+    /**
+     * Analiza siempre el texto y reescribe la caché. Para recargar tras un aviso de cambio: una
+     * edición que no cambia el tamaño dentro de la resolución de la fecha del sistema de archivos
+     * pasaría por vigente en {@link #cargar(Path)}.
+     */
+    public static List<LightRules.Regla> recargar(Path archivo) throws IOException {
+        // Los metadatos se toman antes de leer: si el archivo cambia entretanto, la caché queda
+        // con los viejos y el próximo arranque vuelve a analizar.
+        return analizarYGuardar(archivo, Files.size(archivo), Files.getLastModifiedTime(archivo).toMillis());
+    }
+
+    private static List<LightRules.Regla> analizarYGuardar(Path archivo, long tamano, long modificado)
+            throws IOException {
+        List<LightRules.Regla> reglas = parsear(Files.readString(archivo, StandardCharsets.UTF_8));
+        try {
+            escribirCache(rutaCache(archivo), tamano, modificado, reglas);
+        } catch (IOException ignored) {
+            // sin permiso de escritura: se vuelve a analizar en el próximo arranque
+        }
+        return reglas;
+    }
+
+    static Path rutaCache(Path archivo) {
+        return archivo.resolveSibling(archivo.getFileName() + ".cache");
+    }
+
+    /* ============================ Analizador ============================ */
+
+    public static List<LightRules.Regla> parsear(String texto) {
+        Lector l = new Lector(texto);
+        List<LightRules.Regla> reglas = new ArrayList<>();
+        while (l.saltarBlancos()) {
+            int linea = l.linea;
+            String functor = l.atomo();
+            if (!functor.equals("regla")) {
+                throw l.error("se esperaba 'regla', se encontró '" + functor + "'");
+            }
+            l.esperar('(');
+            String luzTexto = l.argumento();
+            Light luz;
+            try {
+                luz = Light.valueOf(luzTexto.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + linea + ": luz desconocida '" + luzTexto + "'");
+            }
+            l.esperar(',');
+            String accion = l.argumento();
+            l.esperar(',');
+            String resultado = l.argumento();
+            l.esperar(',');
+            String descripcion = l.argumento();
+            l.esperar(')');
+            l.esperar('.');
+            reglas.add(new LightRules.Regla(luz, accion, resultado, descripcion));
+        }
+        return reglas;
+    }
+
+    /**
+     * Analiza restricciones de tiempo del control actuado ({@link ReglasControl}):
+     * <pre>
+     * % luz de la vía principal, clave, milisegundos
+     * limite(green, minimo, 5000).
+     * limite(green, extension, 2000).
+     * </pre>
+     */
+    public static List<ReglasControl.Limite> parsearLimites(String texto) {
+        Lector l = new Lector(texto);
+        List<ReglasControl.Limite> limites = new ArrayList<>();
+        while (l.saltarBlancos()) {
+            int linea = l.linea;
+            String functor = l.atomo();
+            if (!functor.equals("limite")) {
+                throw l.error("se esperaba 'limite', se encontró '" + functor + "'");
+            }
+            l.esperar('(');
+            String luzTexto = l.argumento();
+            Light luz;
+            try {
+                luz = Light.valueOf(luzTexto.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + linea + ": luz desconocida '" + luzTexto + "'");
+            }
+            l.esperar(',');
+            String clave = l.argumento();
+            l.esperar(',');
+            String valorTexto = l.argumento();
+            long valor;
+            try {
+                valor = Long.parseLong(valorTexto);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Línea " + linea + ": se esperaban milisegundos, se encontró '"
+                        + valorTexto + "'");
+            }
+            l.esperar(')');
+            l.esperar('.');
+            limites.add(new ReglasControl.Limite(luz, clave, valor));
+        }
+        return limites;
+    }
+
+    /**
+     * Analiza cláusulas para {@link MotorConsultas}, hechos o reglas con cuerpo:
+     * <pre>
+     * segura(L, A) :- resultado(L, A, R), aceptable(R).
+     * aceptable("Correcto").
+     * </pre>
+     * Los átomos que empiezan con mayúscula o con {@code _} son variables ({@code _} sola es
+     * anónima); los nombres de {@link Light} son luces; los demás átomos y las cadenas, texto.
+     */
+    public static List<MotorConsultas.Clausula> parsearClausulas(String texto) {
+        Lector l = new Lector(texto);
+        List<MotorConsultas.Clausula> clausulas = new ArrayList<>();
+        while (l.saltarBlancos()) {
+            MotorConsultas.Meta cabeza = l.meta();
+            List<MotorConsultas.Meta> cuerpo = new ArrayList<>();
+            if (l.consumir(':')) {
+                l.esperar('-');
+                do {
+                    cuerpo.add(l.meta());
+                } while (l.consumir(','));
+            }
+            l.esperar('.');
+            clausulas.add(new MotorConsultas.Clausula(cabeza, cuerpo));
+        }
+        return clausulas;
+    }
+
+    /** Analiza una consulta como {@code segura(yellow, A)}; el punto final es opcional. */
+    public static MotorConsultas.Meta parsearMeta(String texto) {
+        Lector l = new Lector(texto);
+        MotorConsultas.Meta meta = l.meta();
+        l.consumir('.');
+        if (l.saltarBlancos()) {
+            throw l.error("sobra texto después de la consulta");
+        }
+        return meta;
+    }
+
+    private static final class Lector {
+        private final String s;
+        private int i;
+        private int linea = 1;
+        private int anonimas;
+
+        Lector(String s) {
+            this.s = s;
+        }
+
+        /** Salta espacios y comentarios; devuelve false al llegar al final. */
+        boolean saltarBlancos() {
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (c == '%') {
+                    while (i < s.length() && s.charAt(i) != '\n') {
+                        i++;
+                    }
+                } else if (Character.isWhitespace(c)) {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    i++;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void esperar(char c) {
+            saltarBlancos();
+            if (i >= s.length() || s.charAt(i) != c) {
+                throw error("se esperaba '" + c + "'");
+            }
+            i++;
+        }
+
+        boolean consumir(char c) {
+            if (saltarBlancos() && s.charAt(i) == c) {
+                i++;
+                return true;
+            }
+            return false;
+        }
+
+        MotorConsultas.Meta meta() {
+            String predicado = atomo();
+            if (!Character.isLowerCase(predicado.charAt(0))) {
+                throw error("el predicado '" + predicado + "' debe empezar con minúscula");
+            }
+            List<Object> argumentos = new ArrayList<>();
+            if (consumir('(')) {
+                do {
+                    argumentos.add(termino());
+                } while (consumir(','));
+                esperar(')');
+            }
+            return new MotorConsultas.Meta(predicado, argumentos);
+        }
+
+        /** Variable (como {@code "?Nombre"}), luz o texto. */
+        Object termino() {
+            saltarBlancos();
+            if (i < s.length() && s.charAt(i) == '"') {
+                return cadena();
+            }
+            String a = atomo();
+            if (a.equals("_")) {
+                return "?_" + anonimas++;
+            }
+            if (Character.isUpperCase(a.charAt(0)) || a.charAt(0) == '_') {
+                return "?" + a;
+            }
+            for (Light luz : Light.values()) {
+                if (luz.name().equalsIgnoreCase(a)) {
+                    return luz;
+                }
+            }
+            return a;
+        }
+
+        String argumento() {
+            saltarBlancos();
+            if (i < s.length() && s.charAt(i) == '"') {
+                return cadena();
+            }
+            return atomo();
+        }
+
+        String atomo() {
+            saltarBlancos();
+            int inicio = i;
+            while (i < s.length() && (Character.isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '_')) {
+                i++;
+            }
+            if (inicio == i) {
+                throw error("se esperaba un átomo");
+            }
+            return s.substring(inicio, i);
+        }
+
+        String cadena() {
+            StringBuilder sb = new StringBuilder();
+            i++; // comilla de apertura
+            while (i < s.length() && s.charAt(i) != '"') {
+                char c = s.charAt(i++);
+                if (c == '\\' && i < s.length()) {
+                    c = s.charAt(i++);
+                } else if (c == '\n') {
+                    linea++;
+                }
+                sb.append(c);
+            }
+            if (i >= s.length()) {
+                throw error("cadena sin cerrar");
+            }
+            i++; // comilla de cierre
+            return sb.toString();
+        }
+
+        IllegalArgumentException error(String mensaje) {
+            return new IllegalArgumentException("Línea " + linea + ": " + mensaje);
+        }
+    }
+
+    /* ============================ Caché binaria ============================ */
+
+    private static List<LightRules.Regla> leerCache(Path cache, long tamano, long modificado) {
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache)))) {
+            if (in.readInt() != MAGICO || in.readLong() != tamano || in.readLong() != modificado) {
+                return null;
+            }
+            int n = in.readInt();
+            Light[] luces = Light.values();
+            List<LightRules.Regla> reglas = new ArrayList<>(n);
+            for (int k = 0; k < n; k++) {
+                reglas.add(new LightRules.Regla(luces[in.readByte()], in.readUTF(), in.readUTF(), in.readUTF()));
+            }
+            return reglas;
+        } catch (IOException | RuntimeException e) {
+            return null; // caché corrupta o de otra versión: se ignora
+        }
+    }
+
+    private static void escribirCache(Path cache, long tamano, long modificado, List<LightRules.Regla> reglas)
+            throws IOException {
+        Path tmp = cache.resolveSibling(cache.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGICO);
+            out.writeLong(tamano);
+            out.writeLong(modificado);
+            out.writeInt(reglas.size());
+            for (LightRules.Regla r : reglas) {
+                out.writeByte(r.luz().ordinal());
+                out.writeUTF(r.accion());
+                out.writeUTF(r.resultado());
+                out.writeUTF(r.descripcion());
+            }
+        }
+        Files.move(tmp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.semaforo;
+
+import com.example.semaforo.ReteEngine.Patron;
+import com.example.semaforo.ReteEngine.Produccion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base de conocimiento para {@link ReteEngine}: traduce cada {@link LightRules.Regla}
+ * a una producción de dos condiciones y añade reglas con varias condiciones
+ * (peatón, vehículo de emergencia, franja horaria) cuyos hechos derivados se encadenan.
+ *
+ * Hechos que usa la aplicación:
+ * <pre>
+ *   (semaforo luz RED|GREEN|YELLOW)   (semaforo accion "avanzar"...)
+ *   (cruce peaton true|false)         (via emergencia true|false)
+ *   (reloj franja "dia"|"noche")
+ * </pre>
+ * Las acciones se comparan normalizadas con {@link IndiceAcciones#normalizar}, igual que en
+ * {@link LightRules}: quien afirme {@code (semaforo accion ...)} debe normalizar el valor.
+ */
+public final class ReglasCompuestas {
+
+    private ReglasCompuestas() {
+    }
+
+    public static List<Produccion> desde(LightRules lightRules) {
+        List<Produccion> out = new ArrayList<>();
+        for (LightRules.Regla r : lightRules.getReglas()) {
+            out.add(new Produccion(r.descripcion(),
+                    List.of(new Patron("semaforo", "luz", r.luz()),
+                            new Patron("semaforo", "accion", IndiceAcciones.normalizar(r.accion()))),
+                    List.of(new Patron("semaforo", "resultado", r.resultado()))));
+        }
+
+        out.add(new Produccion("rojo + peatón → paso peatonal habilitado",
+                List.of(new Patron("semaforo", "luz", Light.RED),
+                        new Patron("cruce", "peaton", true)),
+                List.of(new Patron("cruce", "paso", "habilitado"))));
+
+        out.add(new Produccion("emergencia en la vía → prioridad de emergencia",
+                List.of(new Patron("via", "emergencia", true),
+                        new Patron("semaforo", "luz", "?luz")),
+                List.of(new Patron("semaforo", "prioridad", "emergencia"))));
+
+        out.add(new Produccion("prioridad de emergencia + avanzar → ceder el paso",
+                List.of(new Patron("semaforo", "prioridad", "emergencia"),
+                        new Patron("semaforo", "accion", "avanzar")),
+                List.of(new Patron("semaforo", "recomendacion", "ceder el paso"))));
+
+        out.add(new Produccion("paso habilitado + infracción → riesgo de atropello",
+                List.of(new Patron("cruce", "paso", "habilitado"),
+                        new Patron("semaforo", "resultado", "Infracción")),
+                List.of(new Patron("semaforo", "riesgo", "atropello"))));
+
+        out.add(new Produccion("noche + amarillo → modo intermitente",
+                List.of(new Patron("reloj", "franja", "noche"),
+                        new Patron("semaforo", "luz", Light.YELLOW)),
+                List.of(new Patron("semaforo", "modo", "intermitente"))));
+
+        out.add(new Produccion("modo intermitente + cruzar → cruzar con precaución extrema",
+                List.of(new Patron("semaforo", "modo", "intermitente"),
+                        new Patron("semaforo", "accion", "cruzar")),
+                List.of(new Patron("semaforo", "recomendacion", "cruzar con precaución extrema"))));
+        return out;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.semaforo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Restricciones declarativas del control actuado, al estilo de {@link LightRules}: una lista
+ * de hechos {@code limite(luz, clave, ms)} que se compila a arreglos indexados por luz.
+ *
+ * La luz es la de la vía principal (en rojo tiene el verde la transversal). Claves:
+ * <ul>
+ *   <li>{@code minimo}: la fase no termina antes (en amarillo es la duración del despeje);</li>
+ *   <li>{@code extension}: brecha máxima entre detecciones de la vía servida para seguir
+ *       alargando la fase;</li>
+ *   <li>{@code maximo}: corte aunque sigan llegando vehículos, si hay demanda en conflicto;</li>
+ *   <li>{@code peatonal}: solo en rojo, duración mínima cuando un peatón llamó.</li>
+ * </ul>
+ */
+public final class ReglasControl {
+
+    public record Limite(Light luz, String clave, long valorMs) {}
+
+    static final List<Limite> LIMITES_BASE = List.of(
+            new Limite(Light.GREEN, "minimo", 5_000),
+            new Limite(Light.GREEN, "extension", 2_000),
+            new Limite(Light.GREEN, "maximo", 30_000),
+
+            new Limite(Light.YELLOW, "minimo", 3_000),
+
+            new Limite(Light.RED, "minimo", 4_000),
+            new Limite(Light.RED, "extension", 2_000),
+            new Limite(Light.RED, "maximo", 20_000),
+            new Limite(Light.RED, "peatonal", 8_000)
+    );
+
+    private final List<Limite> limites;
+    private final long[] minimoNs = new long[Light.values().length];
+    private final long[] extensionNs = new long[Light.values().length];
+    private final long[] maximoNs = new long[Light.values().length];
+    private final long peatonalNs;
+
+    public ReglasControl() {
+        this(LIMITES_BASE);
+    }
+
+    /** Compila los límites; si una clave se repite para la misma luz gana la última. */
+    public ReglasControl(List<Limite> limites) {
+        this.limites = List.copyOf(limites);
+        long peatonal = 0;
+        for (Limite limite : this.limites) {
+            if (limite.valorMs() < 0) {
+                throw new IllegalArgumentException("Límite negativo: " + limite);
+            }
+            int i = limite.luz().ordinal();
+            long ns = limite.valorMs() * 1_000_000L;
+            switch (limite.clave()) {
+                case "minimo" -> minimoNs[i] = ns;
+                case "extension" -> extensionNs[i] = ns;
+                case "maximo" -> maximoNs[i] = ns;
+                case "peatonal" -> {
+                    if (limite.luz() != Light.RED) {
+                        throw new IllegalArgumentException("El mínimo peatonal va en rojo: " + limite);
+                    }
+                    peatonal = ns;
+                }
+                default -> throw new IllegalArgumentException("Clave desconocida: " + limite);
+            }
+        }
+        peatonalNs = peatonal;
+        for (Light luz : Light.values()) {
+            int i = luz.ordinal();
+            if (minimoNs[i] <= 0) {
+                throw new IllegalArgumentException("Falta el mínimo de " + luz);
+            }
+            if (luz != Light.YELLOW && maximoNs[i] < minimoNs[i]) {
+                throw new IllegalArgumentException("El máximo de " + luz + " es menor que el mínimo");
+            }
+        }
+    }
+
+    public static ReglasControl cargar(Path archivo) throws IOException {
+        return new ReglasControl(ReglasArchivo.parsearLimites(Files.readString(archivo, StandardCharsets.UTF_8)));
+    }
+
+    public long minimoNs(Light luz) {
+        return minimoNs[luz.ordinal()];
+    }
+
+    public long extensionNs(Light luz) {
+        return extensionNs[luz.ordinal()];
+    }
+
+    public long maximoNs(Light luz) {
+        return maximoNs[luz.ordinal()];
+    }
+
+    public long peatonalNs() {
+        return peatonalNs;
+    }
+
+    public List<Limite> getLimites() {
+        return limites;
+    }
+}
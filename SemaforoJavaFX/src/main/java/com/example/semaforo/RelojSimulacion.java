@@ -0,0 +1,149 @@
+package com.example.semaforo;
+
+/**
+ * Reloj de simulación con motor de paso fijo, separado del tiempo de pared.
+ *
+ * El tiempo simulado avanza siempre en pasos de {@link #getPasoMs()} ms y cada paso llama a
+ * {@link Paso#paso(long, int)}; por eso una corrida sin interfaz con los mismos datos da
+ * siempre el mismo resultado, sin importar la máquina ni la carga.
+ *
+ * <ul>
+ *   <li>{@link Modo#PAUSADO}: el tiempo simulado no avanza.</li>
+ *   <li>{@link Modo#TIEMPO_REAL}: un segundo real = un segundo simulado.</li>
+ *   <li>{@link Modo#ESCALADO}: un segundo real = {@code escala} segundos simulados.</li>
+ *   <li>{@link Modo#MAXIMA_VELOCIDAD}: en cada {@link #actualizar(long)} corre tantos pasos
+ *       como quepan en {@link #PRESUPUESTO_NS} de tiempo real.</li>
+ * </ul>
+ *
+ * La interfaz llama a {@link #actualizar(long)} una vez por pulso (AnimationTimer); las corridas
+ * sin interfaz usan {@link #avanzar(long)} directamente.
+ */
+public final class RelojSimulacion {
+
+    public enum Modo { PAUSADO, TIEMPO_REAL, ESCALADO, MAXIMA_VELOCIDAD }
+
+    @FunctionalInterface
+    public interface Paso {
+        /** Se llama con el tiempo simulado al final del paso. */
+        void paso(long tiempoMs, int pasoMs);
+    }
+
+    /** Tiempo real máximo por actualización en modo de máxima velocidad (deja respirar a la UI). */
+    public static final long PRESUPUESTO_NS = 8_000_000L;
+
+    /** Tope de pasos por actualización en los modos con tiempo real, para no caer en espiral. */
+    private static final long MAX_PASOS_POR_ACTUALIZACION = 1_000_000L;
+
+    private final int pasoMs;
+    private final Paso paso;
+    private Modo modo = Modo.PAUSADO;
+    private double escala = 1.0;
+    private long tiempoMs;
+    private double acumuladoMs;
+    private long ultimaActualizacionNs = -1;
+
+    public RelojSimulacion(int pasoMs, Paso paso) {
+        if (pasoMs <= 0) {
+            throw new IllegalArgumentException("pasoMs debe ser positivo");
+        }
+        this.pasoMs = pasoMs;
+        this.paso = paso;
+    }
+
+    /** Avanza el tiempo simulado según el tiempo real transcurrido desde la llamada anterior. */
+    public void actualizar(long ahoraNs) {
+        long anteriorNs = ultimaActualizacionNs;
+        ultimaActualizacionNs = ahoraNs;
+        if (anteriorNs < 0 || modo == Modo.PAUSADO) {
+            return;
+        }
+        if (modo == Modo.MAXIMA_VELOCIDAD) {
+            long limite = System.nanoTime() + PRESUPUESTO_NS;
+            do {
+                for (int i = 0; i < 256; i++) {
+                    darPaso();
+                }
+            } while (System.nanoTime() < limite);
+            return;
+        }
+        double factor = modo == Modo.ESCALADO ? escala : 1.0;
+        acumuladoMs += (ahoraNs - anteriorNs) / 1_000_000.0 * factor;
+        long pasos = Math.min((long) (acumuladoMs / pasoMs), MAX_PASOS_POR_ACTUALIZACION);
+        acumuladoMs -= pasos * (double) pasoMs;
+        if (acumuladoMs > pasoMs) {
+            acumuladoMs = 0; // la simulación no alcanza al reloj real: se descarta el atraso
+        }
+        for (long i = 0; i < pasos; i++) {
+            darPaso();
+        }
+    }
+
+    /** Corre la simulación {@code ms} milisegundos simulados de inmediato (uso sin interfaz). */
+    public void avanzar(long ms) {
+        long pasos = ms / pasoMs;
+        for (long i = 0; i < pasos; i++) {
+            darPaso();
+        }
+    }
+
+    private void darPaso() {
+        tiempoMs += pasoMs;
+        paso.paso(tiempoMs, pasoMs);
+    }
+
+    /**
+     * Tiempo simulado estimado en un instante real posterior a la última actualización
+     * (incluye la fracción de paso acumulada). Sirve para sellar eventos de entrada.
+     */
+    public long tiempoMsEn(long ahoraNs) {
+        if (modo == Modo.PAUSADO || modo == Modo.MAXIMA_VELOCIDAD || ultimaActualizacionNs < 0) {
+            return tiempoMs;
+        }
+        double factor = modo == Modo.ESCALADO ? escala : 1.0;
+        double extra = acumuladoMs + Math.max(0, ahoraNs - ultimaActualizacionNs) / 1_000_000.0 * factor;
+        return tiempoMs + (long) extra;
+    }
+
+    /**
+     * Instante real (escala de {@link System#nanoTime()}) en que ocurrió el tiempo simulado
+     * {@code tiempoSimMs}, deducido de la última actualización. En máxima velocidad o en pausa
+     * no hay correspondencia y se devuelve el instante de la última actualización.
+     */
+    public long instanteRealNs(long tiempoSimMs) {
+        if (modo == Modo.PAUSADO || modo == Modo.MAXIMA_VELOCIDAD || ultimaActualizacionNs < 0) {
+            return ultimaActualizacionNs;
+        }
+        double factor = modo == Modo.ESCALADO ? escala : 1.0;
+        double atrasoMs = tiempoMs + acumuladoMs - tiempoSimMs;
+        return ultimaActualizacionNs - (long) (atrasoMs * 1_000_000.0 / factor);
+    }
+
+    public void reiniciar() {
+        tiempoMs = 0;
+        acumuladoMs = 0;
+    }
+
+    public Modo getModo() {
+        return modo;
+    }
+
+    public void setModo(Modo modo) {
+        this.modo = modo;
+    }
+
+    public double getEscala() {
+        return escala;
+    }
+
+    public void setEscala(double escala) {
+        this.escala = escala;
+    }
+
+    public long getTiempoMs() {
+        return tiempoMs;
+    }
+
+    public int getPasoMs() {
+        return pasoMs;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.semaforo;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+
+/**
+ * Capa de dibujo del semáforo con bandera de sucio.
+ *
+ * Los colores encendido/apagado se calculan una sola vez. {@link #mostrar(Light)} no hace nada
+ * si la luz dibujada no cambió; si cambió, en modo nodos solo toca los dos círculos que cambian
+ * de estado, y en modo Canvas redibuja un único nodo sin efectos CSS (útil cuando las luces
+ * cambian muy rápido).
+ */
+public final class RenderSemaforo {
+
+    /** Orden visual de arriba hacia abajo. */
+    private static final Light[] ORDEN = {Light.RED, Light.YELLOW, Light.GREEN};
+    private static final double RADIO = 45;
+    private static final double SEPARACION = 12;
+    private static final Color BORDE = Color.web("#0d0f14");
+
+    private final Circle[] circulos = new Circle[Light.values().length];
+    private final Color[] encendido = new Color[Light.values().length];
+    private final Color[] apagado = new Color[Light.values().length];
+    private final VBox nodos;
+    private final Canvas canvas;
+    private final StackPane vista;
+
+    private Light dibujada;
+    private boolean sucio = true;
+    private boolean modoCanvas;
+    private long nodosTocados;
+
+    public RenderSemaforo(Color rojo, Color amarillo, Color verde) {
+        encendido[Light.RED.ordinal()] = rojo;
+        encendido[Light.YELLOW.ordinal()] = amarillo;
+        encendido[Light.GREEN.ordinal()] = verde;
+        for (Light luz : ORDEN) {
+            Color base = encendido[luz.ordinal()];
+            apagado[luz.ordinal()] = base.darker().darker();
+            Circle circulo = new Circle(RADIO);
+            circulo.getStyleClass().add("traffic-light");
+            circulo.setStroke(BORDE);
+            circulo.setStrokeWidth(3);
+            circulo.setFill(apagado[luz.ordinal()]);
+            circulos[luz.ordinal()] = circulo;
+        }
+        nodos = new VBox(SEPARACION, circulos[Light.RED.ordinal()], circulos[Light.YELLOW.ordinal()],
+                circulos[Light.GREEN.ordinal()]);
+        nodos.setAlignment(Pos.CENTER);
+
+        double lado = 2 * RADIO + 6;
+        canvas = new Canvas(lado, ORDEN.length * lado + (ORDEN.length - 1) * SEPARACION);
+        canvas.setVisible(false);
+        canvas.setManaged(false);
+
+        vista = new StackPane(nodos, canvas);
+        vista.setAlignment(Pos.CENTER);
+    }
+
+    public Node getVista() {
+        return vista;
+    }
+
+    /** Deja la luz en pantalla; solo toca nodos si algo cambió. */
+    public void mostrar(Light luz) {
+        if (luz == dibujada && !sucio) {
+            return;
+        }
+        if (modoCanvas) {
+            dibujarCanvas(luz);
+        } else if (sucio || dibujada == null) {
+            for (Light l : ORDEN) {
+                pintar(l, l == luz);
+            }
+        } else {
+            pintar(dibujada, false);
+            pintar(luz, true);
+        }
+        dibujada = luz;
+        sucio = false;
+    }
+
+    private void pintar(Light luz, boolean activa) {
+        circulos[luz.ordinal()].setFill(activa ? encendido[luz.ordinal()] : apagado[luz.ordinal()]);
+        nodosTocados++;
+    }
+
+    private void dibujarCanvas(Light luz) {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        g.setStroke(BORDE);
+        g.setLineWidth(3);
+        double lado = 2 * RADIO + 6;
+        for (int i = 0; i < ORDEN.length; i++) {
+            Light l = ORDEN[i];
+            double y = i * (lado + SEPARACION) + 3;
+            g.setFill(l == luz ? encendido[l.ordinal()] : apagado[l.ordinal()]);
+            g.fillOval(3, y, 2 * RADIO, 2 * RADIO);
+            g.strokeOval(3, y, 2 * RADIO, 2 * RADIO);
+        }
+        nodosTocados++;
+    }
+
+    /** Un solo Canvas en lugar de tres círculos con efectos; pensado para cambios muy rápidos. */
+    public void setModoCanvas(boolean canvasActivo) {
+        if (canvasActivo == modoCanvas) {
+            return;
+        }
+        modoCanvas = canvasActivo;
+        nodos.setVisible(!canvasActivo);
+        canvas.setVisible(canvasActivo);
+        canvas.setManaged(canvasActivo);
+        nodos.setManaged(!canvasActivo);
+        sucio = true;
+        if (dibujada != null) {
+            mostrar(dibujada);
+        }
+    }
+
+    public boolean isModoCanvas() {
+        return modoCanvas;
+    }
+
+    /** Nodos modificados desde el inicio (un círculo o el Canvas cuenta como uno). */
+    public long getNodosTocados() {
+        return nodosTocados;
+    }
+}
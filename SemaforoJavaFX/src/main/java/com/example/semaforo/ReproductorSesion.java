@@ -0,0 +1,217 @@
+package com.example.semaforo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Reproduce una sesión grabada con {@link GrabadorSesion} a través de las mismas clases de
+ * lógica: los cambios de luz e intentos pasan por un {@link GameLogic} nuevo y las
+ * evaluaciones por las {@link LightRules} que se le den. Compara lo que sale con lo grabado,
+ * así un cambio de puntaje o de reglas se puede probar contra millones de intentos reales.
+ *
+ * En tiempo real respeta las pausas entre eventos; a máxima velocidad recorre el archivo
+ * mapeado sin crear objetos por registro (salvo los de la propia lógica del juego).
+ */
+public final class ReproductorSesion {
+
+    public enum Velocidad { TIEMPO_REAL, MAXIMA }
+
+    public record Informe(long registros, long cambios, long intentos, long evaluaciones,
+                          long diferenciasPuntaje, long diferenciasReglas,
+                          long puntajeGrabado, long puntajeReproducido, double segundos) {
+
+        @Override
+        public String toString() {
+            return String.format("%d registros (%d cambios, %d intentos, %d evaluaciones) en %.2f s; "
+                            + "puntaje grabado %d, reproducido %d; %d intentos y %d evaluaciones distintos",
+                    registros, cambios, intentos, evaluaciones, segundos, puntajeGrabado, puntajeReproducido,
+                    diferenciasPuntaje, diferenciasReglas);
+        }
+    }
+
+    private static final Light[] LUCES = Light.values();
+    private static final int POR_SEGMENTO = (int) ((1L << 30) / GrabadorSesion.TAMANO_REGISTRO);
+
+    private final Path archivo;
+
+    public ReproductorSesion(Path archivo) {
+        this.archivo = archivo;
+    }
+
+    public Informe reproducir(LightRules reglas, Velocidad velocidad) throws IOException {
+        return reproducir(new GameLogic(), reglas, velocidad);
+    }
+
+    public Informe reproducir(GameLogic juego, LightRules reglas, Velocidad velocidad) throws IOException {
+        long t0 = System.nanoTime();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            int tr = GrabadorSesion.TAMANO_REGISTRO;
+            if (tamano < tr) {
+                throw new IOException("Grabación vacía: " + archivo);
+            }
+            MappedByteBuffer cabecera = mapear(canal, 0, tr);
+            if (cabecera.getInt(0) != GrabadorSesion.MAGIA || cabecera.getInt(8) != tr) {
+                throw new IOException("No es una grabación de sesión: " + archivo);
+            }
+            long declarados = cabecera.getLong(16);
+            long total = declarados > 0 ? Math.min(declarados, tamano / tr) : tamano / tr;
+
+            List<String> acciones = new ArrayList<>();
+            List<ByteArrayOutputStream> nombres = new ArrayList<>();
+            long cambios = 0, intentos = 0, evaluaciones = 0, difPuntaje = 0, difReglas = 0;
+            long grabado = 0;
+            long inicioMs = Long.MIN_VALUE;
+            long inicioNs = System.nanoTime();
+            long leidos = 1;
+            leer:
+            for (long base = 0; base < total; base += POR_SEGMENTO) {
+                int cantidad = (int) Math.min(POR_SEGMENTO, total - base);
+                MappedByteBuffer b = mapear(canal, base * tr, (long) cantidad * tr);
+                for (int i = base == 0 ? 1 : 0; i < cantidad; i++) {
+                    int p = i * tr;
+                    byte tipo = b.get(p);
+                    if (tipo == 0) {
+                        break leer; // grabación interrumpida: el resto no se llegó a escribir
+                    }
+                    leidos++;
+                    Light luz = LUCES[b.get(p + 1)];
+                    long tiempoMs = b.getLong(p + 8);
+                    if (velocidad == Velocidad.TIEMPO_REAL && tipo != GrabadorSesion.ACCION) {
+                        if (inicioMs == Long.MIN_VALUE) {
+                            inicioMs = tiempoMs;
+                        }
+                        esperarHasta(inicioNs + (tiempoMs - inicioMs) * 1_000_000L);
+                    }
+                    switch (tipo) {
+                        case GrabadorSesion.CAMBIO_LUZ -> {
+                            juego.onLightChange(luz, tiempoMs);
+                            cambios++;
+                        }
+                        case GrabadorSesion.INTENTO -> {
+                            long puntos = b.getLong(p + 16);
+                            grabado += puntos;
+                            GameLogic.AttemptResult r = juego.registrarIntento(tiempoMs, luz);
+                            if (r.puntos() != puntos || r.acierto() != (b.get(p + 2) != 0)) {
+                                difPuntaje++;
+                            }
+                            intentos++;
+                        }
+                        case GrabadorSesion.EVALUACION -> {
+                            int id = b.getInt(p + 4);
+                            String accion = id == GrabadorSesion.SIN_ACCION ? null : acciones.get(id);
+                            if (accion == null && id != GrabadorSesion.SIN_ACCION) {
+                                accion = nombres.get(id).toString(StandardCharsets.UTF_8);
+                                acciones.set(id, accion);
+                            }
+                            LightRules.Regla regla = reglas.evaluarAccion(luz, accion);
+                            boolean conocida = !LightRules.esDesconocida(regla);
+                            if (conocida != (b.get(p + 2) != 0)
+                                    || GrabadorSesion.hashResultado(regla.resultado()) != b.getLong(p + 16)) {
+                                difReglas++;
+                            }
+                            evaluaciones++;
+                        }
+                        case GrabadorSesion.ACCION -> {
+                            byte[] trozo = new byte[b.get(p + 3)];
+                            b.get(p + 8, trozo);
+                            if (b.get(p + 2) != 0) {
+                                nombres.get(nombres.size() - 1).write(trozo);
+                            } else {
+                                ByteArrayOutputStream nombre = new ByteArrayOutputStream();
+                                nombre.write(trozo);
+                                nombres.add(nombre);
+                                acciones.add(null);
+                            }
+                        }
+                        default -> throw new IOException("Registro desconocido " + tipo + " en " + (base + i));
+                    }
+                }
+            }
+            return new Informe(leidos, cambios, intentos, evaluaciones, difPuntaje, difReglas,
+                    grabado, juego.getPuntajeTotal(), (System.nanoTime() - t0) / 1e9);
+        }
+    }
+
+    private static MappedByteBuffer mapear(FileChannel canal, long desde, long largo) throws IOException {
+        MappedByteBuffer b = canal.map(FileChannel.MapMode.READ_ONLY, desde, largo);
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        return b;
+    }
+
+    private static void esperarHasta(long instanteNs) {
+        long falta;
+        while ((falta = instanteNs - System.nanoTime()) > 0) {
+            try {
+                Thread.sleep(falta / 1_000_000, (int) (falta % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Genera una sesión sintética de {@code intentos} pulsaciones (ciclos de 3 s, reacciones al
+     * azar, algunas antes de tiempo) pasando por {@link GameLogic} y {@link LightRules}.
+     */
+    public static void generar(Path archivo, long intentos, long semilla) throws IOException {
+        SplittableRandom r = new SplittableRandom(semilla);
+        GameLogic juego = new GameLogic();
+        LightRules reglas = new LightRules();
+        String[] acciones = {"avanzar", "esperar", "detenerse", "cruzar"};
+        TrafficLightLogic logica = new TrafficLightLogic();
+        try (GrabadorSesion g = new GrabadorSesion(archivo)) {
+            Light luz = Light.RED;
+            long t = 0;
+            long hechos = 0;
+            while (hechos < intentos) {
+                t += 3_000;
+                luz = logica.nextState(luz);
+                juego.onLightChange(luz, t);
+                g.cambioLuz(luz, t);
+                String accion = acciones[r.nextInt(acciones.length)];
+                LightRules.Regla regla = reglas.evaluarAccion(luz, accion);
+                g.evaluacion(luz, accion, t + 5, !LightRules.esDesconocida(regla), regla.resultado());
+                int pulsaciones = luz == Light.GREEN ? 1 + r.nextInt(3) : r.nextInt(2);
+                for (int k = 0; k < pulsaciones && hechos < intentos; k++, hechos++) {
+                    long ti = t + 120 + r.nextInt(2_800);
+                    GameLogic.AttemptResult res = juego.registrarIntento(ti, luz);
+                    g.intento(luz, ti, res.acierto(), res.puntos(), res.reaccionMs() != null ? res.reaccionMs() : -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code ReproductorSesion archivo [tiempo-real]} reproduce y compara contra las reglas
+     * incorporadas (o las de {@code -Dsemaforo.reglas=archivo.pl});
+     * {@code ReproductorSesion --generar N archivo} crea una sesión sintética.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--generar")) {
+            long t0 = System.nanoTime();
+            generar(Path.of(args[2]), Long.parseLong(args[1]), 42);
+            System.out.printf("Sesión generada en %.2f s%n", (System.nanoTime() - t0) / 1e9);
+            return;
+        }
+        if (args.length < 1) {
+            System.err.println("Uso: ReproductorSesion archivo [tiempo-real] | --generar N archivo");
+            return;
+        }
+        Velocidad v = args.length > 1 && args[1].equals("tiempo-real") ? Velocidad.TIEMPO_REAL : Velocidad.MAXIMA;
+        String rutaReglas = System.getProperty("semaforo.reglas");
+        LightRules reglas = rutaReglas == null || rutaReglas.isBlank()
+                ? new LightRules() : new LightRules(ReglasArchivo.cargar(Path.of(rutaReglas)));
+        System.out.println(new ReproductorSesion(Path.of(args[0])).reproducir(reglas, v));
+    }
+}
@@ -0,0 +1,537 @@
+package com.example.semaforo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Motor de inferencia hacia adelante (forward chaining) con red Rete.
+ *
+ * Los hechos son tripletas (sujeto, atributo, valor). Una {@link Produccion} tiene varias
+ * condiciones ({@link Patron}, con variables {@code "?x"}) y concluye hechos derivados que
+ * a su vez pueden disparar otras producciones (encadenamiento).
+ *
+ * <ul>
+ *   <li><b>Red alfa</b>: cada combinación de constantes de un patrón tiene una memoria alfa;
+ *       un hecho nuevo se despacha en O(1) consultando solo las 8 claves posibles
+ *       (sujeto|*, atributo|*, valor|*), sin recorrer las reglas.</li>
+ *   <li><b>Red beta</b>: un nodo de unión por condición, con índices hash a ambos lados por
+ *       la primera variable compartida; guarda los emparejamientos parciales (tokens).</li>
+ *   <li><b>Mantenimiento de verdad</b>: los hechos derivados cuentan sus soportes; al retirar
+ *       un hecho se eliminan solo sus tokens y lo que dependía de ellos.</li>
+ * </ul>
+ *
+ * Limitación: el soporte es un conteo, no una justificación. Si las reglas forman un ciclo
+ * (A concluye B y B concluye A), al retirar la causa original A y B se siguen sosteniendo
+ * entre sí y no se retractan. Las reglas de {@link ReglasCompuestas} no forman ciclos.
+ *
+ * Así, cambiar un hecho (p. ej. la luz actual) solo reevalúa las reglas que lo mencionan.
+ * No es seguro para varios hilos: se usa desde el hilo de la UI.
+ */
+public final class ReteEngine {
+
+    public record Hecho(String sujeto, String atributo, Object valor) {}
+
+    /** Condición o conclusión; cualquier término que sea un String que empieza con "?" es variable. */
+    public record Patron(Object sujeto, Object atributo, Object valor) {
+        Object termino(int campo) {
+            return switch (campo) {
+                case 0 -> sujeto;
+                case 1 -> atributo;
+                default -> valor;
+            };
+        }
+    }
+
+    public record Produccion(String nombre, List<Patron> condiciones, List<Patron> conclusiones) {}
+
+    static boolean esVariable(Object termino) {
+        return termino instanceof String s && s.startsWith("?");
+    }
+
+    private static Object campo(Hecho h, int campo) {
+        return switch (campo) {
+            case 0 -> h.sujeto();
+            case 1 -> h.atributo();
+            default -> h.valor();
+        };
+    }
+
+    private static final Object COMODIN = new Object();
+
+    private record ClaveAlfa(Object sujeto, Object atributo, Object valor) {}
+
+    private record SujetoAtributo(String sujeto, String atributo) {}
+
+    /** Conjunto por identidad: altas, bajas y consultas O(1) sin depender de equals. */
+    private static <T> Set<T> conjuntoIdentidad() {
+        return Collections.newSetFromMap(new IdentityHashMap<>(4));
+    }
+
+    /* ============================ Estructuras internas ============================ */
+
+    private static final class Wme {
+        final Hecho hecho;
+        final List<MemoriaAlfa> alfas = new ArrayList<>(2);
+        final Set<Token> tokens = conjuntoIdentidad();
+        boolean base;
+        int soporte;
+
+        Wme(Hecho hecho) {
+            this.hecho = hecho;
+        }
+    }
+
+    private static final class Token {
+        final Token padre;
+        final Wme wme;
+        final Object[] valores;
+        final NodoUnion nodo;
+        Set<Token> hijos;
+        List<Hecho> derivados;
+        boolean vivo = true;
+
+        Token(Token padre, Wme wme, Object[] valores, NodoUnion nodo) {
+            this.padre = padre;
+            this.wme = wme;
+            this.valores = valores;
+            this.nodo = nodo;
+        }
+    }
+
+    private static final class MemoriaAlfa {
+        final Set<Wme> wmes = new HashSet<>();
+        final List<NodoUnion> sucesores = new ArrayList<>();
+    }
+
+    /** Nodo de unión para la condición {@code indice} de una producción. */
+    private final class NodoUnion {
+        final ProduccionCompilada regla;
+        final int indice;
+        final MemoriaAlfa alfa;
+        final int[] camposIguales;  // prueba alfa: una variable repetida en el mismo patrón,
+        final int[] camposPrimera;  // el campo debe igualar al de su primera aparición
+        final int[] camposPrueba;   // campo del hecho que debe igualar a una variable ya ligada
+        final int[] varsPrueba;
+        final int[] camposLigar;    // campos que ligan variables nuevas
+        final int[] varsLigar;
+        final int campoHash;        // -1 si no hay variable compartida (producto cruzado)
+        final int varHash;
+        final Map<Object, Set<Token>> izquierda = new HashMap<>();
+        final Map<Object, Set<Wme>> derecha = new HashMap<>();
+        NodoUnion siguiente;
+
+        NodoUnion(ProduccionCompilada regla, int indice, MemoriaAlfa alfa, Patron p, Map<String, Integer> ligadas) {
+            this.regla = regla;
+            this.indice = indice;
+            this.alfa = alfa;
+            List<int[]> iguales = new ArrayList<>();
+            List<int[]> pruebas = new ArrayList<>();
+            List<int[]> nuevas = new ArrayList<>();
+            Map<Object, Integer> enEstePatron = new HashMap<>();
+            for (int c = 0; c < 3; c++) {
+                Object t = p.termino(c);
+                if (!esVariable(t)) {
+                    continue;
+                }
+                Integer primera = enEstePatron.putIfAbsent(t, c);
+                if (primera != null) {
+                    iguales.add(new int[]{c, primera});
+                    continue;
+                }
+                Integer v = ligadas.get(t);
+                if (v != null) {
+                    pruebas.add(new int[]{c, v});
+                } else {
+                    int nueva = ligadas.size();
+                    ligadas.put((String) t, nueva);
+                    nuevas.add(new int[]{c, nueva});
+                }
+            }
+            camposIguales = iguales.stream().mapToInt(a -> a[0]).toArray();
+            camposPrimera = iguales.stream().mapToInt(a -> a[1]).toArray();
+            camposPrueba = pruebas.stream().mapToInt(a -> a[0]).toArray();
+            varsPrueba = pruebas.stream().mapToInt(a -> a[1]).toArray();
+            camposLigar = nuevas.stream().mapToInt(a -> a[0]).toArray();
+            varsLigar = nuevas.stream().mapToInt(a -> a[1]).toArray();
+            campoHash = camposPrueba.length > 0 ? camposPrueba[0] : -1;
+            varHash = varsPrueba.length > 0 ? varsPrueba[0] : -1;
+        }
+
+        Object claveIzq(Token t) {
+            return varHash < 0 ? COMODIN : t.valores[varHash];
+        }
+
+        Object claveDer(Wme w) {
+            return campoHash < 0 ? COMODIN : campo(w.hecho, campoHash);
+        }
+
+        /** Pruebas dentro del hecho (p. ej. {@code (?x, a, ?x)}): se filtra antes de guardarlo. */
+        boolean pasaAlfa(Wme w) {
+            for (int i = 0; i < camposIguales.length; i++) {
+                if (!Objects.equals(campo(w.hecho, camposIguales[i]), campo(w.hecho, camposPrimera[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void activarIzquierda(Token t) {
+            izquierda.computeIfAbsent(claveIzq(t), k -> new HashSet<>()).add(t);
+            Set<Wme> candidatos = derecha.get(claveIzq(t));
+            if (candidatos != null) {
+                for (Wme w : List.copyOf(candidatos)) {
+                    unir(t, w);
+                }
+            }
+        }
+
+        void activarDerecha(Wme w) {
+            if (!pasaAlfa(w)) {
+                return;
+            }
+            derecha.computeIfAbsent(claveDer(w), k -> new HashSet<>()).add(w);
+            Set<Token> candidatos = izquierda.get(claveDer(w));
+            if (candidatos != null) {
+                for (Token t : List.copyOf(candidatos)) {
+                    unir(t, w);
+                }
+            }
+        }
+
+        void quitarDerecha(Wme w) {
+            Set<Wme> s = derecha.get(claveDer(w));
+            if (s != null && s.remove(w) && s.isEmpty()) {
+                derecha.remove(claveDer(w));
+            }
+        }
+
+        void quitarIzquierda(Token t) {
+            Set<Token> s = izquierda.get(claveIzq(t));
+            if (s != null && s.remove(t) && s.isEmpty()) {
+                izquierda.remove(claveIzq(t));
+            }
+        }
+
+        private void unir(Token padre, Wme w) {
+            activaciones++;
+            for (int i = 0; i < camposPrueba.length; i++) {
+                if (!Objects.equals(padre.valores[varsPrueba[i]], campo(w.hecho, camposPrueba[i]))) {
+                    return;
+                }
+            }
+            Object[] valores = padre.valores.clone();
+            for (int i = 0; i < camposLigar.length; i++) {
+                valores[varsLigar[i]] = campo(w.hecho, camposLigar[i]);
+            }
+            Token t = new Token(padre, w, valores, this);
+            if (padre.hijos == null) {
+                padre.hijos = conjuntoIdentidad();
+            }
+            padre.hijos.add(t);
+            w.tokens.add(t);
+            if (siguiente != null) {
+                siguiente.activarIzquierda(t);
+            } else {
+                agenda.add(() -> disparar(regla, t));
+            }
+        }
+    }
+
+    private static final class ProduccionCompilada {
+        final Produccion produccion;
+        final Map<String, Integer> variables = new HashMap<>();
+        NodoUnion primero;
+
+        ProduccionCompilada(Produccion produccion) {
+            this.produccion = produccion;
+        }
+    }
+
+    /* ============================ Estado del motor ============================ */
+
+    private final Map<ClaveAlfa, MemoriaAlfa> alfas = new HashMap<>();
+    private final Map<Hecho, Wme> memoriaTrabajo = new HashMap<>();
+    private final Map<SujetoAtributo, Set<Wme>> porSujetoAtributo = new HashMap<>();
+    private final Set<Hecho> derivados = new LinkedHashSet<>(); // se mantiene al cambiar base/soporte
+    private final List<ProduccionCompilada> producciones = new ArrayList<>();
+    private final ArrayDeque<Runnable> agenda = new ArrayDeque<>();
+    private long activaciones;
+    private long disparos;
+
+    public ReteEngine() {
+    }
+
+    public ReteEngine(List<Produccion> producciones) {
+        producciones.forEach(this::agregarProduccion);
+    }
+
+    /* ============================ API pública ============================ */
+
+    public void agregarProduccion(Produccion p) {
+        if (p.condiciones().isEmpty()) {
+            throw new IllegalArgumentException("La producción " + p.nombre() + " no tiene condiciones");
+        }
+        ProduccionCompilada pc = new ProduccionCompilada(p);
+        NodoUnion anterior = null;
+        for (int i = 0; i < p.condiciones().size(); i++) {
+            Patron cond = p.condiciones().get(i);
+            MemoriaAlfa alfa = memoriaAlfa(cond);
+            NodoUnion nodo = new NodoUnion(pc, i, alfa, cond, pc.variables);
+            alfa.sucesores.add(nodo);
+            for (Wme w : alfa.wmes) {
+                if (nodo.pasaAlfa(w)) {
+                    nodo.derecha.computeIfAbsent(nodo.claveDer(w), k -> new HashSet<>()).add(w);
+                }
+            }
+            if (anterior == null) {
+                pc.primero = nodo;
+            } else {
+                anterior.siguiente = nodo;
+            }
+            anterior = nodo;
+        }
+        for (Patron c : p.conclusiones()) {
+            for (int campo = 0; campo < 3; campo++) {
+                Object t = c.termino(campo);
+                if (esVariable(t) && !pc.variables.containsKey(t)) {
+                    throw new IllegalArgumentException("Variable " + t + " sin ligar en " + p.nombre());
+                }
+            }
+        }
+        producciones.add(pc);
+        pc.primero.activarIzquierda(new Token(null, null, new Object[pc.variables.size()], null));
+        procesarAgenda();
+    }
+
+    /** Agrega un hecho base (afirmado desde fuera). */
+    public void afirmar(Hecho h) {
+        Wme w = memoriaTrabajo.get(h);
+        if (w != null) {
+            marcarBase(w, true);
+            return;
+        }
+        marcarBase(insertar(h), true);
+        procesarAgenda();
+    }
+
+    /** Retira un hecho base; si además lo sostiene una regla, permanece como derivado. */
+    public void retractar(Hecho h) {
+        Wme w = memoriaTrabajo.get(h);
+        if (w == null || !w.base) {
+            return;
+        }
+        marcarBase(w, false);
+        if (w.soporte == 0) {
+            eliminar(w);
+        }
+        procesarAgenda();
+    }
+
+    /** Reemplaza los valores base de (sujeto, atributo) por uno solo: la forma usual de "cambiar un hecho". */
+    public void cambiar(String sujeto, String atributo, Object valor) {
+        Hecho nuevo = new Hecho(sujeto, atributo, valor);
+        Set<Wme> actuales = porSujetoAtributo.get(new SujetoAtributo(sujeto, atributo));
+        if (actuales != null) {
+            for (Wme w : List.copyOf(actuales)) {
+                if (w.base && !w.hecho.equals(nuevo)) {
+                    marcarBase(w, false);
+                    if (w.soporte == 0) {
+                        eliminar(w);
+                    }
+                }
+            }
+        }
+        procesarAgenda();
+        afirmar(nuevo);
+    }
+
+    public List<Object> valores(String sujeto, String atributo) {
+        Set<Wme> s = porSujetoAtributo.get(new SujetoAtributo(sujeto, atributo));
+        if (s == null) {
+            return List.of();
+        }
+        List<Object> out = new ArrayList<>(s.size());
+        s.forEach(w -> out.add(w.hecho.valor()));
+        return out;
+    }
+
+    public Optional<Object> valor(String sujeto, String atributo) {
+        List<Object> v = valores(sujeto, atributo);
+        return v.isEmpty() ? Optional.empty() : Optional.of(v.get(0));
+    }
+
+    public boolean contiene(Hecho h) {
+        return memoriaTrabajo.containsKey(h);
+    }
+
+    /** Hechos sostenidos solo por reglas (no afirmados desde fuera). */
+    public List<Hecho> derivados() {
+        return List.copyOf(derivados);
+    }
+
+    public int tamanoMemoria() {
+        return memoriaTrabajo.size();
+    }
+
+    public List<Produccion> getProducciones() {
+        List<Produccion> out = new ArrayList<>(producciones.size());
+        producciones.forEach(pc -> out.add(pc.produccion));
+        return Collections.unmodifiableList(out);
+    }
+
+    /** Pruebas de unión realizadas desde la creación; sirve para medir el trabajo incremental. */
+    public long getActivaciones() {
+        return activaciones;
+    }
+
+    public long getDisparos() {
+        return disparos;
+    }
+
+    /* ============================ Propagación ============================ */
+
+    private MemoriaAlfa memoriaAlfa(Patron p) {
+        ClaveAlfa clave = new ClaveAlfa(
+                esVariable(p.sujeto()) ? COMODIN : p.sujeto(),
+                esVariable(p.atributo()) ? COMODIN : p.atributo(),
+                esVariable(p.valor()) ? COMODIN : p.valor());
+        return alfas.computeIfAbsent(clave, k -> {
+            MemoriaAlfa m = new MemoriaAlfa();
+            memoriaTrabajo.values().forEach(w -> {
+                if (coincide(k, w.hecho)) {
+                    m.wmes.add(w);
+                    w.alfas.add(m);
+                }
+            });
+            return m;
+        });
+    }
+
+    private static boolean coincide(ClaveAlfa k, Hecho h) {
+        return (k.sujeto() == COMODIN || k.sujeto().equals(h.sujeto()))
+                && (k.atributo() == COMODIN || k.atributo().equals(h.atributo()))
+                && (k.valor() == COMODIN || k.valor().equals(h.valor()));
+    }
+
+    private void marcarBase(Wme w, boolean base) {
+        w.base = base;
+        if (base) {
+            derivados.remove(w.hecho);
+        } else {
+            derivados.add(w.hecho);
+        }
+    }
+
+    /** Entra como derivado; {@link #afirmar} lo marca como base enseguida si viene de fuera. */
+    private Wme insertar(Hecho h) {
+        Wme w = new Wme(h);
+        memoriaTrabajo.put(h, w);
+        derivados.add(h);
+        porSujetoAtributo.computeIfAbsent(new SujetoAtributo(h.sujeto(), h.atributo()), k -> new HashSet<>()).add(w);
+        for (int mascara = 0; mascara < 8; mascara++) {
+            MemoriaAlfa m = alfas.get(new ClaveAlfa(
+                    (mascara & 1) != 0 ? COMODIN : h.sujeto(),
+                    (mascara & 2) != 0 ? COMODIN : h.atributo(),
+                    (mascara & 4) != 0 ? COMODIN : h.valor()));
+            if (m != null) {
+                m.wmes.add(w);
+                w.alfas.add(m);
+            }
+        }
+        for (MemoriaAlfa m : w.alfas) {
+            for (NodoUnion n : m.sucesores) {
+                n.activarDerecha(w);
+            }
+        }
+        return w;
+    }
+
+    private void eliminar(Wme w) {
+        memoriaTrabajo.remove(w.hecho);
+        derivados.remove(w.hecho);
+        SujetoAtributo sa = new SujetoAtributo(w.hecho.sujeto(), w.hecho.atributo());
+        Set<Wme> s = porSujetoAtributo.get(sa);
+        if (s != null && s.remove(w) && s.isEmpty()) {
+            porSujetoAtributo.remove(sa);
+        }
+        for (MemoriaAlfa m : w.alfas) {
+            m.wmes.remove(w);
+            for (NodoUnion n : m.sucesores) {
+                n.quitarDerecha(w);
+            }
+        }
+        for (Token t : List.copyOf(w.tokens)) {
+            borrarToken(t);
+        }
+    }
+
+    private void borrarToken(Token t) {
+        t.vivo = false;
+        if (t.hijos != null) {
+            for (Token h : List.copyOf(t.hijos)) {
+                borrarToken(h);
+            }
+        }
+        if (t.nodo.siguiente != null) {
+            t.nodo.siguiente.quitarIzquierda(t);
+        }
+        t.wme.tokens.remove(t);
+        if (t.padre.hijos != null) {
+            t.padre.hijos.remove(t);
+        }
+        if (t.derivados != null) {
+            List<Hecho> derivados = t.derivados;
+            t.derivados = null;
+            agenda.add(() -> derivados.forEach(this::quitarSoporte));
+        }
+    }
+
+    private void disparar(ProduccionCompilada pc, Token t) {
+        if (!t.vivo) {
+            return; // el token se borró antes de que la agenda llegara a él
+        }
+        disparos++;
+        List<Hecho> derivados = new ArrayList<>(pc.produccion.conclusiones().size());
+        for (Patron c : pc.produccion.conclusiones()) {
+            Hecho h = new Hecho(
+                    (String) sustituir(c.sujeto(), pc, t),
+                    (String) sustituir(c.atributo(), pc, t),
+                    sustituir(c.valor(), pc, t));
+            derivados.add(h);
+            Wme w = memoriaTrabajo.get(h);
+            if (w == null) {
+                w = insertar(h);
+            }
+            w.soporte++;
+        }
+        t.derivados = derivados;
+    }
+
+    private void quitarSoporte(Hecho h) {
+        Wme w = memoriaTrabajo.get(h);
+        if (w != null && --w.soporte == 0 && !w.base) {
+            eliminar(w);
+        }
+    }
+
+    private static Object sustituir(Object termino, ProduccionCompilada pc, Token t) {
+        return esVariable(termino) ? t.valores[pc.variables.get(termino)] : termino;
+    }
+
+    private void procesarAgenda() {
+        Runnable r;
+        while ((r = agenda.poll()) != null) {
+            r.run();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.semaforo;
+
+import java.util.Arrays;
+
+/**
+ * Rueda de temporizadores jerárquica para ids enteros (0..capacidad-1), pensada para
+ * programar millones de vencimientos sin un temporizador por elemento.
+ *
+ * Cada id está programado a lo sumo una vez; las listas de cada ranura son intrusivas
+ * (arreglo {@code siguiente}), así que programar, cancelar y avanzar no crean objetos.
+ * El nivel 0 tiene 256 ranuras de 1 tick; los niveles superiores tienen 64 ranuras que
+ * abarcan 256, 16 384 y 1 048 576 ticks, y al girar se vuelcan ("cascada") al nivel inferior.
+ * Los vencimientos más lejanos que el último nivel esperan en la última ranura y se
+ * reprograman al llegar a ella.
+ */
+public final class RuedaTemporizadores {
+
+    /**
+     * Recibe los ids vencidos. Desde dentro puede programar o cancelar cualquier id, incluso
+     * otro que venza en el mismo tick y todavía no se haya entregado.
+     */
+    @FunctionalInterface
+    public interface Vencimiento {
+        void vencer(int id, long ahora);
+    }
+
+    private static final int BITS0 = 8;
+    private static final int BITS = 6;
+    private static final int NIVELES = 4;
+    private static final int NADA = -1;
+
+    private final int[][] cabezas = new int[NIVELES][];
+    private final int[] siguiente;
+    private final int[] anterior;
+    private final long[] vence;
+    private final byte[] nivel;        // -1 = no programado
+    private final short[] ranura;
+    private long ahora;
+    private int programados;
+
+    public RuedaTemporizadores(int capacidad) {
+        for (int n = 0; n < NIVELES; n++) {
+            cabezas[n] = new int[n == 0 ? 1 << BITS0 : 1 << BITS];
+            Arrays.fill(cabezas[n], NADA);
+        }
+        siguiente = new int[capacidad];
+        anterior = new int[capacidad];
+        vence = new long[capacidad];
+        nivel = new byte[capacidad];
+        ranura = new short[capacidad];
+        Arrays.fill(nivel, (byte) -1);
+    }
+
+    public long ahora() {
+        return ahora;
+    }
+
+    public int programados() {
+        return programados;
+    }
+
+    public boolean estaProgramado(int id) {
+        return nivel[id] >= 0;
+    }
+
+    public long vencimiento(int id) {
+        return vence[id];
+    }
+
+    /** Programa (o reprograma) el id para dentro de {@code ticks} ticks (mínimo 1). */
+    public void programar(int id, long ticks) {
+        if (nivel[id] >= 0) {
+            cancelar(id);
+        }
+        vence[id] = ahora + Math.max(1, ticks);
+        insertar(id);
+        programados++;
+    }
+
+    public void cancelar(int id) {
+        if (nivel[id] < 0) {
+            return;
+        }
+        quitar(id);
+        programados--;
+    }
+
+    /**
+     * Avanza un tick y entrega los ids que vencen en él. La ranura se vacía sacando siempre la
+     * cabeza, así lo que el callback cancele o reprograme sale de la lista antes de visitarlo;
+     * nada se inserta en la ranura actual, porque todo vencimiento nuevo es al menos un tick después.
+     */
+    public void tick(Vencimiento alVencer) {
+        ahora++;
+        cascada(1);
+        int slot = (int) (ahora & ((1 << BITS0) - 1));
+        int id;
+        while ((id = cabezas[0][slot]) != NADA) {
+            quitar(id);
+            programados--;
+            if (vence[id] <= ahora) {
+                alVencer.vencer(id, ahora);
+            } else {
+                insertar(id); // vencimiento lejano que esperaba en la última ranura
+                programados++;
+            }
+        }
+    }
+
+    /** Avanza {@code ticks} ticks seguidos. */
+    public void avanzar(long ticks, Vencimiento alVencer) {
+        for (long t = 0; t < ticks; t++) {
+            tick(alVencer);
+        }
+    }
+
+    private void cascada(int n) {
+        if (n >= NIVELES) {
+            return;
+        }
+        int desplazamiento = BITS0 + (n - 1) * BITS;
+        if ((ahora & ((1L << desplazamiento) - 1)) != 0) {
+            return;
+        }
+        cascada(n + 1);
+        int slot = (int) ((ahora >>> desplazamiento) & ((1 << BITS) - 1));
+        int id = cabezas[n][slot];
+        cabezas[n][slot] = NADA;
+        while (id != NADA) {
+            int sig = siguiente[id];
+            nivel[id] = -1;
+            insertar(id);
+            id = sig;
+        }
+    }
+
+    private void insertar(int id) {
+        long delta = vence[id] - ahora;
+        int n;
+        int slot;
+        if (delta < (1L << BITS0)) {
+            n = 0;
+            slot = (int) (vence[id] & ((1 << BITS0) - 1));
+        } else {
+            n = 1;
+            while (n < NIVELES - 1 && delta >= (1L << (BITS0 + n * BITS))) {
+                n++;
+            }
+            int desplazamiento = BITS0 + (n - 1) * BITS;
+            long limite = 1L << (BITS0 + n * BITS);
+            long objetivo = delta < limite ? vence[id] : ahora + limite - 1;
+            slot = (int) ((objetivo >>> desplazamiento) & ((1 << BITS) - 1));
+        }
+        nivel[id] = (byte) n;
+        ranura[id] = (short) slot;
+        int cabeza = cabezas[n][slot];
+        siguiente[id] = cabeza;
+        anterior[id] = NADA;
+        if (cabeza != NADA) {
+            anterior[cabeza] = id;
+        }
+        cabezas[n][slot] = id;
+    }
+
+    private void quitar(int id) {
+        int n = nivel[id];
+        int slot = ranura[id];
+        int ant = anterior[id];
+        int sig = siguiente[id];
+        if (ant != NADA) {
+            siguiente[ant] = sig;
+        } else {
+            cabezas[n][slot] = sig;
+        }
+        if (sig != NADA) {
+            anterior[sig] = ant;
+        }
+        nivel[id] = -1;
+    }
+}
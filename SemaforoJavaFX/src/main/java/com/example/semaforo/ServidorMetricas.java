@@ -0,0 +1,97 @@
+package com.example.semaforo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sirve {@link MetricasSemaforo} en {@code http://127.0.0.1:puerto/metrics} con el servidor
+ * HTTP del JDK, para que Prometheus (o un {@code curl}) vea la salud de una pantalla sin
+ * atender.
+ *
+ * Escucha solo en la interfaz local y atiende con un único hilo de baja prioridad: las
+ * consultas se hacen de a una y el texto se arma en un búfer que se reutiliza. El tiempo de
+ * CPU que gasta en responder se exporta también ({@code semaforo_exportador_cpu_segundos_total}).
+ */
+public final class ServidorMetricas implements Closeable {
+
+    private static final String TIPO_CONTENIDO = "text/plain; version=0.0.4; charset=utf-8";
+    private static final ThreadMXBean MX = ManagementFactory.getThreadMXBean();
+
+    private final MetricasSemaforo metricas;
+    private final HttpServer servidor;
+    private final ExecutorService hilo;
+
+    // Solo el hilo del servidor
+    private final StringBuilder texto = new StringBuilder(4_096);
+    private long consultas;
+    private long cpuNs;
+
+    public ServidorMetricas(MetricasSemaforo metricas, int puerto) throws IOException {
+        this.metricas = metricas;
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        hilo = Executors.newSingleThreadExecutor(tarea -> {
+            Thread t = new Thread(tarea, "metricas");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        servidor.setExecutor(hilo);
+        servidor.createContext("/metrics", this::responder);
+        servidor.start();
+    }
+
+    /** Puerto en el que escucha (útil si se pidió el 0). */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            String metodo = intercambio.getRequestMethod();
+            if (!metodo.equals("GET") && !metodo.equals("HEAD")) {
+                intercambio.getResponseHeaders().set("Allow", "GET, HEAD");
+                intercambio.sendResponseHeaders(405, -1);
+                return;
+            }
+            long cpuInicio = MX.getCurrentThreadCpuTime();
+            consultas++;
+            texto.setLength(0);
+            metricas.escribir(texto);
+            MetricasSemaforo.cabecera(texto, "semaforo_exportador_consultas_total", "counter",
+                    "Consultas atendidas por el exportador");
+            MetricasSemaforo.valor(texto, "semaforo_exportador_consultas_total", "", consultas);
+            MetricasSemaforo.cabecera(texto, "semaforo_exportador_cpu_segundos_total", "counter",
+                    "CPU usada por el exportador para responder (hasta la consulta anterior)");
+            MetricasSemaforo.valor(texto, "semaforo_exportador_cpu_segundos_total", "", cpuNs / 1e9);
+
+            byte[] cuerpo = texto.toString().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", TIPO_CONTENIDO);
+            if (metodo.equals("HEAD")) {
+                intercambio.sendResponseHeaders(200, -1);
+            } else {
+                intercambio.sendResponseHeaders(200, cuerpo.length);
+                try (OutputStream salida = intercambio.getResponseBody()) {
+                    salida.write(cuerpo);
+                }
+            }
+            cpuNs += MX.getCurrentThreadCpuTime() - cpuInicio;
+        }
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        hilo.shutdownNow();
+    }
+}
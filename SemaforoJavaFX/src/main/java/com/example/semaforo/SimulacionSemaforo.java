@@ -0,0 +1,107 @@
+package com.example.semaforo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modelo sin interfaz de un semáforo que avanza con un {@link RelojSimulacion}.
+ *
+ * Lleva la luz actual y cuánto tiempo simulado lleva en ella; cuando se cumple la duración
+ * de fase aplica {@link TrafficLightLogic#nextState(Light)} y avisa a los oyentes con el
+ * tiempo simulado exacto del cambio. La interfaz solo lee este estado.
+ */
+public final class SimulacionSemaforo {
+
+    @FunctionalInterface
+    public interface OyenteCambio {
+        void cambio(Light nueva, long tiempoMs);
+    }
+
+    public static final int PASO_MS = 10;
+
+    private final TrafficLightLogic logica;
+    private final RelojSimulacion reloj;
+    private final List<OyenteCambio> oyentes = new ArrayList<>();
+    private Light luz = Light.RED;
+    private long msEnFase;
+    private long duracionFaseMs;
+    private long cambios;
+    private long ultimoCambioMs;
+
+    public SimulacionSemaforo(TrafficLightLogic logica, long duracionFaseMs) {
+        this.logica = logica;
+        this.duracionFaseMs = duracionFaseMs;
+        this.reloj = new RelojSimulacion(PASO_MS, this::paso);
+    }
+
+    private void paso(long tiempoMs, int pasoMs) {
+        msEnFase += pasoMs;
+        if (msEnFase >= duracionFaseMs) {
+            msEnFase = 0;
+            luz = logica.nextState(luz);
+            cambios++;
+            ultimoCambioMs = tiempoMs;
+            for (OyenteCambio o : oyentes) {
+                o.cambio(luz, tiempoMs);
+            }
+        }
+    }
+
+    public void reiniciar() {
+        luz = Light.RED;
+        msEnFase = 0;
+        cambios = 0;
+        ultimoCambioMs = 0;
+        reloj.reiniciar();
+    }
+
+    public void agregarOyente(OyenteCambio oyente) {
+        oyentes.add(oyente);
+    }
+
+    public RelojSimulacion getReloj() {
+        return reloj;
+    }
+
+    public Light getLuz() {
+        return luz;
+    }
+
+    public long getCambios() {
+        return cambios;
+    }
+
+    /** Tiempo simulado exacto del último cambio de luz. */
+    public long getUltimoCambioMs() {
+        return ultimoCambioMs;
+    }
+
+    public long getDuracionFaseMs() {
+        return duracionFaseMs;
+    }
+
+    /** Cambia la duración de fase en caliente; la fase en curso usa la nueva duración. */
+    public void setDuracionFaseMs(long duracionFaseMs) {
+        this.duracionFaseMs = Math.max(PASO_MS, duracionFaseMs);
+    }
+
+    /** Corrida reproducible: {@code SimulacionSemaforo [días] [segundos por luz]}. */
+    public static void main(String[] args) {
+        double dias = args.length > 0 ? Double.parseDouble(args[0]) : 7;
+        double segundos = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+        SimulacionSemaforo sim = new SimulacionSemaforo(new TrafficLightLogic(), (long) (segundos * 1000));
+        GameLogic juego = new GameLogic();
+        sim.agregarOyente(juego::onLightChange);
+        // Un "jugador" determinista que pulsa 250 ms después de cada verde
+        sim.agregarOyente((luz, t) -> {
+            if (luz == Light.GREEN) {
+                juego.registrarIntento(t + 250, luz);
+            }
+        });
+        long t0 = System.nanoTime();
+        sim.getReloj().avanzar((long) (dias * 86_400_000L));
+        double s = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%.1f días simulados en %.2f s: %d cambios, luz final %s, puntaje %d%n",
+                dias, s, sim.getCambios(), sim.getLuz(), juego.getPuntajeTotal());
+    }
+}
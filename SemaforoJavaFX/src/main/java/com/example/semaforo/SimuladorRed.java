@@ -0,0 +1,128 @@
+package com.example.semaforo;
+
+import java.util.SplittableRandom;
+
+/**
+ * Simulador sin interfaz de una red de semáforos (100 000+ intersecciones).
+ *
+ * Todas las luces comparten una sola {@link RuedaTemporizadores}: cada luz está programada
+ * para su próximo cambio de fase y, al vencer, avanza con la función de transición de
+ * {@link TrafficLightLogic#nextState(Light)} (precalculada en una tabla) y se reprograma con
+ * la duración de la nueva fase. El estado de cada luz es un byte; con la rueda son unos
+ * 20 bytes por intersección y avanzar la red no crea objetos.
+ *
+ * Un tick equivale a {@link #MS_POR_TICK} ms de tiempo simulado.
+ */
+public final class SimuladorRed {
+
+    public static final int MS_POR_TICK = 10;
+
+    /** Avisa cada cambio de fase; debe ser barato porque se llama en el bucle caliente. */
+    @FunctionalInterface
+    public interface CambioFase {
+        void cambio(int interseccion, Light nueva, long tick);
+    }
+
+    private static final Light[] LUCES = Light.values();
+
+    private final byte[] estado;
+    private final byte[] siguiente = new byte[LUCES.length];
+    private final int[] duracion = new int[LUCES.length];   // ticks por fase, indexado por luz
+    private final RuedaTemporizadores rueda;
+    private final RuedaTemporizadores.Vencimiento alVencer = this::alVencer;
+    private CambioFase oyente;
+    private long cambios;
+
+    /**
+     * @param intersecciones número de semáforos
+     * @param logica         función de transición
+     * @param msPorLuz       duración en ms de cada fase, indexada por {@link Light#ordinal()}
+     */
+    public SimuladorRed(int intersecciones, TrafficLightLogic logica, int[] msPorLuz) {
+        estado = new byte[intersecciones];
+        rueda = new RuedaTemporizadores(intersecciones);
+        for (Light luz : LUCES) {
+            siguiente[luz.ordinal()] = (byte) logica.nextState(luz).ordinal();
+            duracion[luz.ordinal()] = Math.max(1, msPorLuz[luz.ordinal()] / MS_POR_TICK);
+        }
+    }
+
+    /**
+     * Todas empiezan en rojo y cada una cambia {@code desfaseMsEntreVecinas} después que la
+     * anterior (onda verde); con desfase 0 cambian juntas.
+     */
+    public void iniciarCoordinada(long desfaseMsEntreVecinas) {
+        for (int i = 0; i < estado.length; i++) {
+            estado[i] = (byte) Light.RED.ordinal();
+            long desfase = (desfaseMsEntreVecinas / MS_POR_TICK * i) % ciclo();
+            rueda.programar(i, duracion[Light.RED.ordinal()] + desfase);
+        }
+    }
+
+    /** Cada intersección arranca en una fase y un punto del ciclo al azar (reproducible por semilla). */
+    public void iniciarIndependiente(long semilla) {
+        SplittableRandom r = new SplittableRandom(semilla);
+        for (int i = 0; i < estado.length; i++) {
+            int luz = r.nextInt(LUCES.length);
+            estado[i] = (byte) luz;
+            rueda.programar(i, 1 + r.nextInt(duracion[luz]));
+        }
+    }
+
+    public void setOyente(CambioFase oyente) {
+        this.oyente = oyente;
+    }
+
+    /** Avanza la red {@code ticks} ticks. */
+    public void avanzar(long ticks) {
+        rueda.avanzar(ticks, alVencer);
+    }
+
+    private void alVencer(int id, long ahora) {
+        int nueva = siguiente[estado[id]];
+        estado[id] = (byte) nueva;
+        rueda.programar(id, duracion[nueva]);
+        cambios++;
+        if (oyente != null) {
+            oyente.cambio(id, LUCES[nueva], ahora);
+        }
+    }
+
+    public Light estado(int interseccion) {
+        return LUCES[estado[interseccion]];
+    }
+
+    public long ciclo() {
+        long c = 0;
+        for (int d : duracion) {
+            c += d;
+        }
+        return c;
+    }
+
+    public int intersecciones() {
+        return estado.length;
+    }
+
+    public long getTick() {
+        return rueda.ahora();
+    }
+
+    public long getCambios() {
+        return cambios;
+    }
+
+    /** Demostración: {@code SimuladorRed [intersecciones] [horas]}. */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        double horas = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        SimuladorRed red = new SimuladorRed(n, new TrafficLightLogic(), new int[]{30_000, 25_000, 4_000});
+        red.iniciarIndependiente(42);
+        long ticks = (long) (horas * 3_600_000 / MS_POR_TICK);
+        long t0 = System.nanoTime();
+        red.avanzar(ticks);
+        double s = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%d intersecciones, %.1f h simuladas en %.2f s: %d cambios (%.1f M/s)%n",
+                n, horas, s, red.getCambios(), red.getCambios() / s / 1e6);
+    }
+}
@@ -1,67 +1,110 @@
 package com.example.semaforo;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.Slider;
+import javafx.scene.control.OverrunStyle;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public class TrafficLightApp extends Application {
 
+    private static final FasesArranque ARRANQUE = new FasesArranque();
+
     private final TrafficLightLogic trafficLightLogic = new TrafficLightLogic();
     private final GameLogic gameLogic = new GameLogic();
-    private final LightRules lightRules = new LightRules();
+    private final MedicionReaccion medicion = new MedicionReaccion();
+    // Reglas y motor se compilan fuera del hilo de JavaFX después del primer cuadro
+    private LightRules reglasIncorporadas;
+    private BaseReglasRecargable baseReglas;
+    private GrabadorSesion grabador;
+    private MetricasSemaforo metricas;
+    private ServidorMetricas servidorMetricas;
+    private ControlActuado controlActuado;
+    private Closeable fuenteDetecciones;
+    private ReteEngine motorInferencia;
 
     private Light currentLight = Light.RED;
-    private Timeline timeline;
+    private SimulacionSemaforo simulacion;
+    private double escalaReloj = 1;
+    private AnimationTimer pulso;
+
+    /** Inferencias que se conservan en el historial; las más viejas se descartan. */
+    private static final int CAPACIDAD_HISTORIAL = 5_000;
 
-    private Circle redCircle;
-    private Circle yellowCircle;
-    private Circle greenCircle;
+    private RenderSemaforo render;
+    private MonitorCuadros monitor;
     private Slider speedSlider;
     private Label stateLabel;
     private Label statusLabel;
     private Label aciertosLabel;
     private Label erroresLabel;
     private Label puntajeLabel;
+    private Label reaccionLabel;
+    private Label latenciaLabel;
     private Label logicLightLabel;
     private Label logicActionLabel;
     private Label logicResultLabel;
     private Label logicRuleLabel;
+    private Label logicDerivedLabel;
     private Label juegoLabel;
     private ComboBox<String> accionComboBox;
-    private ObservableList<String> historialInferencias;
+    private CheckBox peatonCheck;
+    private CheckBox emergenciaCheck;
+    private VBox logicPanel;
+    private ObservableList<String> conocimiento;
+    private final HistorialAcotado<String> historialInferencias = new HistorialAcotado<>(CAPACIDAD_HISTORIAL);
+    private Label historialLabel;
 
     public static void main(String[] args) {
+        ARRANQUE.marcar(FasesArranque.Fase.MAIN);
         launch(args);
     }
 
+    /**
+     * Arranque por etapas: primero se muestran la simulación y el juego; el panel lógico
+     * (listas, base de conocimiento, motor de inferencia) se arma después del primer cuadro,
+     * con las reglas compiladas en segundo plano.
+     */
     @Override
     public void start(Stage stage) {
-        redCircle = createLightCircle(Color.web("#d7263d"));
-        yellowCircle = createLightCircle(Color.web("#f6c667"));
-        greenCircle = createLightCircle(Color.web("#26c281"));
+        ARRANQUE.marcar(FasesArranque.Fase.TOOLKIT);
+        abrirGrabacion();
+        abrirControlActuado();
+        abrirMetricas();
+        leerEscalaReloj();
+
+        render = new RenderSemaforo(Color.web("#d7263d"), Color.web("#f6c667"), Color.web("#26c281"));
 
         speedSlider = createSpeedSlider();
         Label sliderLabel = new Label();
@@ -89,7 +132,10 @@ public class TrafficLightApp extends Application {
 
         VBox gamePanel = createGamePanel();
         gamePanel.setPrefWidth(340);
-        VBox logicPanel = createLogicPanel();
+        logicPanel = new VBox(12, titledLabel("Programación lógica"), new Label("Cargando reglas…"));
+        logicPanel.getStyleClass().add("panel");
+        logicPanel.setAlignment(Pos.CENTER_LEFT);
+        logicPanel.setMaxWidth(Double.MAX_VALUE);
 
         HBox content = new HBox(18, simulationPanel, gamePanel);
         content.setAlignment(Pos.TOP_CENTER);
@@ -110,9 +156,37 @@ public class TrafficLightApp extends Application {
         scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
         scrollPane.getStyleClass().add("app-scroll");
 
-        Scene scene = new Scene(scrollPane, 1240, 820);
+        monitor = new MonitorCuadros(scrollPane, render::getNodosTocados);
+        Scene scene = new Scene(monitor.getRaiz(), 1240, 820);
+        monitor.instalar(scene);
+        if (metricas != null) {
+            metricas.instalar(scene);
+        }
         scene.setFill(Color.web("#0f1116"));
         scene.getStylesheets().add(Objects.requireNonNull(getClass().getResource("/style.css")).toExternalForm());
+        // Instante crudo de la entrada: el filtro de la escena corre antes que cualquier manejador
+        scene.addEventFilter(MouseEvent.MOUSE_PRESSED, event -> medicion.entrada(System.nanoTime()));
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, event -> medicion.entrada(System.nanoTime()));
+        // Tras el layout del pulso que dibuja el verde: ese es el instante en que se ve
+        scene.addPostLayoutPulseListener(() -> {
+            if (ARRANQUE.marcar(FasesArranque.Fase.PRIMER_CUADRO)) {
+                CompletableFuture.runAsync(this::compilarReglas).exceptionally(error -> {
+                    System.err.println("No se pudieron compilar las reglas: " + error.getMessage()
+                            + "; se usan las reglas incorporadas");
+                    LightRules incorporadas = new LightRules();
+                    ReteEngine motor = new ReteEngine(ReglasCompuestas.desde(incorporadas));
+                    Platform.runLater(() -> mostrarPanelLogico(incorporadas, null, motor));
+                    return null;
+                });
+            }
+            long verdeNs = medicion.framePintado(System.nanoTime());
+            if (verdeNs >= 0) {
+                gameLogic.onLightChange(Light.GREEN, verdeNs / 1_000_000);
+                if (grabador != null) {
+                    grabador.cambioLuz(Light.GREEN, verdeNs / 1_000_000);
+                }
+            }
+        });
 
         stage.setTitle("Simulador de Semáforo");
         stage.setScene(scene);
@@ -120,11 +194,10 @@ public class TrafficLightApp extends Application {
         stage.setMinHeight(760);
         stage.show();
 
-        configureTimeline();
+        configureSimulation();
         updateLightColors();
         updateStatus();
         updateScoreLabels();
-        actualizarRegla();
     }
 
     private VBox createHero() {
@@ -147,10 +220,7 @@ public class TrafficLightApp extends Application {
     }
 
     private VBox createTrafficLightBox() {
-        VBox lights = new VBox(12, redCircle, yellowCircle, greenCircle);
-        lights.setAlignment(Pos.CENTER);
-
-        VBox container = new VBox(lights);
+        VBox container = new VBox(render.getVista());
         container.setAlignment(Pos.CENTER);
         container.setPadding(new Insets(16));
         container.getStyleClass().add("traffic-box");
@@ -161,7 +231,7 @@ public class TrafficLightApp extends Application {
         Label cycleInfo = new Label("Ciclo RED → GREEN → YELLOW");
         cycleInfo.getStyleClass().add("stat-chip");
 
-        Label modeInfo = new Label("Cronometrado con Timeline");
+        Label modeInfo = new Label("Reloj de simulación de paso fijo");
         modeInfo.getStyleClass().add("stat-chip");
 
         Label speedInfo = new Label();
@@ -181,17 +251,33 @@ public class TrafficLightApp extends Application {
     private VBox createGamePanel() {
         Button reactionButton = new Button("¡YA!");
         reactionButton.getStyleClass().add("primary-button");
-        reactionButton.setOnAction(event -> registrarIntento());
+        // El intento cuenta al presionar: el ActionEvent llega al soltar y sumaría el tiempo pulsado
+        reactionButton.addEventHandler(MouseEvent.MOUSE_PRESSED, event -> {
+            if (event.getButton() == MouseButton.PRIMARY) {
+                registrarIntento();
+            }
+        });
+        reactionButton.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.SPACE || event.getCode() == KeyCode.ENTER) {
+                event.consume();
+                registrarIntento();
+            }
+        });
 
         juegoLabel = new Label("Pulsa cuando la luz se ponga en verde.");
         aciertosLabel = new Label();
         erroresLabel = new Label();
         puntajeLabel = new Label();
+        reaccionLabel = new Label();
+        latenciaLabel = new Label();
+        latenciaLabel.setWrapText(true);
 
         VBox statsRow = new VBox(6,
                 labeledValue("Aciertos", aciertosLabel),
                 labeledValue("Errores", erroresLabel),
-                labeledValue("Puntaje", puntajeLabel));
+                labeledValue("Puntaje", puntajeLabel),
+                labeledValue("Reacción neta", reaccionLabel),
+                labeledValue("Latencia del sistema", latenciaLabel));
         statsRow.getStyleClass().add("info-box");
 
         VBox gamePanel = new VBox(10,
@@ -204,8 +290,47 @@ public class TrafficLightApp extends Application {
         return gamePanel;
     }
 
-    private VBox createLogicPanel() {
-        historialInferencias = FXCollections.observableArrayList();
+    /**
+     * Corre fuera del hilo de JavaFX: compila las reglas incorporadas, lee la base de archivo
+     * (si hay) y arma la red de inferencia. El panel se construye después en el hilo de JavaFX.
+     */
+    private void compilarReglas() {
+        LightRules incorporadas = new LightRules();
+        BaseReglasRecargable base = cargarBaseReglas();
+        ReteEngine motor = new ReteEngine(ReglasCompuestas.desde(base != null ? base.actual() : incorporadas));
+        Platform.runLater(() -> mostrarPanelLogico(incorporadas, base, motor));
+    }
+
+    /**
+     * En el hilo de JavaFX: publica las reglas, arma el panel y recién entonces vigila el
+     * archivo, así ninguna recarga llega antes de que haya panel para mostrarla.
+     */
+    private void mostrarPanelLogico(LightRules incorporadas, BaseReglasRecargable base, ReteEngine motor) {
+        reglasIncorporadas = incorporadas;
+        baseReglas = base;
+        motorInferencia = motor;
+        createLogicPanel();
+        actualizarRegla();
+        if (base != null) {
+            try {
+                base.vigilar(); // relee una vez en su hilo lo guardado desde la carga
+            } catch (IOException e) {
+                System.err.println("No se puede vigilar " + base.getArchivo() + ": " + e.getMessage());
+            }
+        }
+        ARRANQUE.marcar(FasesArranque.Fase.INTERACTIVA);
+        System.out.println(ARRANQUE.resumen());
+        // Para medir arranques en frío y para el entrenamiento del archivo CDS (perfil cds)
+        if (Boolean.getBoolean("semaforo.salirAlArrancar")) {
+            Platform.exit();
+        }
+    }
+
+    private boolean panelLogicoListo() {
+        return accionComboBox != null;
+    }
+
+    private void createLogicPanel() {
         accionComboBox = new ComboBox<>(FXCollections.observableArrayList(
                 "avanzar", "esperar", "detenerse", "cruzar"));
         accionComboBox.getSelectionModel().selectFirst();
@@ -218,17 +343,29 @@ public class TrafficLightApp extends Application {
         logicActionLabel = createValueLabel();
         logicResultLabel = createValueLabel();
         logicRuleLabel = createValueLabel();
+        logicDerivedLabel = createValueLabel();
         logicLightLabel.getStyleClass().add("value");
         logicActionLabel.getStyleClass().add("value");
         logicResultLabel.getStyleClass().add("value");
         logicRuleLabel.getStyleClass().add("value");
+        logicDerivedLabel.getStyleClass().add("value");
+
+        peatonCheck = new CheckBox("Peatón esperando");
+        emergenciaCheck = new CheckBox("Vehículo de emergencia");
+        peatonCheck.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            motorInferencia.cambiar("cruce", "peaton", newVal);
+            actualizarRegla();
+        });
+        emergenciaCheck.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            motorInferencia.cambiar("via", "emergencia", newVal);
+            actualizarRegla();
+        });
+        afirmarHechosBase();
 
-        ObservableList<String> conocimiento = FXCollections.observableArrayList();
-        lightRules.getReglas().forEach(regla -> conocimiento.add(
-                regla.luz().name().toLowerCase() + " + " + regla.accion() + " → " + regla.resultado()
-                        + " — " + regla.descripcion()));
+        conocimiento = FXCollections.observableArrayList();
+        llenarConocimiento();
 
-        ListView<String> knowledgeListView = createWrappedListView(conocimiento);
+        ListView<String> knowledgeListView = createListView(conocimiento);
         knowledgeListView.setPrefHeight(240);
         knowledgeListView.setMinHeight(180);
         knowledgeListView.setPlaceholder(new Label("Sin reglas cargadas"));
@@ -252,6 +389,8 @@ public class TrafficLightApp extends Application {
         detalleGrid.add(logicResultLabel, 1, 2);
         detalleGrid.add(rowLabel("Regla aplicada"), 0, 3);
         detalleGrid.add(logicRuleLabel, 1, 3);
+        detalleGrid.add(rowLabel("Hechos derivados"), 0, 4);
+        detalleGrid.add(logicDerivedLabel, 1, 4);
         detalleGrid.getStyleClass().add("info-grid");
 
         VBox resumenBox = new VBox(10,
@@ -265,6 +404,8 @@ public class TrafficLightApp extends Application {
         VBox accionBox = new VBox(10,
                 new Label("Acción"),
                 accionComboBox,
+                peatonCheck,
+                emergenciaCheck,
                 evaluarButton);
         accionBox.setAlignment(Pos.CENTER_LEFT);
         accionBox.getStyleClass().add("info-box");
@@ -272,7 +413,8 @@ public class TrafficLightApp extends Application {
         accionBox.setMinWidth(220);
         accionBox.setMaxWidth(320);
 
-        ListView<String> historialListView = createWrappedListView(historialInferencias);
+        historialLabel = new Label("Historial de inferencias");
+        ListView<String> historialListView = createListView(historialInferencias);
         historialListView.setPrefHeight(220);
         historialListView.setMinHeight(180);
         historialListView.setPlaceholder(new Label("Aún no hay inferencias"));
@@ -292,16 +434,12 @@ public class TrafficLightApp extends Application {
         Label subtitle = new Label("Reglas declarativas + inferencias en tiempo real");
         subtitle.getStyleClass().add("section-subtitle");
 
-        VBox logicPanel = new VBox(12,
+        logicPanel.getChildren().setAll(
                 titledLabel("Programación lógica"),
                 subtitle,
                 infoRow,
-                new Label("Historial de inferencias"),
+                historialLabel,
                 historialListView);
-        logicPanel.getStyleClass().add("panel");
-        logicPanel.setAlignment(Pos.CENTER_LEFT);
-        logicPanel.setMaxWidth(Double.MAX_VALUE);
-        return logicPanel;
     }
 
     private HBox buildStatusRow() {
@@ -318,25 +456,54 @@ public class TrafficLightApp extends Application {
         Button pauseButton = new Button("Pausar");
         Button resumeButton = new Button("Reanudar");
 
-        startButton.setOnAction(event -> startTimeline());
-        pauseButton.setOnAction(event -> {
-            if (timeline != null) {
-                timeline.pause();
-            }
-        });
-        resumeButton.setOnAction(event -> {
-            if (timeline != null) {
-                timeline.play();
-            }
-        });
+        startButton.setOnAction(event -> startSimulation());
+        pauseButton.setOnAction(event -> simulacion.getReloj().setModo(RelojSimulacion.Modo.PAUSADO));
+        resumeButton.setOnAction(event -> enMarcha());
 
-        HBox controls = new HBox(10, startButton, pauseButton, resumeButton);
+        CheckBox canvasCheck = new CheckBox("Canvas");
+        canvasCheck.selectedProperty().addListener((obs, oldVal, newVal) -> render.setModoCanvas(newVal));
+        CheckBox metricasCheck = new CheckBox("Métricas de cuadro");
+        metricasCheck.selectedProperty().addListener((obs, oldVal, newVal) -> monitor.setVisible(newVal));
+
+        HBox controls = new HBox(10, startButton, pauseButton, resumeButton, canvasCheck, metricasCheck);
         controls.setAlignment(Pos.CENTER);
         return controls;
     }
 
-    private void configureTimeline() {
-        timeline = createTimeline(secondsPerState(speedSlider.getValue()));
+    private void configureSimulation() {
+        simulacion = new SimulacionSemaforo(trafficLightLogic, msPerState(speedSlider.getValue()));
+        pulso = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (metricas != null) {
+                    metricas.tick(now);
+                }
+                simulacion.getReloj().actualizar(now);
+                if (historialInferencias.volcar() > 0) {
+                    historialLabel.setText(historialInferencias.getTotal() <= historialInferencias.capacidad()
+                            ? "Historial de inferencias"
+                            : "Historial de inferencias (últimas " + historialInferencias.size() + " de "
+                            + historialInferencias.getTotal() + ")");
+                }
+                ControlActuado.Estado actuado = controlActuado != null ? controlActuado.getEstado() : null;
+                Light luz = actuado != null ? actuado.luz() : simulacion.getLuz();
+                if (luz != currentLight) {
+                    currentLight = luz;
+                    medicion.cambioDeLuz(currentLight, actuado != null ? actuado.desdeNs()
+                            : simulacion.getReloj().instanteRealNs(simulacion.getUltimoCambioMs()));
+                    if (grabador != null && currentLight != Light.GREEN) {
+                        grabador.cambioLuz(currentLight, now / 1_000_000); // el verde se graba al dibujarse
+                    }
+                    if (metricas != null) {
+                        metricas.cambioDeLuz(currentLight);
+                    }
+                    updateLightColors();
+                    updateStatus();
+                    actualizarRegla();
+                }
+            }
+        };
+        pulso.start();
     }
 
     private double secondsPerState(double speedFactor) {
@@ -344,50 +511,53 @@ public class TrafficLightApp extends Application {
         return 3.0 / clamped;
     }
 
-    private Timeline createTimeline(double secondsPerState) {
-        KeyFrame frame = new KeyFrame(Duration.seconds(Math.max(0.3, secondsPerState)), event -> {
-            currentLight = trafficLightLogic.nextState(currentLight);
-            gameLogic.onLightChange(currentLight, System.currentTimeMillis());
-            updateLightColors();
-            updateStatus();
-            actualizarRegla();
-        });
-
-        Timeline newTimeline = new Timeline(frame);
-        newTimeline.setCycleCount(Animation.INDEFINITE);
-        return newTimeline;
-    }
-
-    private void rebuildTimelineWithDuration(double secondsPerState) {
-        Animation.Status previousStatus = timeline != null ? timeline.getStatus() : Animation.Status.STOPPED;
-        if (timeline != null) {
-            timeline.stop();
-        }
-        timeline = createTimeline(secondsPerState);
-
-        if (previousStatus == Animation.Status.RUNNING) {
-            timeline.play();
-        } else if (previousStatus == Animation.Status.PAUSED) {
-            timeline.pause();
-        }
+    private long msPerState(double speedFactor) {
+        return Math.round(Math.max(0.3, secondsPerState(speedFactor)) * 1000);
     }
 
-    private void startTimeline() {
-        rebuildTimelineWithDuration(secondsPerState(speedSlider.getValue()));
-        if (timeline == null) {
-            configureTimeline();
-        }
-        currentLight = Light.RED;
+    private void startSimulation() {
+        simulacion.reiniciar();
+        simulacion.setDuracionFaseMs(msPerState(speedSlider.getValue()));
+        currentLight = controlActuado != null ? controlActuado.getLuz() : simulacion.getLuz();
         gameLogic.reset();
+        medicion.nuevaSesion();
+        medicion.cambioDeLuz(currentLight, System.nanoTime());
         updateLightColors();
         updateStatus();
         actualizarRegla();
         updateScoreLabels();
-        timeline.playFromStart();
+        enMarcha();
+    }
+
+    /** Pone el reloj en marcha: en tiempo real o escalado según {@code -Dsemaforo.escala}. */
+    private void enMarcha() {
+        RelojSimulacion reloj = simulacion.getReloj();
+        if (escalaReloj != 1) {
+            reloj.setEscala(escalaReloj);
+            reloj.setModo(RelojSimulacion.Modo.ESCALADO);
+        } else {
+            reloj.setModo(RelojSimulacion.Modo.TIEMPO_REAL);
+        }
     }
 
+    /**
+     * Puntúa con tiempos monótonos: desde el pulso que mostró el verde hasta el evento de
+     * entrada crudo. La latencia de pantalla y de entrada queda fuera del puntaje.
+     */
     private void registrarIntento() {
-        GameLogic.AttemptResult result = gameLogic.registrarIntento(System.currentTimeMillis(), currentLight);
+        long entradaNs = medicion.alManejar(System.nanoTime());
+        GameLogic.AttemptResult result = gameLogic.registrarIntento(entradaNs / 1_000_000, currentLight);
+        long reaccionNs = result.acierto() ? medicion.reaccionNs(entradaNs) : -1;
+        if (result.acierto()) {
+            medicion.registrarAcierto(reaccionNs);
+        }
+        if (metricas != null) {
+            metricas.intento(result.acierto(), reaccionNs);
+        }
+        if (grabador != null) {
+            grabador.intento(currentLight, entradaNs / 1_000_000, result.acierto(), result.puntos(),
+                    result.reaccionMs() != null ? result.reaccionMs() : -1);
+        }
         juegoLabel.setText(result.mensaje());
         updateScoreLabels();
     }
@@ -399,33 +569,17 @@ public class TrafficLightApp extends Application {
         slider.setMajorTickUnit(0.5);
         slider.setMinorTickCount(4);
         slider.setBlockIncrement(0.1);
-        slider.valueProperty().addListener((obs, oldVal, newVal) -> rebuildTimelineWithDuration(secondsPerState(newVal.doubleValue())));
+        // Solo cambia un parámetro de la simulación; no se reconstruye nada
+        slider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (simulacion != null) {
+                simulacion.setDuracionFaseMs(msPerState(newVal.doubleValue()));
+            }
+        });
         return slider;
     }
 
-    private Circle createLightCircle(Color activeColor) {
-        Circle circle = new Circle(45);
-        circle.getStyleClass().add("traffic-light");
-        circle.setStroke(Color.web("#0d0f14"));
-        circle.setStrokeWidth(3);
-        circle.setUserData(activeColor);
-        circle.setFill(dimColor(activeColor));
-        return circle;
-    }
-
     private void updateLightColors() {
-        setCircleState(redCircle, currentLight == Light.RED);
-        setCircleState(yellowCircle, currentLight == Light.YELLOW);
-        setCircleState(greenCircle, currentLight == Light.GREEN);
-    }
-
-    private void setCircleState(Circle circle, boolean active) {
-        Color base = (Color) circle.getUserData();
-        circle.setFill(active ? base : dimColor(base));
-    }
-
-    private Color dimColor(Color color) {
-        return color.darker().darker();
+        render.mostrar(currentLight);
     }
 
     private void updateStatus() {
@@ -441,6 +595,9 @@ public class TrafficLightApp extends Application {
         aciertosLabel.setText("Aciertos: " + gameLogic.getAciertos());
         erroresLabel.setText("Errores: " + gameLogic.getErrores());
         puntajeLabel.setText("Puntaje: " + gameLogic.getPuntajeTotal());
+        reaccionLabel.setText(medicion.getReacciones().resumenMs());
+        latenciaLabel.setText("Pantalla " + medicion.getLatenciaPantalla().resumenMs()
+                + "\nEntrada " + medicion.getLatenciaEntrada().resumenMs());
     }
 
     private void evaluarAccionSeleccionada() {
@@ -452,20 +609,201 @@ public class TrafficLightApp extends Application {
     }
 
     private void evaluarReglaActual(boolean registrarHistorial) {
+        if (!panelLogicoListo()) {
+            return; // se evalúa al terminar de armarse el panel
+        }
         String accionSeleccionada = accionComboBox.getSelectionModel().getSelectedItem();
-        LightRules.Regla regla = lightRules.evaluarAccion(currentLight, accionSeleccionada);
+        LightRules.Regla regla = lightRules().evaluarAccion(currentLight, accionSeleccionada);
+        String accion = LightRules.esDesconocida(regla) ? accionSeleccionada : regla.accion();
+        if (metricas != null) {
+            metricas.evaluacion(regla);
+        }
+        if (grabador != null) {
+            grabador.evaluacion(currentLight, accionSeleccionada, System.nanoTime() / 1_000_000,
+                    !LightRules.esDesconocida(regla), regla.resultado());
+        }
 
         logicLightLabel.setText("Luz actual: " + currentLight);
-        logicActionLabel.setText("Acción seleccionada: " + regla.accion());
+        logicActionLabel.setText("Acción seleccionada: " + accion);
         logicResultLabel.setText("Resultado: " + regla.resultado());
         logicRuleLabel.setText("Regla aplicada: " + regla.descripcion());
 
+        // Solo se reevalúan las producciones que mencionan la luz o la acción que cambió
+        motorInferencia.cambiar("semaforo", "luz", currentLight);
+        motorInferencia.cambiar("semaforo", "accion", IndiceAcciones.normalizar(accionSeleccionada));
+        logicDerivedLabel.setText(motorInferencia.derivados().stream()
+                .filter(h -> !h.atributo().equals("resultado"))
+                .map(h -> h.sujeto() + "." + h.atributo() + " = " + h.valor())
+                .sorted()
+                .collect(Collectors.joining(" · "))
+                .transform(texto -> texto.isEmpty() ? "—" : texto));
+
         if (registrarHistorial) {
-            historialInferencias.add("[Luz: " + currentLight + ", Acción: " + regla.accion()
+            historialInferencias.agregar("[Luz: " + currentLight + ", Acción: " + accion
                     + "] → " + regla.resultado() + " | " + regla.descripcion());
         }
     }
 
+    private LightRules lightRules() {
+        return baseReglas != null ? baseReglas.actual() : reglasIncorporadas;
+    }
+
+    /**
+     * Con {@code -Dsemaforo.reglas=archivo.pl} la base de conocimiento se lee de ese archivo
+     * y se recarga sola al guardarlo; sin la propiedad se usan las reglas incorporadas.
+     */
+    private BaseReglasRecargable cargarBaseReglas() {
+        String ruta = System.getProperty("semaforo.reglas");
+        if (ruta == null || ruta.isBlank()) {
+            return null;
+        }
+        try {
+            BaseReglasRecargable base = new BaseReglasRecargable(Path.of(ruta),
+                    nueva -> Platform.runLater(this::alRecargarReglas),
+                    error -> Platform.runLater(() -> {
+                        if (panelLogicoListo()) {
+                            logicRuleLabel.setText("Regla aplicada: error al recargar " + ruta
+                                    + " (" + error.getMessage() + ")");
+                        }
+                    }));
+            return base;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo cargar " + ruta + ": " + e.getMessage() + "; se usan las reglas incorporadas");
+            return null;
+        }
+    }
+
+    /**
+     * Con {@code -Dsemaforo.grabar=sesion.ses} se graban los cambios de luz, intentos y
+     * evaluaciones; la grabación se reproduce con {@link ReproductorSesion}.
+     */
+    private void abrirGrabacion() {
+        String ruta = System.getProperty("semaforo.grabar");
+        if (ruta == null || ruta.isBlank()) {
+            return;
+        }
+        try {
+            grabador = new GrabadorSesion(Path.of(ruta));
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir la grabación " + ruta + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Con {@code -Dsemaforo.actuado=sintetico} (o un número de puerto) las luces las decide
+     * {@link ControlActuado} con detecciones sintéticas (o recibidas por TCP en localhost) en
+     * lugar del temporizador; las restricciones salen de {@code -Dsemaforo.control=archivo.pl}.
+     */
+    private void abrirControlActuado() {
+        String fuente = System.getProperty("semaforo.actuado");
+        if (fuente == null || fuente.isBlank()) {
+            return;
+        }
+        String archivo = System.getProperty("semaforo.control");
+        try {
+            ReglasControl reglas = archivo == null || archivo.isBlank()
+                    ? new ReglasControl() : ReglasControl.cargar(Path.of(archivo));
+            ControlActuado control = new ControlActuado(reglas, 1 << 14).iniciar();
+            try {
+                fuenteDetecciones = fuente.equalsIgnoreCase("sintetico")
+                        ? FuentesDeteccion.sintetica(control, 50, System.nanoTime())
+                        : FuentesDeteccion.socket(control, Integer.parseInt(fuente));
+            } catch (IOException | RuntimeException e) {
+                control.close();
+                throw e;
+            }
+            controlActuado = control;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo iniciar el control actuado (" + fuente + "): " + e.getMessage()
+                    + "; se usa el temporizador");
+        }
+    }
+
+    /**
+     * Con {@code -Dsemaforo.metricas=9464} las métricas se sirven en formato Prometheus en
+     * {@code http://127.0.0.1:9464/metrics}; sin la propiedad no se mide nada.
+     */
+    private void abrirMetricas() {
+        String puerto = System.getProperty("semaforo.metricas");
+        if (puerto == null || puerto.isBlank()) {
+            return;
+        }
+        try {
+            MetricasSemaforo nuevas = new MetricasSemaforo();
+            servidorMetricas = new ServidorMetricas(nuevas, Integer.parseInt(puerto.trim()));
+            metricas = nuevas;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo abrir el puerto de métricas " + puerto + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Con {@code -Dsemaforo.escala=30} la simulación corre 30 segundos simulados por segundo
+     * real (demostraciones rápidas y el arnés de cuadros); sin la propiedad, en tiempo real.
+     */
+    private void leerEscalaReloj() {
+        String escala = System.getProperty("semaforo.escala");
+        if (escala == null || escala.isBlank()) {
+            return;
+        }
+        try {
+            double valor = Double.parseDouble(escala.trim());
+            if (!(valor > 0)) {
+                throw new IllegalArgumentException("debe ser positiva");
+            }
+            escalaReloj = valor;
+        } catch (RuntimeException e) {
+            System.err.println("Escala de reloj inválida " + escala + ": " + e.getMessage() + "; se usa tiempo real");
+        }
+    }
+
+    @Override
+    public void stop() throws IOException {
+        if (servidorMetricas != null) {
+            servidorMetricas.close();
+            servidorMetricas = null;
+        }
+        if (fuenteDetecciones != null) {
+            fuenteDetecciones.close();
+            fuenteDetecciones = null;
+        }
+        if (controlActuado != null) {
+            controlActuado.close();
+            controlActuado = null;
+        }
+        if (grabador != null) {
+            grabador.close();
+            grabador = null;
+        }
+        if (baseReglas != null) {
+            baseReglas.close();
+        }
+    }
+
+    private void alRecargarReglas() {
+        if (!panelLogicoListo()) {
+            return;
+        }
+        motorInferencia = new ReteEngine(ReglasCompuestas.desde(lightRules()));
+        afirmarHechosBase();
+        llenarConocimiento();
+        actualizarRegla();
+    }
+
+    private void afirmarHechosBase() {
+        int hora = LocalTime.now().getHour();
+        motorInferencia.cambiar("reloj", "franja", hora >= 7 && hora < 20 ? "dia" : "noche");
+        motorInferencia.cambiar("cruce", "peaton", peatonCheck.isSelected());
+        motorInferencia.cambiar("via", "emergencia", emergenciaCheck.isSelected());
+    }
+
+    private void llenarConocimiento() {
+        conocimiento.setAll(lightRules().getReglas().stream()
+                .map(regla -> regla.luz().name().toLowerCase() + " + " + regla.accion() + " → " + regla.resultado()
+                        + " — " + regla.descripcion())
+                .toList());
+    }
+
     private Label titledLabel(String text) {
         Label label = new Label(text);
         label.getStyleClass().add("heading");
@@ -485,29 +823,37 @@ public class TrafficLightApp extends Application {
         return new VBox(2, label, valueLabel);
     }
 
-    private ListView<String> createWrappedListView(ObservableList<String> items) {
+    /**
+     * Lista con celdas de alto fijo y una sola línea (el texto completo va en el tooltip): el
+     * ListView solo crea y acomoda las celdas visibles, y cambiar el ancho no obliga a
+     * recalcular la altura de cada fila.
+     */
+    private ListView<String> createListView(ObservableList<String> items) {
         ListView<String> listView = new ListView<>(items);
+        listView.setFixedCellSize(30);
         listView.setCellFactory(list -> new ListCell<>() {
-            private final Label label = new Label();
+            private final Tooltip tooltip = new Tooltip();
             {
-                label.setWrapText(true);
-                label.getStyleClass().add("list-cell-label");
-                label.maxWidthProperty().bind(listView.widthProperty().subtract(26));
+                getStyleClass().add("list-cell-label");
+                setTextOverrun(OverrunStyle.ELLIPSIS);
                 setPrefWidth(0);
+                tooltip.setWrapText(true);
+                tooltip.setMaxWidth(520);
             }
 
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
-                    setGraphic(null);
+                    setText(null);
+                    setTooltip(null);
                 } else {
-                    label.setText(item);
-                    setGraphic(label);
+                    setText(item);
+                    tooltip.setText(item);
+                    setTooltip(tooltip);
                 }
             }
         });
-        listView.widthProperty().addListener((obs, oldW, newW) -> listView.refresh());
         return listView;
     }
 
@@ -0,0 +1,15 @@
+% Restricciones del control actuado (misma que ReglasControl.LIMITES_BASE).
+% Formato: limite(luz, clave, milisegundos). La luz es la de la vía principal:
+% en rojo tiene el verde la vía transversal.
+% Ejecuta ControlActuado con -Dsemaforo.control=ruta/a/este/archivo para cambiarlas.
+
+limite(green,  minimo,     5000).   % verde mínimo de la principal
+limite(green,  extension,  2000).   % cada vehículo de la principal alarga el verde hasta 2 s
+limite(green,  maximo,    30000).   % corte por máximo si alguien espera en la transversal
+
+limite(yellow, minimo,     3000).   % despeje (duración fija)
+
+limite(red,    minimo,     4000).   % verde mínimo de la transversal
+limite(red,    extension,  2000).
+limite(red,    maximo,    20000).
+limite(red,    peatonal,   8000).   % con un peatón llamando, el rojo dura al menos esto
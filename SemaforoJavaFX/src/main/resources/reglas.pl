@@ -0,0 +1,19 @@
+% Base de conocimiento del semáforo (misma que LightRules.REGLAS_BASE).
+% Formato: regla(luz, acción, resultado, descripción).
+% Ejecuta con -Dsemaforo.reglas=ruta/a/este/archivo para editarla en caliente.
+
+regla(red,    avanzar,   "Infracción", "rojo + avanzar → Infracción").
+regla(green,  avanzar,   "Permitido",  "verde + avanzar → Permitido").
+regla(yellow, avanzar,   "Precaución", "amarillo + avanzar → Precaución").
+
+regla(red,    esperar,   "Correcto",   "rojo + esperar → Correcto").
+regla(green,  esperar,   "Correcto",   "verde + esperar → Correcto").
+regla(yellow, esperar,   "Correcto",   "amarillo + esperar → Correcto").
+
+regla(red,    detenerse, "Correcto",   "rojo + detenerse → Correcto").
+regla(yellow, detenerse, "Seguro",     "amarillo + detenerse → Seguro").
+regla(green,  detenerse, "Precaución", "verde + detenerse → Precaución innecesaria").
+
+regla(red,    cruzar,    "Infracción", "rojo + cruzar → Infracción").
+regla(green,  cruzar,    "Precaución", "verde + cruzar → Precaución: mirar ambos lados").
+regla(yellow, cruzar,    "Riesgo",     "amarillo + cruzar → Riesgo alto").
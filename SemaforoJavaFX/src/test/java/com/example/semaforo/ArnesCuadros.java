@@ -0,0 +1,318 @@
+package com.example.semaforo;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ButtonBase;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.layout.StackPane;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arnés sin pantalla para medir los cuadros de {@link TrafficLightApp}.
+ *
+ * Arranca la aplicación sobre Monocle (plataforma Headless, dibujo por software), la lleva
+ * a la velocidad máxima del control con el reloj escalado ({@code semaforo.escala}) para que
+ * la luz cambie aproximadamente en cada pulso, y durante N ciclos de luces presiona el botón
+ * de reacción y el de evaluar como lo haría un usuario. Todo lo hace desde fuera, como un
+ * usuario: encuentra los controles por su texto en la escena y cuenta los cambios de luz en
+ * la etiqueta de estado, sin ganchos en la aplicación. Por pulso registra:
+ * <ul>
+ *   <li>trabajo en el hilo de JavaFX: desde el primer temporizador de animación del pulso
+ *       hasta el final del layout (incluye el manejador de la aplicación, CSS y layout);</li>
+ *   <li>tiempo de cuadro: distancia entre pulsos;</li>
+ *   <li>pasadas de layout de la raíz y bytes asignados por el hilo de JavaFX.</li>
+ * </ul>
+ * Sale con código 1 si el p99 del trabajo por pulso supera el presupuesto. El presupuesto
+ * vacío se lee de la línea base ({@code presupuestoMs=} en el archivo); uno negativo solo mide
+ * e informa el p99 para fijarlo.
+ *
+ *   java -cp ... com.example.semaforo.ArnesCuadros [ciclos] [presupuestoMs] [linea-base]
+ *
+ * Necesita {@code org.testfx:openjfx-monocle} en el classpath de pruebas (perfil {@code cuadros} del pom).
+ */
+public final class ArnesCuadros {
+
+    /** Pulsos de calentamiento (JIT, armado del panel lógico) antes de medir. */
+    private static final int PULSOS_CALENTAMIENTO = 300;
+    /** Pulsos que se espera a que el panel lógico termine de armarse. */
+    private static final int PULSOS_MAX_ESPERA = 3_000;
+    /** Con la fase de 500 ms de la velocidad máxima, unos 17 ms reales por luz. */
+    private static final String ESCALA = "30";
+    private static final String PREFIJO_ESTADO = "Estado: ";
+
+    /** Raíz que envuelve a la de la aplicación para contar las pasadas de layout que la alcanzan. */
+    private static final class RaizContada extends StackPane {
+        private long layouts;
+
+        @Override
+        protected void layoutChildren() {
+            layouts++;
+            super.layoutChildren();
+        }
+    }
+
+    public record Resultado(long pulsos, long ciclos, long intentos, long evaluaciones,
+                            double trabajoP50Ms, double trabajoP99Ms, double trabajoMaxMs,
+                            double cuadroP50Ms, double cuadroP99Ms,
+                            double layoutsPorPulso, double bytesPorPulso, double mbPorSegundo) {
+
+        @Override
+        public String toString() {
+            return String.format("%d pulsos, %d ciclos de luces, %d intentos, %d evaluaciones%n"
+                            + "  trabajo por pulso  p50 %.2f ms · p99 %.2f ms · máx %.2f ms%n"
+                            + "  tiempo de cuadro   p50 %.2f ms · p99 %.2f ms%n"
+                            + "  layout de la raíz  %.2f por pulso%n"
+                            + "  asignación (FX)    %.0f B por pulso · %.1f MB/s",
+                    pulsos, ciclos, intentos, evaluaciones, trabajoP50Ms, trabajoP99Ms, trabajoMaxMs,
+                    cuadroP50Ms, cuadroP99Ms, layoutsPorPulso, bytesPorPulso, mbPorSegundo);
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean MX =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long ciclos;
+    private final TrafficLightApp app = new TrafficLightApp();
+    private final HistogramaLatencia trabajo = new HistogramaLatencia();
+    private final HistogramaLatencia cuadro = new HistogramaLatencia();
+    private final CountDownLatch fin = new CountDownLatch(1);
+
+    private Scene scene;
+    private RaizContada raiz;
+    private long cambiosLuz;
+    private int pulso;
+    private boolean midiendo;
+    private long inicioPulsoNs = -1;
+    private long inicioMedicionNs;
+    private long cambiosInicio;
+    private long layoutsInicio;
+    private long bytesInicio;
+    private long pulsosMedidos;
+    private long intentos;
+    private long evaluaciones;
+    private Resultado resultado;
+    private volatile String falla;
+
+    private ArnesCuadros(long ciclos) {
+        this.ciclos = ciclos;
+    }
+
+    /** Se llama primero en cada pulso: el temporizador del arnés se inicia antes que el de la aplicación. */
+    private void alIniciarPulso(long ahoraNs) {
+        long ahora = System.nanoTime();
+        if (midiendo && inicioPulsoNs >= 0) {
+            cuadro.registrar(ahora - inicioPulsoNs);
+        }
+        inicioPulsoNs = ahora;
+        pulso++;
+
+        if (!midiendo) {
+            if (boton("Evaluar acción") != null && pulso >= PULSOS_CALENTAMIENTO) {
+                empezarMedicion();
+            } else if (pulso > PULSOS_MAX_ESPERA) {
+                fallar("El panel lógico no se armó en " + PULSOS_MAX_ESPERA + " pulsos");
+            }
+            return;
+        }
+        // Un usuario muy activo: presiona el botón de reacción un pulso sí y otro no, y evalúa cada cinco
+        if ((pulso & 1) == 0) {
+            presionar(boton("¡YA!"));
+            intentos++;
+        }
+        if (pulso % 5 == 0) {
+            boton("Evaluar acción").fire();
+            evaluaciones++;
+        }
+    }
+
+    private void alTerminarLayout() {
+        if (!midiendo) {
+            return;
+        }
+        trabajo.registrar(System.nanoTime() - inicioPulsoNs);
+        pulsosMedidos++;
+        long ciclosHechos = (cambiosLuz - cambiosInicio) / Light.values().length;
+        if (ciclosHechos >= ciclos) {
+            terminar(ciclosHechos);
+        }
+    }
+
+    private void empezarMedicion() {
+        Slider velocidad = (Slider) scene.lookup(".slider");
+        velocidad.setValue(velocidad.getMax());
+        boton("Iniciar").fire();
+        midiendo = true;
+        inicioMedicionNs = System.nanoTime();
+        cambiosInicio = cambiosLuz;
+        layoutsInicio = raiz.layouts;
+        bytesInicio = MX.getCurrentThreadAllocatedBytes();
+    }
+
+    private void terminar(long ciclosHechos) {
+        midiendo = false;
+        double segundos = (System.nanoTime() - inicioMedicionNs) / 1e9;
+        long bytes = MX.getCurrentThreadAllocatedBytes() - bytesInicio;
+        resultado = new Resultado(pulsosMedidos, ciclosHechos, intentos, evaluaciones,
+                trabajo.percentil(0.5) / 1e6, trabajo.percentil(0.99) / 1e6, trabajo.getMaximo() / 1e6,
+                cuadro.percentil(0.5) / 1e6, cuadro.percentil(0.99) / 1e6,
+                (double) (raiz.layouts - layoutsInicio) / pulsosMedidos,
+                (double) bytes / pulsosMedidos, bytes / segundos / 1e6);
+        fin.countDown();
+    }
+
+    /** Botón visible con ese texto (null si todavía no existe). */
+    private ButtonBase boton(String texto) {
+        for (Node n : scene.getRoot().lookupAll(".button")) {
+            if (n instanceof ButtonBase b && texto.equals(b.getText())) {
+                return b;
+            }
+        }
+        return null;
+    }
+
+    private static void presionar(Node boton) {
+        Event.fireEvent(boton, new MouseEvent(MouseEvent.MOUSE_PRESSED, 1, 1, 1, 1, MouseButton.PRIMARY, 1,
+                false, false, false, false, true, false, false, false, false, true, null));
+    }
+
+    private void fallar(String motivo) {
+        if (falla == null) {
+            falla = motivo;
+        }
+        fin.countDown();
+    }
+
+    private void arrancar() {
+        // Un error en un pulso (o una biblioteca nativa que falta) termina la medición en vez de colgarla
+        Thread.currentThread().setUncaughtExceptionHandler((hilo, error) -> {
+            error.printStackTrace();
+            fallar("Error en el hilo de JavaFX: " + error);
+        });
+        // Antes que la aplicación: así corre primero en cada pulso
+        new AnimationTimer() {
+            @Override
+            public void handle(long ahora) {
+                alIniciarPulso(ahora);
+            }
+        }.start();
+        Stage stage = new Stage();
+        app.start(stage);
+        scene = stage.getScene();
+        // La raíz de la aplicación pasa a ser hija de una que cuenta sus layouts
+        Parent original = scene.getRoot();
+        raiz = new RaizContada();
+        scene.setRoot(raiz);
+        raiz.getChildren().add(original);
+        // Cada cambio de luz reescribe la etiqueta de estado ("Estado: GREEN"...)
+        for (Node n : original.lookupAll(".label")) {
+            if (n instanceof Label etiqueta && etiqueta.getText() != null
+                    && etiqueta.getText().startsWith(PREFIJO_ESTADO)) {
+                etiqueta.textProperty().addListener((obs, antes, ahora) -> cambiosLuz++);
+            }
+        }
+        // Después de las escuchas de la aplicación: el layout del pulso ya terminó
+        scene.addPostLayoutPulseListener(this::alTerminarLayout);
+    }
+
+    public static Resultado medir(long ciclos, long esperaMaxS) throws Exception {
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        System.setProperty("semaforo.escala", ESCALA);
+        ArnesCuadros arnes = new ArnesCuadros(ciclos);
+        CountDownLatch iniciado = new CountDownLatch(1);
+        Platform.startup(() -> {
+            try {
+                arnes.arrancar();
+            } catch (RuntimeException | Error e) {
+                arnes.fallar("No se pudo iniciar la aplicación: " + e);
+            } finally {
+                iniciado.countDown();
+            }
+        });
+        iniciado.await();
+        try {
+            if (!arnes.fin.await(esperaMaxS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("No se completaron " + ciclos + " ciclos en " + esperaMaxS + " s");
+            }
+            if (arnes.falla != null) {
+                throw new IllegalStateException(arnes.falla);
+            }
+            return arnes.resultado;
+        } finally {
+            CountDownLatch detenido = new CountDownLatch(1);
+            Platform.runLater(() -> {
+                try {
+                    arnes.app.stop();
+                } catch (Exception e) {
+                    System.err.println("Error al detener la aplicación: " + e.getMessage());
+                }
+                detenido.countDown();
+            });
+            detenido.await(5, TimeUnit.SECONDS);
+            Platform.exit();
+        }
+    }
+
+    public static void main(String[] args) {
+        long ciclos = args.length > 0 ? Long.parseLong(args[0]) : 600;
+        double presupuestoMs;
+        try {
+            presupuestoMs = args.length > 1 && !args[1].isBlank() ? Double.parseDouble(args[1])
+                    : presupuestoDeLineaBase(Path.of(args.length > 2 ? args[2] : "cuadros-linea-base.txt"));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("FALLA: no hay presupuesto: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Resultado r;
+        try {
+            r = medir(ciclos, Math.max(120, ciclos));
+        } catch (Exception e) {
+            System.out.println("FALLA: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.println(r);
+        if (presupuestoMs < 0) {
+            System.out.printf("Sin presupuesto: p99 medido %.2f ms por pulso (fijarlo en la línea base)%n",
+                    r.trabajoP99Ms());
+            System.exit(0);
+        }
+        if (r.trabajoP99Ms() > presupuestoMs) {
+            System.out.printf("FALLA: p99 del trabajo por pulso %.2f ms supera el presupuesto de %.2f ms%n",
+                    r.trabajoP99Ms(), presupuestoMs);
+            System.exit(1);
+        }
+        System.out.printf("Dentro del presupuesto de %.2f ms por pulso (p99)%n", presupuestoMs);
+        System.exit(0);
+    }
+
+    private static double presupuestoDeLineaBase(Path archivo) throws IOException {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(archivo)) {
+            p.load(r);
+        }
+        String valor = p.getProperty("presupuestoMs");
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException(archivo + " no define presupuestoMs");
+        }
+        return Double.parseDouble(valor.strip());
+    }
+}
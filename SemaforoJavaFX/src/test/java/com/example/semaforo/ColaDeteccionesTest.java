@@ -0,0 +1,118 @@
+package com.example.semaforo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColaDeteccionesTest {
+
+    @Test
+    void capacidadSeRedondeaAPotenciaDeDos() {
+        assertEquals(2, new ColaDetecciones(1).capacidad());
+        assertEquals(8, new ColaDetecciones(5).capacidad());
+        assertEquals(8, new ColaDetecciones(8).capacidad());
+    }
+
+    /** Muchas vueltas al anillo: las secuencias de cada ranura deben seguir avanzando bien. */
+    @Test
+    void daVueltasAlAnilloEnOrden() {
+        ColaDetecciones cola = new ColaDetecciones(4);
+        long esperado = 0;
+        long enviado = 0;
+        List<Long> recibidos = new ArrayList<>();
+        for (int vuelta = 0; vuelta < 1_000; vuelta++) {
+            int lote = 1 + vuelta % 4;
+            for (int k = 0; k < lote; k++) {
+                assertTrue(cola.ofrecer((int) (enviado % 3), enviado));
+                enviado++;
+            }
+            assertFalse(cola.vacia());
+            recibidos.clear();
+            assertEquals(lote, cola.drenar((tipo, instante) -> {
+                assertEquals(instante % 3, tipo);
+                recibidos.add(instante);
+            }, Integer.MAX_VALUE));
+            for (long r : recibidos) {
+                assertEquals(esperado++, r);
+            }
+            assertTrue(cola.vacia());
+        }
+        assertEquals(0, cola.getDescartes());
+    }
+
+    @Test
+    void llenaDescartaSinPerderLoEncolado() {
+        ColaDetecciones cola = new ColaDetecciones(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(cola.ofrecer(0, i));
+        }
+        assertFalse(cola.ofrecer(0, 99));
+        assertFalse(cola.ofrecer(0, 100));
+        assertEquals(2, cola.getDescartes());
+
+        List<Long> recibidos = new ArrayList<>();
+        assertEquals(2, cola.drenar((tipo, instante) -> recibidos.add(instante), 2));
+        assertTrue(cola.ofrecer(0, 4));
+        assertTrue(cola.ofrecer(0, 5));
+        assertFalse(cola.ofrecer(0, 101));
+        assertEquals(4, cola.drenar((tipo, instante) -> recibidos.add(instante), 10));
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), recibidos);
+        assertEquals(3, cola.getDescartes());
+    }
+
+    /** Varios productores y un consumidor: nada se pierde sin contarse y cada productor queda en orden. */
+    @Test
+    void variosProductoresUnConsumidor() throws InterruptedException {
+        int productores = 4;
+        int porProductor = 200_000;
+        ColaDetecciones cola = new ColaDetecciones(1 << 10);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> hilos = new ArrayList<>();
+        for (int p = 0; p < productores; p++) {
+            int tipo = p;
+            Thread t = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < porProductor; i++) {
+                    cola.ofrecer(tipo, i);
+                }
+            });
+            t.start();
+            hilos.add(t);
+        }
+        long[] ultimo = new long[productores];
+        Arrays.fill(ultimo, -1);
+        long[] recibidos = {0};
+        AtomicBoolean desordenado = new AtomicBoolean();
+        ColaDetecciones.Consumidor consumidor = (tipo, instante) -> {
+            if (instante <= ultimo[tipo]) {
+                desordenado.set(true);
+            }
+            ultimo[tipo] = instante;
+            recibidos[0]++;
+        };
+        largada.countDown();
+        while (hilos.stream().anyMatch(Thread::isAlive)) {
+            cola.drenar(consumidor, 256);
+        }
+        for (Thread t : hilos) {
+            t.join();
+        }
+        cola.drenar(consumidor, Integer.MAX_VALUE);
+
+        assertFalse(desordenado.get());
+        assertTrue(cola.vacia());
+        assertEquals((long) productores * porProductor, recibidos[0] + cola.getDescartes());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.semaforo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompetenciaReaccionTest {
+
+    @Test
+    void unAciertoPorVerdeYErroresFueraDeVerde() {
+        CompetenciaReaccion juego = new CompetenciaReaccion(2, 2);
+        assertEquals(CompetenciaReaccion.ERROR, juego.registrarIntento(0, 0));
+        juego.onLightChange(Light.GREEN, 1_000);
+        long puntos = juego.registrarIntento(0, 1_200);
+        assertEquals(new GameLogic().calcularPuntaje(200), puntos);
+        assertEquals(CompetenciaReaccion.ERROR, juego.registrarIntento(0, 1_300));
+        juego.onLightChange(Light.YELLOW, 2_000);
+        assertEquals(CompetenciaReaccion.ERROR, juego.registrarIntento(1, 2_100));
+
+        assertEquals(1, juego.aciertos(0));
+        assertEquals(2, juego.errores(0));
+        assertEquals(1, juego.errores(1));
+        GameLogic.AttemptResult r = juego.describir(0, puntos);
+        assertTrue(r.acierto());
+        assertEquals(200L, r.reaccionMs());
+    }
+
+    /** El top-k incremental coincide con ordenar a todos, con pulsaciones concurrentes. */
+    @Test
+    void tablaCoincideConElOrdenCompleto() {
+        int n = 2_000;
+        int k = 10;
+        CompetenciaReaccion juego = new CompetenciaReaccion(n, k);
+        long tiempoMs = 0;
+        for (int v = 0; v < 40; v++) {
+            tiempoMs += 3_000;
+            juego.onLightChange(Light.GREEN, tiempoMs);
+            long inicio = tiempoMs;
+            long ronda = v;
+            try (var hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int j = 0; j < n; j++) {
+                    int jugador = j;
+                    hilos.execute(() -> {
+                        SplittableRandom r = new SplittableRandom(ronda * n + jugador);
+                        int pulsaciones = 1 + r.nextInt(2);
+                        for (int p = 0; p < pulsaciones; p++) {
+                            juego.registrarIntento(jugador, inicio + 150 + r.nextInt(1_500));
+                        }
+                    });
+                }
+            }
+            juego.onLightChange(Light.YELLOW, tiempoMs + 2_000);
+            if (v % 10 == 9) {
+                juego.tabla();
+            }
+        }
+
+        long[] todos = new long[n];
+        for (int j = 0; j < n; j++) {
+            todos[j] = juego.puntaje(j);
+        }
+        Arrays.sort(todos);
+        long[] esperado = new long[k];
+        for (int i = 0; i < k; i++) {
+            esperado[i] = todos[n - 1 - i];
+        }
+        long[] tabla = juego.tabla().stream().mapToLong(CompetenciaReaccion.Posicion::puntaje).toArray();
+        assertArrayEquals(esperado, tabla);
+        assertEquals(40L * n, juego.getTotalAciertos());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.semaforo;
+
+import com.example.semaforo.ControlActuado.Detector;
+import com.example.semaforo.ControlActuado.Estado;
+import com.example.semaforo.ControlActuado.Motivo;
+import com.example.semaforo.ReglasControl.Limite;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Las fases corren con el reloj real, así que los límites son cortos (decenas de ms) y las
+ * comprobaciones de tiempo son cotas inferiores: el controlador nunca corta antes de tiempo.
+ */
+class ControlActuadoTest {
+
+    private static final ReglasControl RAPIDAS = new ReglasControl(List.of(
+            new Limite(Light.GREEN, "minimo", 100),
+            new Limite(Light.GREEN, "extension", 40),
+            new Limite(Light.GREEN, "maximo", 400),
+            new Limite(Light.YELLOW, "minimo", 50),
+            new Limite(Light.RED, "minimo", 80),
+            new Limite(Light.RED, "extension", 40),
+            new Limite(Light.RED, "maximo", 300),
+            new Limite(Light.RED, "peatonal", 250)));
+
+    private static final long MS = 1_000_000L;
+
+    /** Espera a que la luz sea {@code luz} y devuelve ese estado. */
+    private static Estado esperar(ControlActuado control, Light luz) {
+        long limite = System.nanoTime() + 5_000 * MS;
+        while (System.nanoTime() - limite < 0) {
+            Estado e = control.getEstado();
+            if (e.luz() == luz) {
+                return e;
+            }
+            LockSupport.parkNanos(MS);
+        }
+        fail("La luz no pasó a " + luz + "; sigue en " + control.getEstado());
+        return null;
+    }
+
+    @Test
+    void sinLlamadasReposaEnVerde() {
+        try (ControlActuado control = new ControlActuado(RAPIDAS, 64).iniciar()) {
+            for (int i = 0; i < 30; i++) {
+                control.detectar(Detector.PRINCIPAL);
+                LockSupport.parkNanos(20 * MS);
+            }
+            assertEquals(Light.GREEN, control.getLuz());
+            assertEquals(Motivo.INICIO, control.getEstado().motivo());
+        }
+    }
+
+    @Test
+    void corteDeVerdePorBrecha() {
+        try (ControlActuado control = new ControlActuado(RAPIDAS, 64).iniciar()) {
+            long inicio = control.getEstado().desdeNs();
+            control.detectar(Detector.TRANSVERSAL);
+            Estado amarillo = esperar(control, Light.YELLOW);
+            assertEquals(Motivo.BRECHA, amarillo.motivo());
+            assertTrue(amarillo.desdeNs() - inicio >= 100 * MS, "verde más corto que el mínimo");
+
+            Estado rojo = esperar(control, Light.RED);
+            assertEquals(Motivo.DESPEJE, rojo.motivo());
+            assertTrue(rojo.desdeNs() - amarillo.desdeNs() >= 50 * MS);
+
+            // Sin tránsito en la transversal el rojo también corta por brecha al cumplir su mínimo
+            Estado verde = esperar(control, Light.GREEN);
+            assertEquals(Motivo.BRECHA, verde.motivo());
+            assertTrue(verde.desdeNs() - rojo.desdeNs() >= 80 * MS);
+            assertTrue(verde.desdeNs() - rojo.desdeNs() < 300 * MS, "el rojo llegó al máximo");
+        }
+    }
+
+    @Test
+    void corteDeVerdePorMaximoConTransitoContinuo() {
+        try (ControlActuado control = new ControlActuado(RAPIDAS, 64).iniciar()) {
+            long inicio = control.getEstado().desdeNs();
+            control.detectar(Detector.TRANSVERSAL);
+            while (control.getLuz() == Light.GREEN && System.nanoTime() - inicio < 2_000 * MS) {
+                control.detectar(Detector.PRINCIPAL); // cada 10 ms, menos que la extensión
+                LockSupport.parkNanos(10 * MS);
+            }
+            Estado amarillo = esperar(control, Light.YELLOW);
+            assertEquals(Motivo.MAXIMO, amarillo.motivo());
+            assertTrue(amarillo.desdeNs() - inicio >= 400 * MS);
+            assertEquals(1, control.getCambios(Motivo.MAXIMO));
+        }
+    }
+
+    @Test
+    void peatonAlargaElRojoHastaElMinimoPeatonal() {
+        try (ControlActuado control = new ControlActuado(RAPIDAS, 64).iniciar()) {
+            control.detectar(Detector.PEATON);
+            Estado rojo = esperar(control, Light.RED);
+            Estado verde = esperar(control, Light.GREEN);
+            assertTrue(verde.desdeNs() - rojo.desdeNs() >= 250 * MS, "el rojo no respetó el mínimo peatonal");
+            assertEquals(1, control.getEventos(Detector.PEATON));
+        }
+    }
+
+    /**
+     * Con el controlador dormido (reposo en verde, sin plazo) cada detección debe despertarlo:
+     * si el aviso se perdiera, la decisión esperaría hasta el tope del sueño (100 ms).
+     */
+    @Test
+    void cadaDeteccionDespiertaAlControladorEnMenosDeUnMilisegundo() {
+        try (ControlActuado control = new ControlActuado(RAPIDAS, 64).iniciar()) {
+            for (int i = 0; i < 200; i++) {
+                LockSupport.parkNanos(2 * MS); // deja que se vuelva a dormir
+                control.detectar(Detector.PRINCIPAL);
+            }
+            long limite = System.nanoTime() + 1_000 * MS;
+            while (control.getLatencia().getCuenta() < 200 && System.nanoTime() - limite < 0) {
+                LockSupport.parkNanos(MS);
+            }
+            HistogramaLatencia latencia = control.getLatencia();
+            assertEquals(200, latencia.getCuenta());
+            assertTrue(latencia.getMaximo() < 50 * MS, "aviso perdido: " + latencia.resumenMs());
+            assertTrue(latencia.percentil(0.99) < MS, "p99 de evento a decisión: " + latencia.resumenMs());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.semaforo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EvaluadorLotesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void accionesConAcentosSeLeenComoUtf8() throws IOException {
+        LightRules reglas = new LightRules(List.of(
+                new LightRules.Regla(Light.RED, "ceder al peatón", "Correcto", "rojo + ceder al peatón → Correcto"),
+                new LightRules.Regla(Light.GREEN, "avanzar", "Permitido", "verde + avanzar → Permitido")));
+        Path registro = dir.resolve("registro.log");
+        Files.writeString(registro, String.join("\n",
+                "1718000000000,RED,ceder al peatón",
+                "1718000000001,red,  CEDER AL PEATÓN \r",
+                "",
+                "1718000000002,GREEN,avanzar",
+                "1718000000003,GREEN,peatón",
+                "1718000000004,AZUL,avanzar",
+                ""), StandardCharsets.UTF_8);
+
+        EvaluadorLotes.Resumen r = new EvaluadorLotes(reglas, ZoneOffset.UTC).evaluar(registro);
+
+        Map<String, Long> conteo = r.conteoPorResultado();
+        assertEquals(4, r.eventos());
+        assertEquals(1, r.invalidas());
+        assertEquals(2, conteo.get("Correcto"));
+        assertEquals(1, conteo.get("Permitido"));
+        assertEquals(1, conteo.get(LightRules.DESCONOCIDO));
+    }
+}
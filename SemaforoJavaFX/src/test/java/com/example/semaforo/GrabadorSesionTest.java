@@ -0,0 +1,63 @@
+package com.example.semaforo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrabadorSesionTest {
+
+    @TempDir
+    Path dir;
+
+    /** Más de 64 MiB de registros: la grabación pasa por varios segmentos mapeados. */
+    @Test
+    void generarYReproducirSinDiferencias() throws IOException {
+        Path archivo = dir.resolve("sesion.bin");
+        ReproductorSesion.generar(archivo, 800_000, 42);
+        assertTrue(Files.size(archivo) > 64L << 20);
+
+        ReproductorSesion.Informe informe = new ReproductorSesion(archivo)
+                .reproducir(new LightRules(), ReproductorSesion.Velocidad.MAXIMA);
+        assertEquals(Files.size(archivo) / GrabadorSesion.TAMANO_REGISTRO, informe.registros());
+        assertEquals(800_000, informe.intentos());
+        assertEquals(0, informe.diferenciasPuntaje());
+        assertEquals(0, informe.diferenciasReglas());
+        assertEquals(informe.puntajeGrabado(), informe.puntajeReproducido());
+    }
+
+    /** Acciones de más de {@value GrabadorSesion#TROZO_NOMBRE} bytes ocupan varios registros ACCION. */
+    @Test
+    void accionesLargasYNulasSobrevivenLaReproduccion() throws IOException {
+        String larga = "ceder el paso al peatón que cruza por la senda peatonal señalizada";
+        assertTrue(larga.getBytes(StandardCharsets.UTF_8).length > 2 * GrabadorSesion.TROZO_NOMBRE);
+        LightRules reglas = new LightRules(List.of(
+                new LightRules.Regla(Light.RED, larga, "Correcto", "rojo + ceder → Correcto"),
+                new LightRules.Regla(Light.GREEN, "avanzar", "Permitido", "verde + avanzar → Permitido")));
+
+        Path archivo = dir.resolve("acciones.bin");
+        try (GrabadorSesion g = new GrabadorSesion(archivo)) {
+            long t = 0;
+            for (Light luz : List.of(Light.RED, Light.GREEN, Light.RED)) {
+                t += 1_000;
+                g.cambioLuz(luz, t);
+                for (String accion : new String[]{larga, "avanzar", null}) {
+                    LightRules.Regla r = reglas.evaluarAccion(luz, accion);
+                    g.evaluacion(luz, accion, t + 1, !LightRules.esDesconocida(r), r.resultado());
+                }
+            }
+        }
+
+        ReproductorSesion.Informe informe = new ReproductorSesion(archivo)
+                .reproducir(reglas, ReproductorSesion.Velocidad.MAXIMA);
+        assertEquals(9, informe.evaluaciones());
+        assertEquals(0, informe.diferenciasReglas());
+    }
+}
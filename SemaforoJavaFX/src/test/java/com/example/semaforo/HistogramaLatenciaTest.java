@@ -0,0 +1,42 @@
+package com.example.semaforo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistogramaLatenciaTest {
+
+    @Test
+    void sumarAEsExactoConValoresPequenos() {
+        HistogramaLatencia h = new HistogramaLatencia();
+        for (long v = 0; v < 64; v++) {
+            h.registrar(v);
+        }
+        HistogramaLatencia destino = new HistogramaLatencia();
+        h.sumarA(destino);
+        assertEquals(64, destino.getCuenta());
+        assertEquals(h.getSuma(), destino.getSuma());
+        assertEquals(0, destino.getMinimo());
+        assertEquals(63, destino.getMaximo());
+    }
+
+    @Test
+    void sumarADerivaCuentaYSumaDeLasMismasCubetas() {
+        HistogramaLatencia a = new HistogramaLatencia();
+        HistogramaLatencia b = new HistogramaLatencia();
+        SplittableRandom r = new SplittableRandom(3);
+        for (int i = 0; i < 10_000; i++) {
+            a.registrar(r.nextLong(1_000, 50_000_000));
+            b.registrar(r.nextLong(1_000, 50_000_000));
+        }
+        HistogramaLatencia combinado = new HistogramaLatencia();
+        a.sumarA(combinado);
+        b.sumarA(combinado);
+        assertEquals(20_000, combinado.getCuenta());
+        double media = (a.getSuma() + b.getSuma()) / 20_000.0;
+        assertEquals(media, combinado.getMedia(), media * 0.016);
+        assertEquals(Math.max(a.getMaximo(), b.getMaximo()), combinado.getMaximo());
+    }
+}
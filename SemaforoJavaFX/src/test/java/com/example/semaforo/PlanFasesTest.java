@@ -0,0 +1,68 @@
+package com.example.semaforo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PlanFasesTest {
+
+    private static List<PlanFases.Fase> fases(int n) {
+        return IntStream.range(0, n)
+                .mapToObj(i -> new PlanFases.Fase("f" + i, Light.values()[i % 3], 1_000))
+                .toList();
+    }
+
+    /** Recorrido fase por fase, para comparar. */
+    private static int paso(PlanFases plan, int fase, long k) {
+        int f = fase;
+        for (long i = 0; i < k; i++) {
+            f = plan.siguiente(f);
+        }
+        return f;
+    }
+
+    @Test
+    void avanzarEnPlanConDosCiclos() {
+        // 0 ↔ 1 y 2 ↔ 3: la fase 2 no se alcanza desde la inicial
+        PlanFases plan = new PlanFases(fases(4), new int[]{1, 0, 3, 2}, 0);
+        assertEquals(2, plan.avanzar(2, 1_000_000_000L));
+        assertEquals(3, plan.avanzar(2, 1_000_000_001L));
+        assertEquals(1, plan.avanzar(0, Long.MAX_VALUE));
+        assertEquals(2, plan.avanzar(3, Long.MAX_VALUE));
+    }
+
+    @Test
+    void avanzarConTramosQueDesembocanEnCiclosDistintos() {
+        // 0 → 1 → 2 → 3 → 1 (ciclo de 3) y 4 → 5 → 6 → 7 → 6 (ciclo de 2)
+        int[] sig = {1, 2, 3, 1, 5, 6, 7, 6};
+        PlanFases plan = new PlanFases(fases(sig.length), sig, 0);
+        for (int f = 0; f < sig.length; f++) {
+            for (long k = 0; k < 30; k++) {
+                assertEquals(paso(plan, f, k), plan.avanzar(f, k), "fase " + f + ", k " + k);
+            }
+        }
+        assertEquals(paso(plan, 4, 2 + (1_000_000_007L - 2) % 2), plan.avanzar(4, 1_000_000_007L));
+        assertEquals(paso(plan, 0, 1 + (999_999_999_999L - 1) % 3), plan.avanzar(0, 999_999_999_999L));
+    }
+
+    @Test
+    void avanzarRechazaPasosNegativos() {
+        PlanFases plan = PlanFases.interseccionCompleta();
+        assertThrows(IllegalArgumentException.class, () -> plan.avanzar(0, -1));
+    }
+
+    @Test
+    void faseEnSigueElTransitorioYElCiclo() {
+        PlanFases plan = PlanFases.interseccionCompleta();
+        assertEquals(0, plan.faseEn(0));
+        assertEquals(1, plan.faseEn(5_000));
+        long ciclo = plan.getDuracionCiclo();
+        long t = plan.getDuracionTransitorio() + 3 * ciclo + 12_000;
+        assertEquals(plan.faseEn(plan.getDuracionTransitorio() + 12_000), plan.faseEn(t));
+        assertEquals(plan.avanzar(plan.getInicial(), plan.cambiosHasta(t)), plan.faseEn(t));
+    }
+}
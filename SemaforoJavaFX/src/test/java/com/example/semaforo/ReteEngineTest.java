@@ -0,0 +1,94 @@
+package com.example.semaforo;
+
+import com.example.semaforo.ReteEngine.Hecho;
+import com.example.semaforo.ReteEngine.Patron;
+import com.example.semaforo.ReteEngine.Produccion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReteEngineTest {
+
+    private static final Hecho RIESGO = new Hecho("semaforo", "riesgo", "atropello");
+    private static final Hecho PASO = new Hecho("cruce", "paso", "habilitado");
+
+    @Test
+    void cambiarUnHechoRetiraYRederivaLaCadena() {
+        ReteEngine motor = new ReteEngine(ReglasCompuestas.desde(new LightRules()));
+        motor.cambiar("semaforo", "luz", Light.RED);
+        motor.cambiar("cruce", "peaton", true);
+        motor.cambiar("semaforo", "accion", "avanzar");
+        assertTrue(motor.contiene(new Hecho("semaforo", "resultado", "Infracción")));
+        assertTrue(motor.contiene(PASO));
+        assertTrue(motor.contiene(RIESGO));
+
+        // Verde: cae la infracción, el paso peatonal y el riesgo encadenado
+        motor.cambiar("semaforo", "luz", Light.GREEN);
+        assertTrue(motor.contiene(new Hecho("semaforo", "resultado", "Permitido")));
+        assertFalse(motor.contiene(new Hecho("semaforo", "resultado", "Infracción")));
+        assertFalse(motor.contiene(PASO));
+        assertFalse(motor.contiene(RIESGO));
+        assertEquals(List.of(new Hecho("semaforo", "resultado", "Permitido")), motor.derivados());
+
+        // De vuelta a rojo: la cadena se vuelve a derivar
+        motor.cambiar("semaforo", "luz", Light.RED);
+        assertTrue(motor.contiene(RIESGO));
+    }
+
+    @Test
+    void cambiarLaFranjaNoReevaluaLasReglasDeLuz() {
+        ReteEngine motor = new ReteEngine(ReglasCompuestas.desde(new LightRules()));
+        motor.cambiar("semaforo", "luz", Light.YELLOW);
+        motor.cambiar("semaforo", "accion", "cruzar");
+        long antes = motor.getActivaciones();
+        motor.cambiar("reloj", "franja", "noche");
+        // Solo "noche + amarillo" y, encadenada, "intermitente + cruzar"
+        assertTrue(motor.getActivaciones() - antes <= 4, "activaciones: " + (motor.getActivaciones() - antes));
+        assertTrue(motor.contiene(new Hecho("semaforo", "recomendacion", "cruzar con precaución extrema")));
+
+        motor.cambiar("reloj", "franja", "dia");
+        assertFalse(motor.contiene(new Hecho("semaforo", "modo", "intermitente")));
+        assertFalse(motor.contiene(new Hecho("semaforo", "recomendacion", "cruzar con precaución extrema")));
+    }
+
+    @Test
+    void accionDeLaReglaSeNormaliza() {
+        LightRules reglas = new LightRules(List.of(
+                new LightRules.Regla(Light.GREEN, "  Girar ", "Permitido", "verde + girar → Permitido")));
+        ReteEngine motor = new ReteEngine(ReglasCompuestas.desde(reglas));
+        motor.cambiar("semaforo", "luz", Light.GREEN);
+        motor.cambiar("semaforo", "accion", IndiceAcciones.normalizar("GIRAR"));
+        assertTrue(motor.contiene(new Hecho("semaforo", "resultado", "Permitido")));
+    }
+
+    @Test
+    void variableRepetidaEnUnPatronExigeValoresIguales() {
+        ReteEngine motor = new ReteEngine(List.of(new Produccion("reflexivo",
+                List.of(new Patron("?x", "igual", "?x")),
+                List.of(new Patron("?x", "reflexivo", true)))));
+        motor.afirmar(new Hecho("a", "igual", "b"));
+        assertTrue(motor.derivados().isEmpty());
+        motor.afirmar(new Hecho("a", "igual", "a"));
+        assertEquals(List.of(new Hecho("a", "reflexivo", true)), motor.derivados());
+        motor.retractar(new Hecho("a", "igual", "a"));
+        assertTrue(motor.derivados().isEmpty());
+    }
+
+    @Test
+    void hechoBaseQueTambienSeDerivaSobreviveAlRetirarlo() {
+        ReteEngine motor = new ReteEngine(List.of(new Produccion("p",
+                List.of(new Patron("x", "a", 1)),
+                List.of(new Patron("x", "b", 2)))));
+        Hecho b = new Hecho("x", "b", 2);
+        motor.afirmar(b);
+        motor.afirmar(new Hecho("x", "a", 1));
+        motor.retractar(b);
+        assertTrue(motor.contiene(b));
+        motor.retractar(new Hecho("x", "a", 1));
+        assertFalse(motor.contiene(b));
+    }
+}
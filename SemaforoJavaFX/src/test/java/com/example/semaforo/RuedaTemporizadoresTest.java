@@ -0,0 +1,120 @@
+package com.example.semaforo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuedaTemporizadoresTest {
+
+    /** Cada id debe vencer exactamente en el tick programado, pase o no por la cascada. */
+    @Test
+    void venceEnElTickExactoEnTodosLosNiveles() {
+        long[] retardos = {1, 2, 255, 256, 257, 1_000, 16_383, 16_384, 16_385, 300_000,
+                1_048_575, 1_048_576, 1_048_577, 5_000_000};
+        RuedaTemporizadores rueda = new RuedaTemporizadores(retardos.length);
+        for (int id = 0; id < retardos.length; id++) {
+            rueda.programar(id, retardos[id]);
+        }
+        long[] vencio = new long[retardos.length];
+        rueda.avanzar(5_000_001, (id, ahora) -> vencio[id] = ahora);
+        assertEquals(0, rueda.programados());
+        for (int id = 0; id < retardos.length; id++) {
+            assertEquals(retardos[id], vencio[id], "retardo " + retardos[id]);
+        }
+    }
+
+    @Test
+    void retardoMasAllaDelUltimoNivel() {
+        long retardo = 64L * 1_048_576 + 12_345; // más que lo que abarca el nivel 3
+        RuedaTemporizadores rueda = new RuedaTemporizadores(1);
+        rueda.programar(0, retardo);
+        long[] vencio = {-1};
+        rueda.avanzar(retardo + 10, (id, ahora) -> vencio[0] = ahora);
+        assertEquals(retardo, vencio[0]);
+        assertFalse(rueda.estaProgramado(0));
+    }
+
+    @Test
+    void reprogramarseDesdeElCallbackEsPeriodico() {
+        RuedaTemporizadores rueda = new RuedaTemporizadores(1);
+        rueda.programar(0, 300);
+        List<Long> vencimientos = new ArrayList<>();
+        rueda.avanzar(1_500, (id, ahora) -> {
+            vencimientos.add(ahora);
+            rueda.programar(id, 300);
+        });
+        assertEquals(List.of(300L, 600L, 900L, 1_200L, 1_500L), vencimientos);
+        assertEquals(1, rueda.programados());
+    }
+
+    @Test
+    void callbackCancelaOReprogramaOtroIdDeLaMismaRanura() {
+        RuedaTemporizadores rueda = new RuedaTemporizadores(4);
+        for (int id = 0; id < 4; id++) {
+            rueda.programar(id, 10);
+        }
+        List<Integer> vencidos = new ArrayList<>();
+        long[] vencio = new long[4];
+        rueda.avanzar(10, (id, ahora) -> {
+            vencidos.add(id);
+            vencio[id] = ahora;
+            if (vencidos.size() == 1) {
+                // los otros tres siguen en la ranura que se está vaciando, uno de ellos el próximo
+                rueda.cancelar((id + 1) % 4);
+                rueda.cancelar((id + 3) % 4);
+                rueda.programar((id + 2) % 4, 5);
+            }
+        });
+        assertEquals(1, vencidos.size());
+        assertEquals(1, rueda.programados());
+        int reprogramado = (vencidos.get(0) + 2) % 4;
+        assertTrue(rueda.estaProgramado(reprogramado));
+        assertEquals(15, rueda.vencimiento(reprogramado));
+
+        rueda.avanzar(5, (id, ahora) -> vencio[id] = ahora);
+        assertEquals(15, vencio[reprogramado]);
+        assertEquals(0, rueda.programados());
+    }
+
+    /** Programaciones, cancelaciones y reprogramaciones al azar contra un modelo directo. */
+    @Test
+    void coincideConUnModeloDirecto() {
+        int ids = 200;
+        RuedaTemporizadores rueda = new RuedaTemporizadores(ids);
+        long[] esperado = new long[ids];
+        Arrays.fill(esperado, -1);
+        SplittableRandom r = new SplittableRandom(11);
+        for (int paso = 0; paso < 40_000; paso++) {
+            int id = r.nextInt(ids);
+            switch (r.nextInt(4)) {
+                case 0 -> {
+                    rueda.cancelar(id);
+                    esperado[id] = -1;
+                }
+                case 1 -> {
+                    long t = 1 + r.nextLong(r.nextBoolean() ? 300 : 40_000);
+                    rueda.programar(id, t);
+                    esperado[id] = rueda.ahora() + t;
+                }
+                default -> rueda.avanzar(1 + r.nextInt(50), (v, ahora) -> {
+                    assertEquals(esperado[v], ahora, "id " + v);
+                    esperado[v] = -1;
+                    if ((v & 1) == 0) {
+                        int otro = (v * 7 + 3) % ids;
+                        rueda.programar(otro, 1 + (ahora % 700));
+                        esperado[otro] = rueda.vencimiento(otro);
+                    }
+                });
+            }
+            long programados = Arrays.stream(esperado).filter(e -> e >= 0).count();
+            assertEquals(programados, rueda.programados());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package cola;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Consultas analíticas sobre el historial de atendidos ({@link HistorialColumnar}).
+ *
+ * Todas las consultas son funciones puras sobre una versión del historial: recorren columnas
+ * primitivas por tramos en paralelo (un acumulador local por tramo, sin contención) y combinan
+ * los parciales al final. No crean objetos por registro.
+ */
+final class Analitica {
+
+    static final long HORA = 3_600, DIA = 86_400;
+
+    // Cubetas log2 de espera en segundos: 0 → [0,1), 1 → [1,2), 2 → [2,4), ... 25 → ≥ 2^24 s
+    static final int CUBETAS_ESPERA = 26;
+
+    private Analitica() {}
+
+    /** Serie temporal: una fila por intervalo (hora o día) con conteo y distribución de espera. */
+    record Serie(long intervaloSeg, long inicio, long[] conteo, long[] sumaEspera, int[] maxEspera, long[][] histEspera) {
+        int intervalos() { return conteo.length; }
+        long inicio(int i) { return inicio + i * intervaloSeg; }
+        double esperaMedia(int i) { return conteo[i] == 0 ? 0 : (double) sumaEspera[i] / conteo[i]; }
+
+        /** Percentil aproximado de espera (límite superior de la cubeta log2), en segundos. */
+        long percentilEspera(int i, double q) {
+            long objetivo = (long) Math.ceil(q * conteo[i]), acum = 0;
+            for (int b = 0; b < CUBETAS_ESPERA; b++) {
+                acum += histEspera[i][b];
+                if (acum >= objetivo && acum > 0) return Math.min(maxEspera[i], b == 0 ? 0 : (1L << b) - 1);
+            }
+            return maxEspera[i];
+        }
+    }
+
+    record NombreFrecuente(String nombre, int visitas) {}
+
+    /** Tendencia de la tasa de servicio: atendidos por hora en cada intervalo y pendiente lineal. */
+    record Tendencia(double[] atendidosPorHora, double pendientePorIntervalo) {}
+
+    /* ======================== Agrupación por tiempo ======================== */
+
+    static Serie porHora(HistorialColumnar h) { return agrupar(h, HORA); }
+
+    static Serie porDia(HistorialColumnar h) { return agrupar(h, DIA); }
+
+    static Serie agrupar(HistorialColumnar h, long intervaloSeg) {
+        int n = h.tam();
+        long[] at = h.atendido();
+        int[] esp = h.espera();
+        if (n == 0) return new Serie(intervaloSeg, 0, new long[0], new long[0], new int[0], new long[0][]);
+
+        var rango = IntStream.range(0, n).parallel().mapToLong(i -> at[i]).summaryStatistics();
+        long min = rango.getMin(), max = rango.getMax();
+        long inicio = Math.floorDiv(min, intervaloSeg) * intervaloSeg;
+        int intervalos = (int) (Math.floorDiv(max, intervaloSeg) - inicio / intervaloSeg + 1);
+
+        Parcial total = IntStream.range(0, tramos(n)).parallel()
+                .mapToObj(t -> {
+                    Parcial p = new Parcial(intervalos);
+                    int desde = desde(t, n), hasta = desde(t + 1, n);
+                    for (int i = desde; i < hasta; i++) {
+                        int b = (int) ((at[i] - inicio) / intervaloSeg);
+                        int e = esp[i];
+                        p.conteo[b]++;
+                        p.suma[b] += e;
+                        if (e > p.max[b]) p.max[b] = e;
+                        p.hist[b * CUBETAS_ESPERA + cubeta(e)]++;
+                    }
+                    return p;
+                })
+                .reduce(Parcial::combinar)
+                .orElseThrow();
+
+        long[][] hist = new long[intervalos][];
+        for (int b = 0; b < intervalos; b++)
+            hist[b] = Arrays.copyOfRange(total.hist, b * CUBETAS_ESPERA, (b + 1) * CUBETAS_ESPERA);
+        return new Serie(intervaloSeg, inicio, total.conteo, total.suma, total.max, hist);
+    }
+
+    private static final class Parcial {
+        final long[] conteo, suma, hist; final int[] max;
+        Parcial(int intervalos) {
+            conteo = new long[intervalos]; suma = new long[intervalos]; max = new int[intervalos];
+            hist = new long[intervalos * CUBETAS_ESPERA];
+        }
+        Parcial combinar(Parcial o) {
+            for (int i = 0; i < conteo.length; i++) {
+                conteo[i] += o.conteo[i]; suma[i] += o.suma[i]; max[i] = Math.max(max[i], o.max[i]);
+            }
+            for (int i = 0; i < hist.length; i++) hist[i] += o.hist[i];
+            return this;
+        }
+    }
+
+    /* ======================== Nombres frecuentes ======================== */
+
+    /** Los k nombres con más visitas (solo los que repiten: 2 o más). */
+    static List<NombreFrecuente> topRepetidos(HistorialColumnar h, int k) {
+        int n = h.tam();
+        int[] ids = h.nombre();
+        int dic = h.diccionario().tam();
+        // Conteo por id con un arreglo por tramo; se limita el número de tramos para no pasar de ~64 MB
+        int tramos = Math.max(1, Math.min(tramos(n), (int) (16_000_000L / Math.max(1, dic))));
+        int[] visitas = IntStream.range(0, tramos).parallel()
+                .mapToObj(t -> {
+                    int[] c = new int[dic];
+                    int desde = (int) ((long) n * t / tramos), hasta = (int) ((long) n * (t + 1) / tramos);
+                    for (int i = desde; i < hasta; i++) c[ids[i]]++;
+                    return c;
+                })
+                .reduce((a, b) -> { for (int i = 0; i < a.length; i++) a[i] += b[i]; return a; })
+                .orElseThrow();
+        PriorityQueue<long[]> top = new PriorityQueue<>((a, b) -> Long.compare(a[1], b[1]));
+        for (int id = 0; id < dic; id++) {
+            if (visitas[id] < 2) continue;
+            if (top.size() < k) top.add(new long[]{id, visitas[id]});
+            else if (visitas[id] > top.peek()[1]) { top.poll(); top.add(new long[]{id, visitas[id]}); }
+        }
+        List<NombreFrecuente> out = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            long[] e = top.poll();
+            out.add(0, new NombreFrecuente(h.diccionario().nombre((int) e[0]), (int) e[1]));
+        }
+        return out;
+    }
+
+    /* ======================== Tendencia de servicio ======================== */
+
+    /** Atendidos por hora en cada intervalo y pendiente por mínimos cuadrados (positiva = más rápido). */
+    static Tendencia tendenciaServicio(Serie s) {
+        int m = s.intervalos();
+        double[] tasa = new double[m];
+        double horas = (double) s.intervaloSeg() / HORA;
+        for (int i = 0; i < m; i++) tasa[i] = s.conteo()[i] / horas;
+        if (m < 2) return new Tendencia(tasa, 0);
+        double mx = (m - 1) / 2.0, my = 0;
+        for (double t : tasa) my += t;
+        my /= m;
+        double num = 0, den = 0;
+        for (int i = 0; i < m; i++) { num += (i - mx) * (tasa[i] - my); den += (i - mx) * (i - mx); }
+        return new Tendencia(tasa, num / den);
+    }
+
+    /* ======================== Apoyo ======================== */
+
+    private static int tramos(int n) {
+        return Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), n / 65_536 + 1));
+    }
+
+    private static int desde(int tramo, int n) {
+        return (int) ((long) n * tramo / tramos(n));
+    }
+
+    private static int cubeta(int esperaSeg) {
+        return esperaSeg <= 0 ? 0 : Math.min(CUBETAS_ESPERA - 1, 32 - Integer.numberOfLeadingZeros(esperaSeg));
+    }
+}
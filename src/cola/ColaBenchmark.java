@@ -0,0 +1,212 @@
+package cola;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Banco de pruebas de la Cola funcional frente a colas mutables del JDK.
+ *
+ *   java cola.ColaBenchmark bench [tamaños...]   → ns/op y bytes/op por carga y tamaño
+ *   java cola.ColaBenchmark estres [segundos]    → operaciones aleatorias contra un modelo (ArrayDeque)
+ *
+ * Cargas medidas:
+ *   - mixta:        cola precargada con N y ráfagas aleatorias 50/50 de encolar/desencolar
+ *   - llenarVaciar: N encolar seguidos de N desencolar (una sola inversión amortizada)
+ *   - persistente:  desencolar una y otra vez de la MISMA versión vieja con front vacío;
+ *                   cada llamada vuelve a invertir back (peor caso de la amortización, O(N))
+ *   - vistaFIFO:    costo de comoListaFIFO (copia completa en cada refresco de la UI)
+ *
+ * No usa JMH: el árbol no tiene sistema de construcción. Hace calentamiento, repite las
+ * mediciones y mide asignación con com.sun.management.ThreadMXBean.
+ */
+public final class ColaBenchmark {
+
+    private static final int REPETICIONES = 5;
+    private static final long PRESUPUESTO_OPS = 20_000_000L; // tope de trabajo por medición
+
+    private static final com.sun.management.ThreadMXBean MX =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile Object sumidero; // evita que el JIT elimine el trabajo
+
+    // -------- Adaptadores: misma interfaz para la cola funcional y las mutables --------
+    private interface Impl {
+        void encolar(Integer x);
+        Integer desencolar();
+    }
+
+    private static final class Funcional implements Impl {
+        ColaClientesProGUI.Cola<Integer> c = ColaClientesProGUI.Cola.vacia();
+        public void encolar(Integer x) { c = c.encolar(x); }
+        public Integer desencolar() {
+            var r = c.desencolar();
+            c = r.cola();
+            return r.valor().orElse(null);
+        }
+    }
+
+    private static final class Mutable implements Impl {
+        final Queue<Integer> q;
+        Mutable(Queue<Integer> q) { this.q = q; }
+        public void encolar(Integer x) { q.offer(x); }
+        public Integer desencolar() { return q.poll(); }
+    }
+
+    private record Fabrica(String nombre, java.util.function.Supplier<Impl> nueva) {}
+
+    private static final List<Fabrica> IMPLS = List.of(
+            new Fabrica("Cola", Funcional::new),
+            new Fabrica("ArrayDeque", () -> new Mutable(new ArrayDeque<>())),
+            new Fabrica("ConcurrentLinkedQueue", () -> new Mutable(new ConcurrentLinkedQueue<>())));
+
+    private record Medicion(double nsPorOp, double bytesPorOp) {}
+
+    @FunctionalInterface
+    private interface Carga { long correr(); } // devuelve el número de operaciones realizadas
+
+    public static void main(String[] args) {
+        String modo = args.length > 0 ? args[0] : "bench";
+        if (modo.equals("estres")) {
+            estres(args.length > 1 ? Long.parseLong(args[1]) : 60);
+            return;
+        }
+        List<Integer> tamanos = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) tamanos.add(Integer.parseInt(args[i]));
+        if (tamanos.isEmpty()) tamanos = List.of(10, 1_000, 100_000, 10_000_000);
+        bench(tamanos);
+    }
+
+    /* ============================ Benchmark ============================ */
+
+    private static void bench(List<Integer> tamanos) {
+        System.out.printf(Locale.ROOT, "%-13s %-22s %10s %12s %12s%n", "carga", "impl", "N", "ns/op", "bytes/op");
+        for (int n : tamanos) {
+            for (Fabrica f : IMPLS) {
+                reportar("mixta", f.nombre(), n, () -> mixta(f, n));
+                reportar("llenarVaciar", f.nombre(), n, () -> llenarVaciar(f, n));
+            }
+            reportar("persistente", "Cola", n, () -> persistente(n));
+            reportar("vistaFIFO", "Cola", n, () -> vistaFIFO(n));
+        }
+    }
+
+    private static void reportar(String carga, String impl, int n, Carga c) {
+        String res;
+        try {
+            medir(c); // calentamiento
+            Medicion mejor = null;
+            for (int i = 0; i < REPETICIONES; i++) {
+                Medicion m = medir(c);
+                if (mejor == null || m.nsPorOp() < mejor.nsPorOp()) mejor = m;
+            }
+            res = String.format(Locale.ROOT, "%12.1f %12.1f", mejor.nsPorOp(), mejor.bytesPorOp());
+        } catch (StackOverflowError e) {
+            res = "  desbordamiento de pila (recursión en Lista)";
+        } catch (OutOfMemoryError e) {
+            res = "  sin memoria";
+        }
+        System.out.printf(Locale.ROOT, "%-13s %-22s %10d %s%n", carga, impl, n, res);
+    }
+
+    private static Medicion medir(Carga c) {
+        long hilo = Thread.currentThread().threadId();
+        long b0 = MX.getThreadAllocatedBytes(hilo);
+        long t0 = System.nanoTime();
+        long ops = c.correr();
+        long ns = System.nanoTime() - t0;
+        long bytes = MX.getThreadAllocatedBytes(hilo) - b0;
+        return new Medicion((double) ns / ops, (double) bytes / ops);
+    }
+
+    private static long mixta(Fabrica f, int n) {
+        Impl q = f.nueva().get();
+        for (int i = 0; i < n; i++) q.encolar(i);
+        long ops = Math.max(n, Math.min(PRESUPUESTO_OPS, 10L * n));
+        SplittableRandom r = new SplittableRandom(42);
+        long acc = 0;
+        for (long i = 0; i < ops; i++) {
+            if (r.nextBoolean()) q.encolar((int) i);
+            else { Integer v = q.desencolar(); if (v != null) acc += v; }
+        }
+        sumidero = acc;
+        return n + ops;
+    }
+
+    private static long llenarVaciar(Fabrica f, int n) {
+        Impl q = f.nueva().get();
+        for (int i = 0; i < n; i++) q.encolar(i);
+        long acc = 0;
+        for (int i = 0; i < n; i++) acc += q.desencolar();
+        sumidero = acc;
+        return 2L * n;
+    }
+
+    private static long persistente(int n) {
+        ColaClientesProGUI.Cola<Integer> vieja = ColaClientesProGUI.Cola.vacia();
+        for (int i = 0; i < n; i++) vieja = vieja.encolar(i); // todo en back, front vacío
+        long repeticiones = Math.max(1, Math.min(1_000, PRESUPUESTO_OPS / n));
+        long acc = 0;
+        for (long i = 0; i < repeticiones; i++) acc += vieja.desencolar().valor().orElse(0);
+        sumidero = acc;
+        return repeticiones;
+    }
+
+    private static long vistaFIFO(int n) {
+        ColaClientesProGUI.Cola<Integer> c = ColaClientesProGUI.Cola.vacia();
+        for (int i = 0; i < n; i++) c = c.encolar(i);
+        c = c.desencolar().cola(); // mitad en front, el resto en back tras nuevas llegadas
+        for (int i = 0; i < n / 2; i++) c = c.encolar(i);
+        long repeticiones = Math.max(1, Math.min(100, PRESUPUESTO_OPS / n));
+        for (long i = 0; i < repeticiones; i++) sumidero = c.comoListaFIFO();
+        return repeticiones;
+    }
+
+    /* ============================ Estrés ============================ */
+
+    // Operaciones aleatorias sobre la Cola funcional contrastadas con ArrayDeque. Además guarda
+    // versiones viejas y comprueba que desencolar de ellas sigue dando el mismo valor (persistencia).
+    private static void estres(long segundos) {
+        SplittableRandom r = new SplittableRandom(System.nanoTime());
+        long fin = System.nanoTime() + segundos * 1_000_000_000L, ops = 0;
+        int maxTam = 4_096; // por debajo del límite de recursión de Lista.invertir
+        ColaClientesProGUI.Cola<Integer> c = ColaClientesProGUI.Cola.vacia();
+        ArrayDeque<Integer> modelo = new ArrayDeque<>();
+        List<ColaClientesProGUI.Cola<Integer>> versiones = new ArrayList<>();
+        List<Optional<Integer>> esperados = new ArrayList<>();
+        int siguiente = 0;
+        while (System.nanoTime() < fin) {
+            int op = r.nextInt(100);
+            if (op < 48 && modelo.size() < maxTam) {
+                c = c.encolar(siguiente);
+                modelo.addLast(siguiente++);
+            } else if (op < 96) {
+                var res = c.desencolar();
+                verificar(res.valor(), Optional.ofNullable(modelo.pollFirst()), ops);
+                c = res.cola();
+            } else if (op < 98) {
+                versiones.add(c);
+                esperados.add(Optional.ofNullable(modelo.peekFirst()));
+                if (versiones.size() > 64) { versiones.remove(0); esperados.remove(0); }
+            } else if (!versiones.isEmpty()) {
+                int i = r.nextInt(versiones.size());
+                verificar(versiones.get(i).desencolar().valor(), esperados.get(i), ops);
+                verificar(versiones.get(i).primero(), esperados.get(i), ops);
+            }
+            if (c.esVacia() != modelo.isEmpty()) throw new AssertionError("esVacia difiere en op " + ops);
+            ops++;
+        }
+        if (!c.comoListaFIFO().equals(new ArrayList<>(modelo))) throw new AssertionError("vista FIFO difiere");
+        System.out.printf(Locale.ROOT, "estrés OK: %d operaciones en %d s%n", ops, segundos);
+    }
+
+    private static void verificar(Optional<Integer> real, Optional<Integer> esperado, long op) {
+        if (!real.equals(esperado)) throw new AssertionError("op " + op + ": " + real + " != " + esperado);
+    }
+}
@@ -10,6 +10,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
@@ -164,13 +165,56 @@ public class ColaClientesProGUI extends JFrame {
         Atendido(Cliente c, LocalDateTime t, Duration e) { this.cliente = c; this.atendido = t; this.espera = e; }
     }
 
+    // [PA06] Modelo inmutable de la tasa de servicio: media y varianza exponencialmente suavizadas (EWMA)
+    // del intervalo entre atenciones. Cada atención produce un NUEVO estimador en O(1), sin guardar historial.
+    private static final class Estimador {
+        private static final double ALFA = 0.3;  // peso de la observación más reciente
+        private static final double Z95 = 1.96;  // banda de confianza de ~95 %
+        final LocalDateTime ultimoServicio; final double media, varianza; final int muestras;
+        Estimador(LocalDateTime ultimoServicio, double media, double varianza, int muestras) {
+            this.ultimoServicio = ultimoServicio; this.media = media; this.varianza = varianza; this.muestras = muestras;
+        }
+        static Estimador inicial() { return new Estimador(null, 0, 0, 0); }
+
+        // [PA06] observar: el intervalo cuenta desde el último servicio o desde la llegada del cliente
+        // (lo más reciente), para no tomar como servicio el tiempo con la fila vacía.
+        Estimador observar(LocalDateTime llegada, LocalDateTime ahora) {
+            LocalDateTime inicio = ultimoServicio == null || llegada.isAfter(ultimoServicio) ? llegada : ultimoServicio;
+            double x = Math.max(0, Duration.between(inicio, ahora).toMillis() / 1000.0);
+            if (muestras == 0) return new Estimador(ahora, x, 0, 1);
+            double d = x - media;
+            return new Estimador(ahora, media + ALFA * d, (1 - ALFA) * (varianza + ALFA * d * d), muestras + 1);
+        }
+
+        // [PA06] Pronóstico puro para la posición k (0 = frente): k+1 servicios por delante menos lo que ya
+        // lleva el servicio en curso. La banda crece con √(k+1) por ser suma de intervalos independientes.
+        Optional<Pronostico> pronostico(int k, LocalDateTime ahora) {
+            if (muestras == 0) return Optional.empty();
+            double transcurrido = Math.min(media, Math.max(0, Duration.between(ultimoServicio, ahora).toMillis() / 1000.0));
+            double esperado = (k + 1) * media - transcurrido;
+            double banda = Z95 * Math.sqrt((k + 1) * varianza);
+            return Optional.of(new Pronostico(Duration.ofMillis(Math.round(esperado * 1000)),
+                                              Duration.ofMillis(Math.round(banda * 1000))));
+        }
+    }
+
+    // [PA06] Resultado inmutable del estimador: espera esperada ± banda de confianza
+    private static final class Pronostico {
+        final Duration esperado, banda;
+        Pronostico(Duration esperado, Duration banda) { this.esperado = esperado; this.banda = banda; }
+        @Override public String toString() { return "~" + formato(esperado) + " ±" + formato(banda); }
+    }
+
     // [PA06] Estado global inmutable del sistema (tupla de valores)
     private static final class State {
-        final Cola<Cliente> cola; final List<Atendido> atendidos; final int consecutivo;
-        State(Cola<Cliente> cola, List<Atendido> atendidos, int consecutivo) {
-            this.cola = cola; this.atendidos = List.copyOf(atendidos); this.consecutivo = consecutivo;
+        final Cola<Cliente> cola; final List<Atendido> atendidos; final int consecutivo; final Estimador est;
+        final HistorialColumnar hist; // [PA06] misma información que atendidos, en columnas para analítica
+        final int enFila; // [PA06] tamaño de la cola llevado en cada transición: O(1), sin recorrer la lista
+        State(Cola<Cliente> cola, int enFila, List<Atendido> atendidos, int consecutivo, Estimador est, HistorialColumnar hist) {
+            this.cola = cola; this.enFila = enFila; this.atendidos = List.copyOf(atendidos); this.consecutivo = consecutivo;
+            this.est = est; this.hist = hist;
         }
-        static State inicial() { return new State(Cola.vacia(), List.of(), 1); }
+        static State inicial() { return new State(Cola.vacia(), 0, List.of(), 1, Estimador.inicial(), HistorialColumnar.vacio()); }
     }
 
     // -------------------- Operaciones puras sobre State --------------------
@@ -179,7 +223,14 @@ public class ColaClientesProGUI extends JFrame {
     private static State encolar(State s, String nombre, LocalDateTime ahora) {
         String turno = String.format("%03d", s.consecutivo);
         Cliente c = new Cliente(nombre, turno, ahora);
-        return new State(s.cola.encolar(c), s.atendidos, s.consecutivo + 1);
+        return new State(s.cola.encolar(c), s.enFila + 1, s.atendidos, s.consecutivo + 1, s.est, s.hist);
+    }
+
+    // [PA06] encolarLote: plegado (fold) de encolar sobre un lote de nombres; una sola transición de estado
+    private static State encolarLote(State s, List<String> nombres, LocalDateTime ahora) {
+        State r = s;
+        for (String n : nombres) r = encolar(r, n, ahora);
+        return r;
     }
 
     // [PA06] atender: pura; calcula espera y devuelve State actualizado + dato derivado
@@ -190,7 +241,9 @@ public class ColaClientesProGUI extends JFrame {
         Duration espera = Duration.between(cli.llegada, ahora);
         Atendido at = new Atendido(cli, ahora, espera);
         var nueva = new ArrayList<>(s.atendidos); nueva.add(at);
-        return new ResultadoAtender(new State(res.cola(), nueva, s.consecutivo), Optional.of(at));
+        HistorialColumnar hist = s.hist.agregar(cli.llegada.toEpochSecond(ZoneOffset.UTC), ahora.toEpochSecond(ZoneOffset.UTC),
+                (int) Math.min(Integer.MAX_VALUE, espera.getSeconds()), cli.nombre);
+        return new ResultadoAtender(new State(res.cola(), s.enFila - 1, nueva, s.consecutivo, s.est.observar(cli.llegada, ahora), hist), Optional.of(at));
     }
 
     // [PA06] limpiar: regresa el mismo estado inicial (puro)
@@ -208,6 +261,26 @@ public class ColaClientesProGUI extends JFrame {
         return String.format("%dm %02ds", m, s);
     }
 
+    // [PA06] resumenAnalitico: consulta pura sobre las columnas del historial (no recorre objetos Atendido)
+    private static String resumenAnalitico(HistorialColumnar h) {
+        if (h.tam() == 0) return "Analítica: aún no hay atendidos.";
+        StringBuilder sb = new StringBuilder("Analítica (" + h.tam() + " atendidos)\n");
+        Analitica.Serie horas = Analitica.porHora(h);
+        for (int i = Math.max(0, horas.intervalos() - 6); i < horas.intervalos(); i++) {
+            if (horas.conteo()[i] == 0) continue;
+            sb.append(String.format("  %s  %4d atendidos | media %s | p90 %s%n",
+                    FECHA_HORA.format(LocalDateTime.ofEpochSecond(horas.inicio(i), 0, ZoneOffset.UTC)),
+                    horas.conteo()[i],
+                    formato(Duration.ofSeconds(Math.round(horas.esperaMedia(i)))),
+                    formato(Duration.ofSeconds(horas.percentilEspera(i, 0.90)))));
+        }
+        Analitica.Tendencia t = Analitica.tendenciaServicio(horas);
+        sb.append(String.format("  Tendencia: %+.1f atendidos/h por hora%n", t.pendientePorIntervalo()));
+        for (Analitica.NombreFrecuente f : Analitica.topRepetidos(h, 5))
+            sb.append("  Frecuente: ").append(f.nombre()).append(" ×").append(f.visitas()).append('\n');
+        return sb.toString().stripTrailing();
+    }
+
     // [PA06] promedioEspera: reduce la lista a un agregado; pura
     private static Optional<Duration> promedioEspera(State s) {
         if (s.atendidos.isEmpty()) return Optional.empty();
@@ -220,6 +293,17 @@ public class ColaClientesProGUI extends JFrame {
         return s.cola.primero().map(c -> Duration.between(c.llegada, ahora));
     }
 
+    // [PA06] estimadoPosicion: espera pronosticada para la posición k de la fila (O(1), no recorre la cola)
+    private static Optional<Pronostico> estimadoPosicion(State s, int k, LocalDateTime ahora) {
+        return s.est.pronostico(k, ahora);
+    }
+
+    // [PA06] estimadoNuevo: un cliente que llega ahora queda en la posición L (los L que ya esperan van antes),
+    // así que espera (L + 1) servicios medios menos lo que ya lleva el servicio en curso
+    private static Optional<Pronostico> estimadoNuevo(State s, LocalDateTime ahora) {
+        return estimadoPosicion(s, s.enFila, ahora);
+    }
+
     /* ============================= GUI ============================= */
     // [PA06] La GUI solo orquesta eventos y muestra datos; no muta estructuras internas directamente.
 
@@ -235,8 +319,10 @@ public class ColaClientesProGUI extends JFrame {
     private final JLabel lblAtendidos = new JLabel("Atendidos: 0");
     private final JLabel lblProm = new JLabel("Prom. espera: —");
     private final JLabel lblEst = new JLabel("Espera del siguiente: —");
+    private final JLabel lblNuevo = new JLabel("Espera estimada (nuevo): —");
 
     private final JTextArea mensajes = new JTextArea(3, 20);
+    private IngestaKioscos kioscos; // null si el endpoint está desactivado
 
     // ======== Constructor: SOLO DISEÑO (núcleo funcional queda intacto) ========
     public ColaClientesProGUI() {
@@ -292,11 +378,13 @@ public class ColaClientesProGUI extends JFrame {
         JButton btnUndo    = new JButton("↩  Deshacer (Ctrl+Z)");
         JButton btnReset   = new JButton("⟲  Reiniciar");
         JButton btnCSV     = new JButton("⬇  Exportar atendidos CSV");
+        JButton btnStats   = new JButton("📊  Analítica de atendidos");
 
         btnAgregar.setToolTipText("Agrega el nombre a la cola (Enter)");
         btnAtender.setToolTipText("Atiendes al primero en la fila (Ctrl+D)");
         btnUndo.setToolTipText("Deshace la última acción (Ctrl+Z)");
         btnCSV.setToolTipText("Genera un CSV legible con tiempos de espera");
+        btnStats.setToolTipText("Atendidos por hora, espera p90, tendencia y nombres frecuentes");
 
         c.gridx = 0; c.gridy = 0; c.weightx = 0; p.add(new JLabel("Nombre:"), c);
         c.gridx = 1; c.gridy = 0; c.weightx = 1;
@@ -310,14 +398,15 @@ public class ColaClientesProGUI extends JFrame {
         c.gridx = 1; c.gridy = 2; p.add(btnReset, c);
 
         c.gridx = 0; c.gridy = 3; c.gridwidth = 2; p.add(btnCSV, c);
+        c.gridx = 0; c.gridy = 4; p.add(btnStats, c);
 
-        JPanel metrics = new JPanel(new GridLayout(5, 1, 6, 4));
+        JPanel metrics = new JPanel(new GridLayout(6, 1, 6, 4));
         metrics.setBorder(BorderFactory.createTitledBorder("Métricas"));
-        for (JLabel lab : List.of(lblSig, lblEnFila, lblAtendidos, lblProm, lblEst)) {
+        for (JLabel lab : List.of(lblSig, lblEnFila, lblAtendidos, lblProm, lblEst, lblNuevo)) {
             lab.setFont(lab.getFont().deriveFont(Font.BOLD));
             metrics.add(lab);
         }
-        c.gridx = 2; c.gridy = 0; c.gridheight = 4; c.weightx = 0.7;
+        c.gridx = 2; c.gridy = 0; c.gridheight = 5; c.weightx = 0.7;
         c.fill = GridBagConstraints.BOTH;
         p.add(metrics, c);
 
@@ -327,6 +416,7 @@ public class ColaClientesProGUI extends JFrame {
         btnUndo.addActionListener(_ -> onUndo());
         btnReset.addActionListener(_ -> onReset());
         btnCSV.addActionListener(_ -> onExportCSV());
+        btnStats.addActionListener(_ -> onAnalitica());
         txtNombre.addActionListener(_ -> onAgregar());
 
         return box("Controles", p);
@@ -359,8 +449,10 @@ public class ColaClientesProGUI extends JFrame {
     private void onAgregar() {
         String nombre = txtNombre.getText().trim();
         if (nombre.isBlank()) { log("Nombre vacío, no se agrega."); return; }
-        undo = undo.push(state);                        // [PA06] guardamos estado previo en Pila<State>
+        guardarUndo();                                  // [PA06] guardamos estado previo en Pila<State>
+        long t0 = Instrumentacion.iniciar();
         state = encolar(state, nombre, LocalDateTime.now());   // [PA06] transición pura de estado
+        Instrumentacion.terminar(Instrumentacion.Op.ENCOLAR, t0, this::enFila);
         List<Cliente> fifo = state.cola.comoListaFIFO();
         log("Entra: " + fifo.get(fifo.size()-1));
         txtNombre.setText("");
@@ -368,9 +460,11 @@ public class ColaClientesProGUI extends JFrame {
     }
 
     private void onAtender() {
-        undo = undo.push(state);                       // [PA06] soporte de deshacer por inmutabilidad
+        guardarUndo();                                 // [PA06] soporte de deshacer por inmutabilidad
+        long t0 = Instrumentacion.iniciar();
         ResultadoAtender res = atender(state, LocalDateTime.now()); // [PA06] función pura
         state = res.state;
+        Instrumentacion.terminar(Instrumentacion.Op.ATENDER, t0, this::enFila);
         if (res.atendido.isPresent()) {
             Atendido a = res.atendido.get();
             log("Atendido: " + a.cliente + " | espera " + formato(a.espera));
@@ -391,14 +485,55 @@ public class ColaClientesProGUI extends JFrame {
     }
 
     private void onReset() {
-        undo = undo.push(state);
+        guardarUndo();
         state = limpiar(state);       // [PA06] función pura
         log("Fila reiniciada.");
         refrescar();
     }
 
+    // Lote de llegadas desde kioscos: un solo undo, una sola transición y un solo refresco por lote
+    private void onLoteKioscos(List<String> nombres) {
+        guardarUndo();
+        long t0 = Instrumentacion.iniciar();
+        state = encolarLote(state, nombres, LocalDateTime.now());
+        Instrumentacion.terminar(Instrumentacion.Op.ENCOLAR, t0, this::enFila);
+        log("Kioscos: +" + nombres.size() + " cliente(s)");
+        refrescar();
+    }
+
+    private void iniciarKioscos(int puerto) {
+        IngestaKioscos ingesta = new IngestaKioscos(lote -> {
+            try {
+                SwingUtilities.invokeAndWait(() -> onLoteKioscos(lote)); // el drenador espera: lotes más grandes si la UI va lenta
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (java.lang.reflect.InvocationTargetException e) {
+                log("Error al aplicar lote de kioscos: " + e.getCause());
+            }
+        });
+        kioscos = ingesta;
+        // EXIT_ON_CLOSE corre las escuchas de cierre antes de salir: se liberan puerto y conexiones
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosing(java.awt.event.WindowEvent e) { kioscos.close(); }
+        });
+        try {
+            ingesta.escuchar(puerto);
+            log("Kioscos escuchando en localhost:" + ingesta.puerto());
+        } catch (java.io.IOException ex) {
+            log("No se pudo abrir el puerto de kioscos " + puerto + ": " + ex.getMessage());
+        }
+    }
+
+    // La consulta corre fuera del EDT sobre una versión inmutable del historial
+    private void onAnalitica() {
+        HistorialColumnar h = state.hist;
+        java.util.concurrent.CompletableFuture.supplyAsync(() -> resumenAnalitico(h))
+                .thenAccept(txt -> SwingUtilities.invokeLater(() -> log(txt)));
+    }
+
     // Exportación sin afectar estado del modelo
     private void onExportCSV() {
+        long t0 = Instrumentacion.iniciar();
         try {
             Path tmp = Files.createTempFile("atendidos-", ".csv");
             try (FileWriter w = new FileWriter(tmp.toFile())) {
@@ -419,6 +554,8 @@ public class ColaClientesProGUI extends JFrame {
             log("CSV exportado: " + tmp);
         } catch (Exception ex) {
             log("Error al exportar CSV: " + ex.getMessage());
+        } finally {
+            Instrumentacion.terminar(Instrumentacion.Op.EXPORTAR_CSV, t0, this::enFila);
         }
     }
 
@@ -426,29 +563,43 @@ public class ColaClientesProGUI extends JFrame {
 
     private void refrescar() {
         // [PA06] La vista se reconstruye a partir del estado actual (render puro)
+        long t0 = Instrumentacion.iniciar();
         modelo.clear();
         List<Cliente> l = state.cola.comoListaFIFO();
         for (int i = 0; i < l.size(); i++) {
             String etiqueta = (i == 0 ? "→ " : "  ") + l.get(i);
             modelo.addElement(etiqueta);
         }
-        lblEnFila.setText("En fila: " + state.cola.tam());
+        lblEnFila.setText("En fila: " + state.enFila);
         lblAtendidos.setText("Atendidos: " + state.atendidos.size());
         lblSig.setText(state.cola.primero().map(c -> "Siguiente: " + c).orElse("Siguiente: —"));
         lblProm.setText("Prom. espera: " + promedioEspera(state).map(ColaClientesProGUI::formato).orElse("—"));
         lblEst.setText("Espera del siguiente: " + estimadoSiguiente(state, LocalDateTime.now()).map(ColaClientesProGUI::formato).orElse("—"));
+        lblNuevo.setText("Espera estimada (nuevo): " + estimadoNuevo(state, LocalDateTime.now()).map(Pronostico::toString).orElse("—"));
         mensajes.setCaretPosition(mensajes.getDocument().getLength());
+        Instrumentacion.terminar(Instrumentacion.Op.REFRESCAR, t0, this::enFila);
     }
 
+    private void guardarUndo() {
+        long t0 = Instrumentacion.iniciar();
+        undo = undo.push(state);
+        Instrumentacion.terminar(Instrumentacion.Op.UNDO_PUSH, t0, this::enFila);
+    }
+
+    private int enFila() { return state.enFila; }
+
     private void log(String s) { mensajes.append(s + "\n"); }
 
     /* ===== Renderer para lista: zebra + primero en negritas (detalle de UI) ===== */
-    private static class ZebraRenderer extends DefaultListCellRenderer {
+    // El pronóstico de cada fila se calcula aquí, solo para las filas visibles que Swing pinta.
+    private class ZebraRenderer extends DefaultListCellRenderer {
         @Override
 
         public Component getListCellRendererComponent(JList<?> list, Object value, int index,
                                                       boolean isSelected, boolean cellHasFocus) {
-            Component c = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            Object texto = estimadoPosicion(state, index, LocalDateTime.now())
+                    .map(p -> value + "   ⏱ " + p).orElse(String.valueOf(value));
+            Component c = super.getListCellRendererComponent(list, texto, index, isSelected, cellHasFocus);
             if (c instanceof JLabel lbl) {
                 // Color de fila alterno solo para estética (no afecta el modelo funcional)
                 if (!isSelected) lbl.setBackground(index % 2 == 0 ? new Color(184, 255, 179) : Color.WHITE);
@@ -463,6 +614,11 @@ public class ColaClientesProGUI extends JFrame {
     /* ================================ main ================================ */
 
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new ColaClientesProGUI().setVisible(true));
+        int puertoKioscos = Integer.getInteger("cola.kioscos.puerto", -1); // -1 = desactivado (por defecto), 0 = puerto libre
+        SwingUtilities.invokeLater(() -> {
+            ColaClientesProGUI gui = new ColaClientesProGUI();
+            gui.setVisible(true);
+            if (puertoKioscos >= 0) gui.iniciarKioscos(puertoKioscos);
+        });
     }
 }
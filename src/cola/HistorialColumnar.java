@@ -0,0 +1,97 @@
+package cola;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Historial de atendidos en columnas primitivas (una columna por campo, sin objetos por registro).
+ *
+ * Es un valor persistente al estilo de State: {@link #agregar} devuelve un NUEVO historial.
+ * Las columnas se comparten entre versiones mientras se agregue al final de la versión más
+ * reciente (O(1) amortizado); si se agrega a una versión vieja (tras deshacer) se copia el
+ * prefijo y las versiones dejan de compartir columnas. Los nombres se guardan como ids de un
+ * diccionario que solo crece, compartido por todas las versiones.
+ *
+ * Tiempos en segundos de "época local" (LocalDateTime.toEpochSecond(UTC)), así agrupar por
+ * hora o día es una división entera.
+ */
+final class HistorialColumnar {
+
+    private static final class Columnas {
+        long[] llegada = new long[16];
+        long[] atendido = new long[16];
+        int[] espera = new int[16];
+        int[] nombre = new int[16];
+        int usados;
+        final Diccionario dic;
+        Columnas(Diccionario dic) { this.dic = dic; }
+    }
+
+    static final class Diccionario {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] nombres = new String[16];
+        synchronized int id(String nombre) {
+            Integer id = ids.get(nombre);
+            if (id != null) return id;
+            int nuevo = ids.size();
+            if (nuevo == nombres.length) nombres = Arrays.copyOf(nombres, nuevo * 2);
+            nombres[nuevo] = nombre;
+            ids.put(nombre, nuevo);
+            return nuevo;
+        }
+        synchronized String nombre(int id) { return nombres[id]; }
+        synchronized int tam() { return ids.size(); }
+    }
+
+    private final Columnas cols;
+    private final int tam;
+
+    private HistorialColumnar(Columnas cols, int tam) { this.cols = cols; this.tam = tam; }
+
+    static HistorialColumnar vacio() { return new HistorialColumnar(new Columnas(new Diccionario()), 0); }
+
+    HistorialColumnar agregar(long llegadaSeg, long atendidoSeg, int esperaSeg, String nombre) {
+        Columnas c = cols;
+        synchronized (c) {
+            if (c.usados != tam) c = ramificar();       // versión vieja: se copia el prefijo
+            if (c.usados == c.llegada.length) crecer(c);
+            int i = c.usados;
+            c.llegada[i] = llegadaSeg;
+            c.atendido[i] = atendidoSeg;
+            c.espera[i] = esperaSeg;
+            c.nombre[i] = c.dic.id(nombre);
+            c.usados = i + 1;
+        }
+        return new HistorialColumnar(c, tam + 1);
+    }
+
+    private Columnas ramificar() {
+        Columnas n = new Columnas(cols.dic);
+        int cap = Math.max(16, tam * 2);
+        n.llegada = Arrays.copyOf(cols.llegada, cap);
+        n.atendido = Arrays.copyOf(cols.atendido, cap);
+        n.espera = Arrays.copyOf(cols.espera, cap);
+        n.nombre = Arrays.copyOf(cols.nombre, cap);
+        n.usados = tam;
+        return n;
+    }
+
+    private static void crecer(Columnas c) {
+        int cap = c.llegada.length * 2;
+        c.llegada = Arrays.copyOf(c.llegada, cap);
+        c.atendido = Arrays.copyOf(c.atendido, cap);
+        c.espera = Arrays.copyOf(c.espera, cap);
+        c.nombre = Arrays.copyOf(c.nombre, cap);
+    }
+
+    int tam() { return tam; }
+
+    // Las columnas pueden ser más largas que tam: solo los índices [0, tam) pertenecen a esta versión.
+    // Se leen bajo el monitor para ver las escrituras hechas por el hilo de la UI.
+    long[] llegada() { synchronized (cols) { return cols.llegada; } }
+    long[] atendido() { synchronized (cols) { return cols.atendido; } }
+    int[] espera() { synchronized (cols) { return cols.espera; } }
+    int[] nombre() { synchronized (cols) { return cols.nombre; } }
+    Diccionario diccionario() { return cols.dic; }
+}
@@ -0,0 +1,142 @@
+package cola;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Ingesta concurrente de llegadas desde kioscos de autoservicio.
+ *
+ * Cada kiosco abre una conexión TCP local y envía un nombre por línea (las de más de
+ * {@value #MAX_LINEA} caracteres se descartan); cada conexión se atiende
+ * en su propio hilo virtual. Las llegadas se acumulan en un búfer acotado (muchos productores,
+ * un solo consumidor) y un único hilo drenador las entrega por LOTES al consumidor, que aplica
+ * una sola transición de estado y un solo refresco de UI por lote.
+ *
+ * Sin red, {@link #ofrecer(String)} funciona como kiosco en proceso (pruebas, simulaciones).
+ */
+public final class IngestaKioscos implements AutoCloseable {
+
+    private static final int CAPACIDAD = 16_384; // tope del búfer: si se llena, los kioscos esperan
+    private static final int MAX_LOTE = 4_096;
+    private static final int MAX_LINEA = 256;    // un nombre más largo se descarta entero
+    private static final long ESPERA_MAX_MS = 2_000; // tope de la espera tras un error de accept
+
+    private final BlockingQueue<String> buffer = new ArrayBlockingQueue<>(CAPACIDAD);
+    private final Consumer<List<String>> consumidorLote;
+    private final Thread drenador;
+    private final Set<Socket> conexiones = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket servidor;
+
+    /**
+     * @param consumidorLote recibe cada lote en el hilo drenador; puede bloquear (p. ej. con
+     *                       invokeAndWait) mientras aplica el lote: lo que llegue entretanto
+     *                       se agrupa en el lote siguiente.
+     */
+    public IngestaKioscos(Consumer<List<String>> consumidorLote) {
+        this.consumidorLote = consumidorLote;
+        this.drenador = Thread.ofVirtual().name("kioscos-drenador").start(this::drenar);
+    }
+
+    /** Abre el endpoint TCP en localhost; cada conexión de kiosco corre en un hilo virtual. */
+    public void escuchar(int puerto) throws IOException {
+        ServerSocket ss = new ServerSocket(puerto, 128, InetAddress.getLoopbackAddress());
+        servidor = ss;
+        Thread.ofVirtual().name("kioscos-accept").start(() -> {
+            long esperaMs = 0;
+            while (!ss.isClosed()) {
+                try {
+                    Socket s = ss.accept();
+                    esperaMs = 0;
+                    conexiones.add(s);
+                    Thread.ofVirtual().name("kiosco-" + s.getPort()).start(() -> atenderKiosco(s));
+                } catch (IOException e) {
+                    if (ss.isClosed()) return;
+                    // Error persistente (p. ej. sin descriptores libres): se avisa y se espera, sin girar
+                    esperaMs = Math.min(ESPERA_MAX_MS, Math.max(50, esperaMs * 2));
+                    System.err.println("Kioscos: error al aceptar (" + e.getMessage() + "), reintento en " + esperaMs + " ms");
+                    try {
+                        Thread.sleep(esperaMs);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    public int puerto() {
+        ServerSocket ss = servidor;
+        return ss == null ? -1 : ss.getLocalPort();
+    }
+
+    /** Kiosco en proceso: encola una llegada, esperando si el búfer está lleno. */
+    public void ofrecer(String nombre) throws InterruptedException {
+        String limpio = nombre == null ? "" : nombre.trim();
+        if (!limpio.isEmpty()) buffer.put(limpio);
+    }
+
+    private void atenderKiosco(Socket s) {
+        try (s; BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8))) {
+            // Lectura carácter a carácter con tope: una línea sin fin no hace crecer la memoria
+            StringBuilder linea = new StringBuilder(64);
+            boolean desbordada = false;
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\n') {
+                    if (!desbordada) ofrecer(linea.toString());
+                    linea.setLength(0);
+                    desbordada = false;
+                } else if (c != '\r' && !desbordada) {
+                    if (linea.length() < MAX_LINEA) linea.append((char) c);
+                    else desbordada = true;
+                }
+            }
+            if (!desbordada) ofrecer(linea.toString());
+        } catch (IOException ignored) {
+            // el kiosco cerró la conexión
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            conexiones.remove(s);
+        }
+    }
+
+    private void drenar() {
+        List<String> lote = new ArrayList<>(MAX_LOTE);
+        try {
+            while (true) {
+                lote.add(buffer.take());               // bloquea hasta la primera llegada
+                buffer.drainTo(lote, MAX_LOTE - 1);    // y se lleva todo lo acumulado
+                consumidorLote.accept(List.copyOf(lote));
+                lote.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Detiene el drenador y cierra el endpoint y las conexiones de kioscos abiertas. */
+    @Override
+    public void close() {
+        drenador.interrupt();
+        ServerSocket ss = servidor;
+        if (ss != null) {
+            try { ss.close(); } catch (IOException ignored) {}
+        }
+        for (Socket s : conexiones) {
+            try { s.close(); } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package cola;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Instrumentación de las transiciones de la cola: eventos de JDK Flight Recorder más un registro
+ * propio de contadores e histogramas de latencia (siempre activo, sin bloqueos).
+ *
+ * Uso: {@code long t0 = Instrumentacion.iniciar(); ...; Instrumentacion.terminar(Op.ATENDER, t0, tamFila);}
+ * Con la grabación JFR apagada solo se pagan dos nanoTime y un par de incrementos atómicos, sin
+ * reservar memoria: el evento {@link Transicion} se crea al terminar y solo si su tipo está
+ * habilitado, y el tamaño de la fila se calcula solo si el evento se va a grabar.
+ *
+ * Para grabar en campo: {@code java -XX:StartFlightRecording:filename=cola.jfr,settings=profile ...}
+ */
+final class Instrumentacion {
+
+    enum Op { ENCOLAR, ATENDER, REFRESCAR, UNDO_PUSH, EXPORTAR_CSV }
+
+    private static final int CUBETAS = 64; // cubeta i: latencias en [2^i, 2^(i+1)) ns
+    private static final Op[] OPS = Op.values();
+    private static final AtomicLongArray HIST = new AtomicLongArray(OPS.length * CUBETAS);
+    private static final LongAdder[] TOTAL_NS = new LongAdder[OPS.length];
+    private static final LongAdder EDT_BLOQUEO_NS = new LongAdder();
+    private static final EventType TIPO_TRANSICION = EventType.getEventType(Transicion.class);
+
+    static {
+        for (int i = 0; i < TOTAL_NS.length; i++) TOTAL_NS[i] = new LongAdder();
+        FlightRecorder.addPeriodicEvent(Resumen.class, Instrumentacion::emitirResumen);
+    }
+
+    private Instrumentacion() {}
+
+    /** Se graba al terminar; la latencia va en {@code duracion}, no en la duración propia del evento. */
+    @Name("cola.Transicion")
+    @Label("Transición de la cola")
+    @Category("Cola de clientes")
+    @StackTrace(false)
+    static final class Transicion extends Event {
+        @Label("Operación") String operacion;
+        @Label("En fila") int enFila;
+        @Label("En EDT") boolean edt;
+        @Label("Duración") @Timespan(Timespan.NANOSECONDS) long duracion;
+    }
+
+    @Name("cola.Resumen")
+    @Label("Resumen de latencias")
+    @Description("Conteo y percentiles aproximados (cubetas log2) por operación")
+    @Category("Cola de clientes")
+    @Period("10 s")
+    @StackTrace(false)
+    static final class Resumen extends Event {
+        @Label("Operación") String operacion;
+        @Label("Conteo") long conteo;
+        @Label("p50") @Timespan(Timespan.NANOSECONDS) long p50;
+        @Label("p99") @Timespan(Timespan.NANOSECONDS) long p99;
+        @Label("Máximo") @Timespan(Timespan.NANOSECONDS) long max;
+        @Label("Tiempo total") @Timespan(Timespan.NANOSECONDS) long total;
+        @Label("Bloqueo acumulado del EDT") @Timespan(Timespan.NANOSECONDS) long edtBloqueo;
+    }
+
+    static long iniciar() {
+        return System.nanoTime();
+    }
+
+    static void terminar(Op op, long t0, IntSupplier enFila) {
+        long ns = System.nanoTime() - t0;
+        int base = op.ordinal() * CUBETAS;
+        HIST.incrementAndGet(base + cubeta(ns));
+        TOTAL_NS[op.ordinal()].add(ns);
+        boolean edt = SwingUtilities.isEventDispatchThread();
+        if (edt) EDT_BLOQUEO_NS.add(ns);
+        if (!TIPO_TRANSICION.isEnabled()) return;
+        Transicion t = new Transicion();
+        if (t.shouldCommit()) {
+            t.operacion = op.name();
+            t.enFila = enFila.getAsInt();
+            t.edt = edt;
+            t.duracion = ns;
+            t.commit();
+        }
+    }
+
+    /** Tiempo acumulado en la operación, en nanosegundos. */
+    static long totalNs(Op op) {
+        return TOTAL_NS[op.ordinal()].sum();
+    }
+
+    /** Conteo de operaciones registradas. */
+    static long conteo(Op op) {
+        long n = 0;
+        for (int i = 0; i < CUBETAS; i++) n += HIST.get(op.ordinal() * CUBETAS + i);
+        return n;
+    }
+
+    /** Percentil aproximado (límite superior de la cubeta), en nanosegundos. */
+    static long percentil(Op op, double q) {
+        long n = conteo(op);
+        if (n == 0) return 0;
+        long objetivo = (long) Math.ceil(q * n), acum = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acum += HIST.get(op.ordinal() * CUBETAS + i);
+            if (acum >= objetivo) return limite(i);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    static long edtBloqueoNs() {
+        return EDT_BLOQUEO_NS.sum();
+    }
+
+    private static void emitirResumen() {
+        for (Op op : OPS) {
+            Resumen r = new Resumen();
+            r.operacion = op.name();
+            r.conteo = conteo(op);
+            r.p50 = percentil(op, 0.50);
+            r.p99 = percentil(op, 0.99);
+            r.max = percentil(op, 1.0);
+            r.total = totalNs(op);
+            r.edtBloqueo = edtBloqueoNs();
+            r.commit();
+        }
+    }
+
+    private static int cubeta(long ns) {
+        return ns <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(ns);
+    }
+
+    private static long limite(int cubeta) {
+        return cubeta >= 62 ? Long.MAX_VALUE : (1L << (cubeta + 1)) - 1;
+    }
+}